@@ -1,4 +1,13 @@
 -- Schema bootstrap for Telecom System (account recycling enabled)
+DROP MATERIALIZED VIEW IF EXISTS mv_user_activity;
+DROP TABLE IF EXISTS statistics_view_refresh;
+DROP TABLE IF EXISTS session_concurrency_checkpoint;
+DROP TABLE IF EXISTS session_concurrency_delta;
+DROP TABLE IF EXISTS rollup_watermark;
+DROP TABLE IF EXISTS system_duration_rollup;
+DROP TABLE IF EXISTS login_duration_rollup;
+DROP TABLE IF EXISTS login_daily_rollup;
+DROP TABLE IF EXISTS usage_ledger;
 DROP TABLE IF EXISTS login_info;
 DROP TABLE IF EXISTS recycled_accounts;
 DROP TABLE IF EXISTS admin_info;
@@ -44,13 +53,181 @@ CREATE TABLE admin_info (
     password VARCHAR(60) NOT NULL
 );
 
--- Login sessions
+-- Login sessions, range-partitioned by month on login_time
 CREATE TABLE login_info (
     account_id INT NOT NULL REFERENCES user_info(account),
     login_time TIMESTAMPTZ NOT NULL,
     logout_time TIMESTAMPTZ,
     PRIMARY KEY (account_id, login_time)
+) PARTITION BY RANGE (login_time);
+
+-- Catch-all for rows outside the pre-created months
+CREATE TABLE login_info_default PARTITION OF login_info DEFAULT;
+
+-- Open sessions only (partial, inherited by every partition); seeds the online-session registry
+CREATE INDEX login_info_open_idx ON login_info (account_id, login_time) WHERE logout_time IS NULL;
+
+-- Range scans on logout_time (rollup folds, columnar snapshot refresh)
+CREATE INDEX login_info_logout_time_idx ON login_info (logout_time);
+
+-- Create the monthly partition containing p_month (no-op if it exists).
+-- Rows that already landed in the default partition for that month are moved over.
+CREATE OR REPLACE FUNCTION create_login_info_partition(p_month DATE)
+RETURNS TEXT AS $$
+DECLARE
+    v_from TIMESTAMPTZ := date_trunc('month', p_month::TIMESTAMPTZ);
+    v_to   TIMESTAMPTZ := date_trunc('month', p_month::TIMESTAMPTZ) + INTERVAL '1 month';
+    v_name TEXT := 'login_info_y' || to_char(v_from, 'YYYY') || 'm' || to_char(v_from, 'MM');
+BEGIN
+    -- serialize with other nodes running the same job
+    PERFORM pg_advisory_xact_lock(hashtext('login_info_partitions'));
+
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE login_info INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name);
+    EXECUTE format('INSERT INTO %I SELECT * FROM login_info_default WHERE login_time >= $1 AND login_time < $2', v_name)
+        USING v_from, v_to;
+    DELETE FROM login_info_default WHERE login_time >= v_from AND login_time < v_to;
+    -- ATTACH clones the primary key index and the user_info foreign key onto the new partition
+    EXECUTE format('ALTER TABLE login_info ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', v_name, v_from, v_to);
+    RETURN v_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detach monthly partitions that end before the retention horizon and keep them as archive tables.
+-- Partitions that still hold open sessions are left attached.
+-- The cloned foreign key is dropped so deleting/recycling a user is not blocked by archived rows.
+CREATE OR REPLACE FUNCTION detach_login_info_partitions(p_retain_months INT)
+RETURNS SETOF TEXT AS $$
+DECLARE
+    v_horizon TIMESTAMPTZ := date_trunc('month', CURRENT_TIMESTAMP) - make_interval(months => p_retain_months);
+    v_part RECORD;
+    v_fk RECORD;
+    v_has_open BOOLEAN;
+    v_archive TEXT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('login_info_partitions'));
+
+    FOR v_part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'login_info'::regclass
+          AND c.relname ~ '^login_info_y[0-9]{4}m[0-9]{2}$'
+        ORDER BY c.relname
+    LOOP
+        IF to_date(substr(v_part.relname, 13, 4) || substr(v_part.relname, 18, 2), 'YYYYMM')
+               + INTERVAL '1 month' > v_horizon THEN
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE logout_time IS NULL)', v_part.relname) INTO v_has_open;
+        IF v_has_open THEN
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('ALTER TABLE login_info DETACH PARTITION %I', v_part.relname);
+        FOR v_fk IN
+            SELECT conname FROM pg_constraint
+            WHERE conrelid = v_part.relname::regclass AND contype = 'f'
+        LOOP
+            EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', v_part.relname, v_fk.conname);
+        END LOOP;
+
+        v_archive := replace(v_part.relname, 'login_info_', 'login_info_archive_');
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', v_part.relname, v_archive);
+        RETURN NEXT v_archive;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Pre-create the current month and the next three
+SELECT create_login_info_partition((date_trunc('month', CURRENT_DATE) + make_interval(months => m))::DATE)
+FROM generate_series(0, 3) AS m;
+
+-- Usage ledger: closed-session time accumulated within the current package period
+CREATE TABLE usage_ledger (
+    account_id INT PRIMARY KEY REFERENCES user_info(account) ON DELETE CASCADE,
+    used_millis BIGINT NOT NULL DEFAULT 0,
+    package_start_time TIMESTAMPTZ NOT NULL,
+    open_session_start TIMESTAMPTZ,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Daily rollup of closed sessions, keyed by login date (folded by LoginRollupService);
+-- durations are floored to whole minutes per session before summing, as the per-session statistics do
+CREATE TABLE login_daily_rollup (
+    account_id INT NOT NULL REFERENCES user_info(account) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    session_count INT NOT NULL,
+    total_minutes BIGINT NOT NULL,
+    max_session_minutes BIGINT NOT NULL,
+    last_login_time TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (account_id, day)
+);
+
+-- Session-duration distribution as log-bucketed sketches (see DurationSketch):
+-- bucket = 0 for 0 s, otherwise CEIL(LN(seconds) / LN(1.01 / 0.99)) + 1; folded with login_daily_rollup
+CREATE TABLE login_duration_rollup (
+    account_id INT NOT NULL REFERENCES user_info(account) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    bucket SMALLINT NOT NULL,
+    session_count INT NOT NULL,
+    PRIMARY KEY (account_id, day, bucket)
+);
+
+CREATE TABLE system_duration_rollup (
+    day DATE NOT NULL,
+    bucket SMALLINT NOT NULL,
+    session_count INT NOT NULL,
+    PRIMARY KEY (day, bucket)
+);
+
+-- Progress of incremental jobs: everything with logout_time < watermark has been folded
+CREATE TABLE rollup_watermark (
+    name VARCHAR(64) PRIMARY KEY,
+    watermark TIMESTAMPTZ
+);
+
+-- Online-concurrency histogram as a difference array (maintained by ConcurrencyHistogram):
+-- +1 at the login bucket, -1 at the bucket after logout; resolution 'H' = hour, 'M' = minute
+CREATE TABLE session_concurrency_delta (
+    resolution CHAR(1) NOT NULL,
+    bucket TIMESTAMPTZ NOT NULL,
+    delta INT NOT NULL,
+    PRIMARY KEY (resolution, bucket)
+);
+
+-- Number of open sessions at the start of each day (prefix sum checkpoint), one series per resolution:
+-- a session ending in the last hour of a day is still open at midnight by hour buckets but not by minute buckets
+CREATE TABLE session_concurrency_checkpoint (
+    resolution CHAR(1) NOT NULL,
+    day DATE NOT NULL,
+    open_sessions INT NOT NULL,
+    PRIMARY KEY (resolution, day)
+);
+
+-- Per-account login aggregates for the user-activity dashboard (refreshed by StatisticsViewService).
+-- Covers the attached login_info partitions; the unique index allows REFRESH ... CONCURRENTLY.
+CREATE MATERIALIZED VIEW mv_user_activity AS
+    SELECT account_id,
+           COUNT(*) AS login_count,
+           COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (logout_time - login_time)) / 60))
+                    FILTER (WHERE logout_time IS NOT NULL), 0)::BIGINT AS total_minutes,
+           MAX(login_time) AS last_login_time
+    FROM login_info
+    GROUP BY account_id
+WITH DATA;
+CREATE UNIQUE INDEX mv_user_activity_account_idx ON mv_user_activity (account_id);
+
+-- Last successful refresh of each materialized view (shared by all nodes)
+CREATE TABLE statistics_view_refresh (
+    view_name VARCHAR(64) PRIMARY KEY,
+    refreshed_at TIMESTAMPTZ NOT NULL
 );
+INSERT INTO statistics_view_refresh (view_name, refreshed_at) VALUES ('mv_user_activity', CURRENT_TIMESTAMP);
 
 -- Pool of recycled accounts
 CREATE TABLE recycled_accounts (
@@ -91,6 +268,7 @@ CREATE TRIGGER assign_user_account_trg
     EXECUTE FUNCTION allocate_user_account();
 
 -- Trigger: recycle account on delete and clean login_info
+-- (the DELETE is routed to every attached partition; archived partitions are not touched)
 CREATE OR REPLACE FUNCTION recycle_user_account()
 RETURNS TRIGGER AS $$
 BEGIN
@@ -0,0 +1,104 @@
+package com.telecom_system.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 按缓存结构编码的二进制序列化器
+ *
+ * 格式：魔数 0xB1（同时表示格式版本 1）| 标志位 | 编码内容。编码内容超过 compressThreshold 字节时
+ * 以 Deflater.BEST_SPEED 压缩（标志位 COMPRESSED），压缩后不更小则保留原文。
+ * 编码器不支持的值写为 JSON；读取时首字节不是魔数的数据（包括切换前写入的 JSON 条目）交给 JSON 序列化器。
+ */
+public class BinaryCacheSerializer<T> implements RedisSerializer<Object> {
+
+    static final int MAGIC = 0xB1;
+    static final int COMPRESSED = 1;
+
+    private final BinaryCodec<T> codec;
+    private final RedisSerializer<Object> fallback;
+    private final int compressThreshold;
+
+    public BinaryCacheSerializer(BinaryCodec<T> codec, RedisSerializer<Object> fallback, int compressThreshold) {
+        this.codec = codec;
+        this.fallback = fallback;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null || !codec.supports(value)) {
+            return fallback.serialize(value);
+        }
+        BinaryOutput body = new BinaryOutput(256);
+        codec.write(body, (T) value);
+        byte[] payload = body.toByteArray();
+        int flags = 0;
+        if (payload.length > compressThreshold) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length < payload.length) {
+                payload = compressed;
+                flags |= COMPRESSED;
+            }
+        }
+        byte[] result = new byte[payload.length + 2];
+        result[0] = (byte) MAGIC;
+        result[1] = (byte) flags;
+        System.arraycopy(payload, 0, result, 2, payload.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < 2 || (bytes[0] & 0xFF) != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            byte[] payload = (bytes[1] & COMPRESSED) != 0 ? inflate(bytes, 2) : bytes;
+            return codec.read(new BinaryInput(payload, payload == bytes ? 2 : 0));
+        } catch (IllegalArgumentException | DataFormatException e) {
+            throw new SerializationException("缓存数据无法解码: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("压缩数据已截断");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
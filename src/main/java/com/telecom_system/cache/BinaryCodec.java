@@ -0,0 +1,16 @@
+package com.telecom_system.cache;
+
+/**
+ * 单个缓存的值编码：按已知结构逐字段写入，不写类名
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * 能否编码该值；不能时序列化器改用 JSON
+     */
+    boolean supports(Object value);
+
+    void write(BinaryOutput out, T value);
+
+    T read(BinaryInput in);
+}
@@ -0,0 +1,96 @@
+package com.telecom_system.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * BinaryOutput 的对应读取；数据截断或格式错误时抛出 IllegalArgumentException
+ */
+public class BinaryInput {
+
+    private final byte[] bytes;
+    private int position;
+
+    public BinaryInput(byte[] bytes, int offset) {
+        this.bytes = bytes;
+        this.position = offset;
+    }
+
+    public int readByte() {
+        if (position >= bytes.length) {
+            throw new IllegalArgumentException("缓存数据已截断");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public long readVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    public int readVarInt() {
+        return Math.toIntExact(readVarLong());
+    }
+
+    public double readDouble() {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public byte[] readBytes() {
+        int length = readVarInt();
+        if (length < 0 || length > bytes.length - position) {
+            throw new IllegalArgumentException("缓存数据已截断");
+        }
+        byte[] value = new byte[length];
+        System.arraycopy(bytes, position, value, 0, length);
+        position += length;
+        return value;
+    }
+
+    public Integer readNullableInt() {
+        return readBoolean() ? readVarInt() : null;
+    }
+
+    public String readString() {
+        return readBoolean() ? new String(readBytes(), StandardCharsets.UTF_8) : null;
+    }
+
+    public BigDecimal readDecimal() {
+        if (!readBoolean()) {
+            return null;
+        }
+        int scale = readVarInt();
+        return readBoolean() ? BigDecimal.valueOf(readVarLong(), scale) : new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+
+    public LocalDate readDate() {
+        return readBoolean() ? LocalDate.ofEpochDay(readVarLong()) : null;
+    }
+
+    public LocalDateTime readDateTime() {
+        if (!readBoolean()) {
+            return null;
+        }
+        LocalDate date = LocalDate.ofEpochDay(readVarLong());
+        return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.telecom_system.cache;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * 紧凑二进制写入：整数为变长编码（负数先 zigzag），字符串为长度前缀的 UTF-8，
+ * 可为 null 的字段前置一个存在标记字节。直接写入自增长数组（不使用逐字节加锁的 ByteArrayOutputStream）
+ */
+public class BinaryOutput {
+
+    private byte[] buffer;
+    private int size;
+
+    public BinaryOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[size++] = (byte) zigzag;
+    }
+
+    public void writeVarInt(int value) {
+        writeVarLong(value);
+    }
+
+    public void writeDouble(double value) {
+        ensureCapacity(8);
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    public void writeBytes(byte[] value) {
+        writeVarInt(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, size, value.length);
+        size += value.length;
+    }
+
+    /**
+     * 返回 false 表示值为 null，调用方无需再写入内容
+     */
+    public boolean writePresence(Object value) {
+        writeBoolean(value != null);
+        return value != null;
+    }
+
+    public void writeNullableInt(Integer value) {
+        if (writePresence(value)) {
+            writeVarInt(value);
+        }
+    }
+
+    public void writeString(String value) {
+        if (writePresence(value)) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // 标度 + 非标度值：能放入 long 的（余额等金额）写为变长整数，否则写为补码字节
+    public void writeDecimal(BigDecimal value) {
+        if (writePresence(value)) {
+            writeVarInt(value.scale());
+            if (value.unscaledValue().bitLength() < 64) {
+                writeBoolean(true);
+                writeVarLong(value.unscaledValue().longValue());
+            } else {
+                writeBoolean(false);
+                writeBytes(value.unscaledValue().toByteArray());
+            }
+        }
+    }
+
+    public void writeDate(LocalDate value) {
+        if (writePresence(value)) {
+            writeVarLong(value.toEpochDay());
+        }
+    }
+
+    public void writeDateTime(LocalDateTime value) {
+        if (writePresence(value)) {
+            writeVarLong(value.toLocalDate().toEpochDay());
+            writeVarLong(value.toLocalTime().toNanoOfDay());
+        }
+    }
+}
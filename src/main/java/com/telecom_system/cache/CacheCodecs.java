@@ -0,0 +1,236 @@
+package com.telecom_system.cache;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.telecom_system.dto.PageResult;
+import com.telecom_system.entity.User;
+
+/**
+ * 各缓存的二进制编码
+ *
+ * USER / USER_LIST / USER_PAGE 按 User 与 PageResult 的字段顺序写入；字段增减时需同步修改编码并
+ * 递增 BinaryCacheSerializer 的格式版本。STATISTICS 用于统计类结果（由 Map、List 与标量组成），
+ * 每个值前置一个类型标记，仍不写类名。
+ */
+public final class CacheCodecs {
+
+    private CacheCodecs() {}
+
+    public static final BinaryCodec<User> USER = new BinaryCodec<>() {
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof User;
+        }
+
+        @Override
+        public void write(BinaryOutput out, User user) {
+            out.writeNullableInt(user.getAccount());
+            out.writeString(user.getName());
+            out.writeString(user.getPassword());
+            out.writeDecimal(user.getBalance());
+            out.writeNullableInt(user.getPackageId());
+            out.writeString(user.getPhone());
+            out.writeDateTime(user.getPackageStartTime());
+        }
+
+        @Override
+        public User read(BinaryInput in) {
+            User user = new User();
+            user.setAccount(in.readNullableInt());
+            user.setName(in.readString());
+            user.setPassword(in.readString());
+            user.setBalance(in.readDecimal());
+            user.setPackageId(in.readNullableInt());
+            user.setPhone(in.readString());
+            user.setPackageStartTime(in.readDateTime());
+            return user;
+        }
+    };
+
+    public static final BinaryCodec<List<User>> USER_LIST = new BinaryCodec<>() {
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof List<?> list && list.stream().allMatch(User.class::isInstance);
+        }
+
+        @Override
+        public void write(BinaryOutput out, List<User> users) {
+            writeUsers(out, users);
+        }
+
+        @Override
+        public List<User> read(BinaryInput in) {
+            return readUsers(in);
+        }
+    };
+
+    public static final BinaryCodec<PageResult<User>> USER_PAGE = new BinaryCodec<>() {
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof PageResult<?> page
+                    && page.getContent() != null && USER_LIST.supports(page.getContent());
+        }
+
+        @Override
+        public void write(BinaryOutput out, PageResult<User> page) {
+            writeUsers(out, page.getContent());
+            out.writeVarLong(page.getTotalElements());
+            out.writeVarInt(page.getTotalPages());
+            out.writeVarInt(page.getPage());
+            out.writeVarInt(page.getSize());
+            out.writeBoolean(page.isFirst());
+            out.writeBoolean(page.isLast());
+        }
+
+        @Override
+        public PageResult<User> read(BinaryInput in) {
+            List<User> content = readUsers(in);
+            return new PageResult<>(content, in.readVarLong(), in.readVarInt(), in.readVarInt(), in.readVarInt(),
+                    in.readBoolean(), in.readBoolean());
+        }
+    };
+
+    private static void writeUsers(BinaryOutput out, List<User> users) {
+        out.writeVarInt(users.size());
+        for (User user : users) {
+            USER.write(out, user);
+        }
+    }
+
+    private static List<User> readUsers(BinaryInput in) {
+        int size = in.readVarInt();
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(USER.read(in));
+        }
+        return users;
+    }
+
+    // ========== 统计结果 ==========
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INT = 2;
+    private static final int LONG = 3;
+    private static final int DOUBLE = 4;
+    private static final int BOOLEAN = 5;
+    private static final int DECIMAL = 6;
+    private static final int DATE = 7;
+    private static final int DATE_TIME = 8;
+    private static final int LIST = 9;
+    private static final int MAP = 10;
+
+    public static final BinaryCodec<Object> STATISTICS = new BinaryCodec<>() {
+        @Override
+        public boolean supports(Object value) {
+            return switch (value) {
+                case null -> true;
+                case String s -> true;
+                case Integer i -> true;
+                case Long l -> true;
+                case Double d -> true;
+                case Boolean b -> true;
+                case BigDecimal d -> true;
+                case LocalDate d -> true;
+                case LocalDateTime t -> true;
+                case List<?> list -> list.stream().allMatch(this::supports);
+                case Map<?, ?> map -> map.entrySet().stream()
+                        .allMatch(e -> e.getKey() instanceof String && supports(e.getValue()));
+                default -> false;
+            };
+        }
+
+        @Override
+        public void write(BinaryOutput out, Object value) {
+            switch (value) {
+                case null -> out.writeByte(NULL);
+                case String s -> {
+                    out.writeByte(STRING);
+                    out.writeBytes(s.getBytes(StandardCharsets.UTF_8));
+                }
+                case Integer i -> {
+                    out.writeByte(INT);
+                    out.writeVarInt(i);
+                }
+                case Long l -> {
+                    out.writeByte(LONG);
+                    out.writeVarLong(l);
+                }
+                case Double d -> {
+                    out.writeByte(DOUBLE);
+                    out.writeDouble(d);
+                }
+                case Boolean b -> {
+                    out.writeByte(BOOLEAN);
+                    out.writeBoolean(b);
+                }
+                case BigDecimal d -> {
+                    out.writeByte(DECIMAL);
+                    out.writeDecimal(d);
+                }
+                case LocalDate d -> {
+                    out.writeByte(DATE);
+                    out.writeDate(d);
+                }
+                case LocalDateTime t -> {
+                    out.writeByte(DATE_TIME);
+                    out.writeDateTime(t);
+                }
+                case List<?> list -> {
+                    out.writeByte(LIST);
+                    out.writeVarInt(list.size());
+                    list.forEach(item -> write(out, item));
+                }
+                case Map<?, ?> map -> {
+                    out.writeByte(MAP);
+                    out.writeVarInt(map.size());
+                    map.forEach((key, item) -> {
+                        out.writeString((String) key);
+                        write(out, item);
+                    });
+                }
+                default -> throw new IllegalArgumentException("统计结果中不支持的类型: " + value.getClass().getName());
+            }
+        }
+
+        @Override
+        public Object read(BinaryInput in) {
+            int tag = in.readByte();
+            return switch (tag) {
+                case NULL -> null;
+                case STRING -> new String(in.readBytes(), StandardCharsets.UTF_8);
+                case INT -> in.readVarInt();
+                case LONG -> in.readVarLong();
+                case DOUBLE -> in.readDouble();
+                case BOOLEAN -> in.readBoolean();
+                case DECIMAL -> in.readDecimal();
+                case DATE -> in.readDate();
+                case DATE_TIME -> in.readDateTime();
+                case LIST -> {
+                    int size = in.readVarInt();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(read(in));
+                    }
+                    yield list;
+                }
+                case MAP -> {
+                    int size = in.readVarInt();
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        map.put(in.readString(), read(in));
+                    }
+                    yield map;
+                }
+                default -> throw new IllegalArgumentException("未知的类型标记: " + tag);
+            };
+        }
+    };
+}
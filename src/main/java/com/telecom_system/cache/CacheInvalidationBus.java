@@ -0,0 +1,61 @@
+package com.telecom_system.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 一级缓存失效广播：经 Redis 发布/订阅通知其他节点丢弃本地副本
+ *
+ * 消息格式：节点标识|缓存名|=键，清空整个缓存时最后一段为 *；本节点发出的消息在接收时忽略。广播失败只记录日志，其他节点的副本最迟在一级缓存 TTL 后过期。
+ */
+public class CacheInvalidationBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final ChannelTopic TOPIC = new ChannelTopic("telecom:cache:invalidate");
+
+    private final StringRedisTemplate redisTemplate;
+    // 带启动时间，进程号复用时也能区分
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "@"
+            + ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 订阅其他节点的失效消息；key 为 null 表示清空 cacheName
+     */
+    public void subscribe(RedisMessageListenerContainer listenerContainer, BiConsumer<String, String> onInvalidate) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String[] parts = new String(message.getBody()).split("\\|", 3);
+            if (parts.length < 3 || nodeId.equals(parts[0])) {
+                return;
+            }
+            String key = parts[2];
+            onInvalidate.accept(parts[1], key.equals("*") ? null : key.substring(1));
+        }, TOPIC);
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, "=" + key);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, "*");
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(TOPIC.getTopic(), nodeId + "|" + cacheName + "|" + key);
+        } catch (Exception e) {
+            LOGGER.warn("[CACHE] 广播 {} 的失效消息失败，其他节点将在一级缓存过期后更新: {}", cacheName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.telecom_system.cache;
+
+import java.time.Duration;
+
+/**
+ * 单个缓存的策略
+ *
+ * ttl：Redis 中条目的过期时间（refresh-ahead 缓存为软过期时间，Redis 中保留更久以便过期后继续返回旧值）；
+ * maxEntries：进程内 L1 的条目上限；refresh：数据变化后缓存如何更新；
+ * adaptive 为 true 时按键的命中与失效次数在 [minTtl, maxTtl] 内伸缩 TTL。
+ */
+public record CachePolicy(Duration ttl, int maxEntries, RefreshStrategy refresh, boolean adaptive,
+                          Duration minTtl, Duration maxTtl) {
+
+    public enum RefreshStrategy {
+        /** 到期或显式失效后，下次读取时重新计算 */
+        EXPIRE,
+        /** 软过期前后在后台提前刷新（RefreshAheadCache） */
+        REFRESH_AHEAD,
+        /** 键带版本号，变更时递增版本号（UserListGeneration），旧条目随 TTL 回收 */
+        GENERATION
+    }
+
+    public CachePolicy {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("缓存 TTL 必须大于 0");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("一级缓存容量必须大于 0");
+        }
+        if (refresh == null) {
+            throw new IllegalArgumentException("缺少缓存刷新策略");
+        }
+        if (adaptive && refresh != RefreshStrategy.EXPIRE) {
+            throw new IllegalArgumentException("只有 expire 策略的缓存可以启用自适应 TTL");
+        }
+        if (minTtl == null || maxTtl == null || minTtl.isNegative() || minTtl.isZero() || minTtl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("自适应 TTL 的范围无效: [" + minTtl + ", " + maxTtl + "]");
+        }
+    }
+
+    /**
+     * 不启用自适应的 expire 策略
+     */
+    public static CachePolicy expire(Duration ttl, int maxEntries) {
+        return new CachePolicy(ttl, maxEntries, RefreshStrategy.EXPIRE, false, minTtlFor(ttl), maxTtlFor(ttl));
+    }
+
+    // 未指定范围时，自适应 TTL 在基础 TTL 的 1/4 到 4 倍之间
+    static Duration minTtlFor(Duration ttl) {
+        return ttl.dividedBy(4).isZero() ? ttl : ttl.dividedBy(4);
+    }
+
+    static Duration maxTtlFor(Duration ttl) {
+        return ttl.multipliedBy(4);
+    }
+}
@@ -0,0 +1,115 @@
+package com.telecom_system.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.telecom_system.cache.CachePolicy.RefreshStrategy;
+
+/**
+ * 缓存策略端点：/actuator/cachepolicies
+ *
+ * GET 查看全部策略，GET /{cache} 另外返回命中最多的键及其自适应 TTL；
+ * POST /{cache}（JSON 中给出要修改的字段，如 {"ttl": "2h", "maxEntries": 5000}）修改策略，
+ * 修改后的完整策略经发布/订阅同步到其他节点。修改只保存在内存中，重启后恢复配置值。
+ */
+@Component
+@Endpoint(id = "cachepolicies")
+public class CachePolicyEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachePolicyEndpoint.class);
+
+    private static final ChannelTopic TOPIC = new ChannelTopic("telecom:cache:policy");
+    private static final int HOTTEST_KEYS = 20;
+
+    private final CachePolicyRegistry registry;
+    private final StringRedisTemplate redisTemplate;
+
+    public CachePolicyEndpoint(CachePolicyRegistry registry, StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer) {
+        this.registry = registry;
+        this.redisTemplate = redisTemplate;
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody());
+            try {
+                String[] parts = body.split("\\|");
+                registry.update(parts[0], new CachePolicyRegistry.Spec(Duration.ofMillis(Long.parseLong(parts[1])),
+                        Integer.parseInt(parts[2]), RefreshStrategy.valueOf(parts[3]), Boolean.parseBoolean(parts[4]),
+                        Duration.ofMillis(Long.parseLong(parts[5])), Duration.ofMillis(Long.parseLong(parts[6]))));
+            } catch (RuntimeException e) {
+                LOGGER.warn("[CACHE] 忽略无效的缓存策略消息 {}: {}", body, e.getMessage());
+            }
+        }, TOPIC);
+    }
+
+    @ReadOperation
+    public Map<String, Object> policies() {
+        Map<String, Object> caches = new LinkedHashMap<>();
+        registry.policies().forEach((name, policy) -> caches.put(name, view(policy)));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("defaults", view(registry.defaults()));
+        result.put("caches", caches);
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> policy(@Selector String cache) {
+        Map<String, Object> result = view(registry.policy(cache));
+        result.put("trackedKeys", registry.trackedKeys(cache));
+        result.put("hottestKeys", registry.hottestKeys(cache, HOTTEST_KEYS).stream()
+                .map(usage -> Map.of("key", usage.key(), "hits", usage.hits(),
+                        "invalidations", usage.invalidations(), "ttl", usage.ttl().toString()))
+                .toList());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Selector String cache, @Nullable Duration ttl, @Nullable Integer maxEntries,
+                                      @Nullable RefreshStrategy refresh, @Nullable Boolean adaptive,
+                                      @Nullable Duration minTtl, @Nullable Duration maxTtl) {
+        CachePolicy policy;
+        try {
+            policy = registry.update(cache, new CachePolicyRegistry.Spec(ttl, maxEntries, refresh, adaptive, minTtl, maxTtl));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+        LOGGER.info("[CACHE] 缓存 {} 的策略已修改为 {}", cache, policy);
+        publish(cache, policy);
+        return view(policy);
+    }
+
+    private void publish(String cache, CachePolicy policy) {
+        try {
+            redisTemplate.convertAndSend(TOPIC.getTopic(), String.join("|", cache,
+                    String.valueOf(policy.ttl().toMillis()), String.valueOf(policy.maxEntries()),
+                    policy.refresh().name(), String.valueOf(policy.adaptive()),
+                    String.valueOf(policy.minTtl().toMillis()), String.valueOf(policy.maxTtl().toMillis())));
+        } catch (Exception e) {
+            LOGGER.warn("[CACHE] 广播缓存 {} 的策略失败，其他节点仍使用原策略: {}", cache, e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> view(CachePolicy policy) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("ttl", policy.ttl().toString());
+        view.put("maxEntries", policy.maxEntries());
+        view.put("refresh", policy.refresh());
+        view.put("adaptive", policy.adaptive());
+        view.put("minTtl", policy.minTtl().toString());
+        view.put("maxTtl", policy.maxTtl().toString());
+        return view;
+    }
+}
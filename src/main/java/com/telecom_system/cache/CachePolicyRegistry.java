@@ -0,0 +1,206 @@
+package com.telecom_system.cache;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.telecom_system.cache.CachePolicy.RefreshStrategy;
+
+/**
+ * 各缓存的策略（TTL、L1 条目上限、刷新方式）
+ *
+ * 策略在 telecom.cache.policies[缓存名].* 中声明，未声明的缓存使用 spring.cache.redis.time-to-live
+ * 与 telecom.cache.l1.max-entries；运行时可经 CachePolicyEndpoint 修改，变更通知给 onChange 注册的监听者。
+ * Redis 写入条目时按 ttlFor 取 TTL，修改后新写入的条目即按新策略过期。
+ *
+ * 自适应 TTL：按键统计本节点的命中与显式失效次数，每个衰减周期减半；
+ * TTL = ttl × (1 + 命中 / HOT_HITS) / (1 + 失效)，限制在 [minTtl, maxTtl] 内，
+ * 即频繁读取、很少失效的键保留更久，经常失效的键更早过期。
+ */
+@Component
+public class CachePolicyRegistry {
+
+    // refresh-ahead 缓存在 Redis 中的保留时长为软过期时间的倍数，期间过期的值仍可返回并在后台刷新
+    static final int STALE_FACTOR = 12;
+    // 一个衰减周期内命中这么多次，TTL 延长一倍
+    static final double HOT_HITS = 20;
+    // 每个缓存最多统计的键数，超出后新键使用基础 TTL
+    static final int MAX_TRACKED_KEYS = 10_000;
+
+    /**
+     * 策略中的部分字段，未给出的字段沿用原值；给出 ttl 而未给出范围时，范围按新 ttl 重新计算
+     */
+    public record Spec(Duration ttl, Integer maxEntries, RefreshStrategy refresh, Boolean adaptive,
+                       Duration minTtl, Duration maxTtl) {
+
+        CachePolicy applyTo(CachePolicy base) {
+            Duration newTtl = ttl != null ? ttl : base.ttl();
+            return new CachePolicy(newTtl,
+                    maxEntries != null ? maxEntries : base.maxEntries(),
+                    refresh != null ? refresh : base.refresh(),
+                    adaptive != null ? adaptive : base.adaptive(),
+                    minTtl != null ? minTtl : ttl != null ? CachePolicy.minTtlFor(newTtl) : base.minTtl(),
+                    maxTtl != null ? maxTtl : ttl != null ? CachePolicy.maxTtlFor(newTtl) : base.maxTtl());
+        }
+    }
+
+    /**
+     * 单个键的统计与据此得出的 TTL
+     */
+    public record KeyUsage(String key, long hits, long invalidations, Duration ttl) {}
+
+    private static final class KeyStats {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong invalidations = new AtomicLong();
+
+        // 减半后两项都为 0 时返回 true（不再跟踪）
+        boolean halve() {
+            return hits.updateAndGet(n -> n / 2) == 0 & invalidations.updateAndGet(n -> n / 2) == 0;
+        }
+    }
+
+    private final CachePolicy defaults;
+    private final ConcurrentMap<String, CachePolicy> policies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, KeyStats>> stats = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, CachePolicy>> listeners = new CopyOnWriteArrayList<>();
+
+    public CachePolicyRegistry(Environment environment) {
+        Binder binder = Binder.get(environment);
+        this.defaults = CachePolicy.expire(
+                binder.bind("spring.cache.redis.time-to-live", Duration.class).orElse(Duration.ofHours(1)),
+                binder.bind("telecom.cache.l1.max-entries", Integer.class).orElse(1000));
+        binder.bind("telecom.cache.policies", Bindable.mapOf(String.class, Spec.class))
+                .orElse(Map.of())
+                .forEach((name, spec) -> policies.put(name, spec.applyTo(defaults)));
+    }
+
+    public CachePolicy defaults() {
+        return defaults;
+    }
+
+    public CachePolicy policy(String cacheName) {
+        return policies.getOrDefault(cacheName, defaults);
+    }
+
+    /**
+     * 声明了策略的缓存（按名称排序）
+     */
+    public Map<String, CachePolicy> policies() {
+        return new TreeMap<>(policies);
+    }
+
+    /**
+     * 修改已声明缓存的策略；关闭自适应时丢弃该缓存的键统计
+     */
+    public CachePolicy update(String cacheName, Spec spec) {
+        CachePolicy updated = policies.computeIfPresent(cacheName, (name, current) -> spec.applyTo(current));
+        if (updated == null) {
+            throw new IllegalArgumentException("缓存 " + cacheName + " 未声明策略");
+        }
+        if (!updated.adaptive()) {
+            stats.remove(cacheName);
+        }
+        listeners.forEach(listener -> listener.accept(cacheName, updated));
+        return updated;
+    }
+
+    public void onChange(BiConsumer<String, CachePolicy> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 写入 Redis 时条目的 TTL
+     */
+    public Duration ttlFor(String cacheName, Object key) {
+        CachePolicy policy = policy(cacheName);
+        if (policy.refresh() == RefreshStrategy.REFRESH_AHEAD) {
+            return policy.ttl().multipliedBy(STALE_FACTOR);
+        }
+        if (!policy.adaptive()) {
+            return policy.ttl();
+        }
+        ConcurrentMap<String, KeyStats> keys = stats.get(cacheName);
+        KeyStats keyStats = keys == null ? null : keys.get(String.valueOf(key));
+        return keyStats == null ? policy.ttl()
+                : adaptiveTtl(policy, keyStats.hits.get(), keyStats.invalidations.get());
+    }
+
+    static Duration adaptiveTtl(CachePolicy policy, long hits, long invalidations) {
+        double factor = (1 + hits / HOT_HITS) / (1 + invalidations);
+        long millis = Math.round(policy.ttl().toMillis() * factor);
+        return Duration.ofMillis(Math.clamp(millis, policy.minTtl().toMillis(), policy.maxTtl().toMillis()));
+    }
+
+    public void recordHit(String cacheName, String key) {
+        KeyStats keyStats = track(cacheName, key);
+        if (keyStats != null) {
+            keyStats.hits.incrementAndGet();
+        }
+    }
+
+    public void recordInvalidation(String cacheName, String key) {
+        KeyStats keyStats = track(cacheName, key);
+        if (keyStats != null) {
+            keyStats.invalidations.incrementAndGet();
+        }
+    }
+
+    private KeyStats track(String cacheName, String key) {
+        if (!policy(cacheName).adaptive()) {
+            return null;
+        }
+        ConcurrentMap<String, KeyStats> keys = stats.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        KeyStats keyStats = keys.get(key);
+        if (keyStats == null && keys.size() < MAX_TRACKED_KEYS) {
+            keyStats = keys.computeIfAbsent(key, k -> new KeyStats());
+        }
+        return keyStats;
+    }
+
+    public int trackedKeys(String cacheName) {
+        ConcurrentMap<String, KeyStats> keys = stats.get(cacheName);
+        return keys == null ? 0 : keys.size();
+    }
+
+    /**
+     * 命中次数最多的键及其当前 TTL
+     */
+    public List<KeyUsage> hottestKeys(String cacheName, int limit) {
+        ConcurrentMap<String, KeyStats> keys = stats.get(cacheName);
+        if (keys == null) {
+            return List.of();
+        }
+        CachePolicy policy = policy(cacheName);
+        return keys.entrySet().stream()
+                .map(e -> {
+                    long hits = e.getValue().hits.get();
+                    long invalidations = e.getValue().invalidations.get();
+                    return new KeyUsage(e.getKey(), hits, invalidations, adaptiveTtl(policy, hits, invalidations));
+                })
+                .sorted(Comparator.comparingLong(KeyUsage::hits).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * 统计衰减：计数减半，归零的键不再跟踪
+     */
+    @Scheduled(fixedDelayString = "${telecom.cache.policy.decay-interval-ms:600000}",
+               initialDelayString = "${telecom.cache.policy.decay-interval-ms:600000}")
+    public void decay() {
+        stats.forEach((cacheName, keys) -> keys.values().removeIf(KeyStats::halve));
+    }
+}
@@ -0,0 +1,103 @@
+package com.telecom_system.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 进程内一级缓存：按访问顺序淘汰的有界 LRU，条目写入后 ttl 纳秒过期
+ *
+ * 值按引用保存，不做序列化，调用方不得修改取得的对象。驱逐时通过 onEviction 回调报告原因。
+ */
+public class LocalCache {
+
+    public enum EvictionCause { SIZE, EXPIRED }
+
+    private record Entry(Object value, long expiresAt) {}
+
+    private final long ttlNanos;
+    private final Consumer<EvictionCause> onEviction;
+    private final Map<String, Entry> entries;
+    // 由 this 同步
+    private int maxEntries;
+
+    public LocalCache(int maxEntries, long ttlNanos, Consumer<EvictionCause> onEviction) {
+        checkCapacity(maxEntries);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.onEviction = onEviction;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > LocalCache.this.maxEntries) {
+                    onEviction.accept(causeOf(eldest.getValue()));
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 调整容量；缩小时立即淘汰最久未访问的条目
+     */
+    public synchronized void resize(int maxEntries) {
+        checkCapacity(maxEntries);
+        this.maxEntries = maxEntries;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            onEviction.accept(causeOf(entry));
+        }
+    }
+
+    /**
+     * 取值；不存在或已过期时返回 null
+     */
+    public synchronized Object get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, System.nanoTime())) {
+            entries.remove(key);
+            onEviction.accept(EvictionCause.EXPIRED);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(String key, Object value) {
+        entries.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized boolean evict(String key) {
+        return entries.remove(key) != null;
+    }
+
+    public synchronized int clear() {
+        int size = entries.size();
+        entries.clear();
+        return size;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static void checkCapacity(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("一级缓存容量必须大于 0");
+        }
+    }
+
+    private static EvictionCause causeOf(Entry entry) {
+        return isExpired(entry, System.nanoTime()) ? EvictionCause.EXPIRED : EvictionCause.SIZE;
+    }
+
+    private static boolean isExpired(Entry entry, long now) {
+        return now - entry.expiresAt() >= 0;
+    }
+}
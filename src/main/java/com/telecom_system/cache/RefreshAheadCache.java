@@ -0,0 +1,220 @@
+package com.telecom_system.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 提前刷新 + 防击穿的缓存读取（用于计算代价高的统计结果）
+ *
+ * 缓存条目为 {value, computedAt, expiresAt, computeMillis} 组成的 Map，经 CacheManager 存入两级缓存；
+ * expiresAt 为软过期时间（缓存策略的 ttl），Redis 中的硬 TTL 更长（见 CachePolicyRegistry），软过期后仍可返回旧值。
+ *
+ * 读取时按 XFetch 概率提前刷新：now - computeMillis * beta * ln(rand) >= expiresAt 时在后台重新计算，
+ * 本次仍返回现有值；计算越慢、越接近过期，提前刷新的概率越高。没有任何可用值时才同步计算。
+ * 同一键的计算在本节点内只有一个线程执行（其余线程等待同一结果），跨节点以 Redis 锁保证只有一个节点计算，
+ * 未取得锁的节点在 wait-ms 内等待结果写入缓存，超时后自行计算。
+ */
+@Component
+public class RefreshAheadCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private static final String LOCK_PREFIX = "{telecom:cache}:lock:";
+    private static final long POLL_MILLIS = 50;
+
+    // 只释放自己持有的锁
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CachePolicyRegistry policies;
+    private final double beta;
+    private final long lockMillis;
+    private final long waitMillis;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+
+    public RefreshAheadCache(CacheManager cacheManager, StringRedisTemplate redisTemplate,
+                             CachePolicyRegistry policies,
+                             @Value("${telecom.cache.refresh-ahead.beta:1.0}") double beta,
+                             @Value("${telecom.cache.refresh-ahead.lock-ms:30000}") long lockMillis,
+                             @Value("${telecom.cache.refresh-ahead.wait-ms:5000}") long waitMillis) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.policies = policies;
+        this.beta = beta;
+        this.lockMillis = lockMillis;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * 读取 cacheName 中 key 对应的值，按需同步计算或后台刷新
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, String key, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Map<String, Object> entry = read(cache, key);
+        if (entry == null) {
+            try {
+                Map<String, Object> loaded = load(cache, key, loader, false).join();
+                // 加入的是一次未取得锁的后台刷新时可能没有结果
+                return (T) (loaded != null ? loaded : compute(cache, key, loader)).get("value");
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        if (shouldRefresh(entry, System.currentTimeMillis())) {
+            load(cache, key, loader, true);
+        }
+        return (T) entry.get("value");
+    }
+
+    // XFetch：计算耗时越长，越早开始刷新
+    private boolean shouldRefresh(Map<String, Object> entry, long now) {
+        long expiresAt = ((Number) entry.get("expiresAt")).longValue();
+        long computeMillis = ((Number) entry.get("computeMillis")).longValue();
+        double early = computeMillis * beta * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + early >= expiresAt;
+    }
+
+    /**
+     * 单飞加载：本节点同一键同时只有一个计算；background 为 true 时在虚拟线程上执行且不等待
+     */
+    private <T> CompletableFuture<Map<String, Object>> load(Cache cache, String key, Supplier<T> loader,
+                                                           boolean background) {
+        String flightKey = cache.getName() + "::" + key;
+        CompletableFuture<Map<String, Object>> created = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inFlight.putIfAbsent(flightKey, created);
+        if (existing != null) {
+            return existing;
+        }
+        Runnable task = () -> {
+            try {
+                created.complete(loadAcrossNodes(cache, key, loader, background));
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+                LOGGER.warn("[CACHE] {} 计算失败: {}", flightKey, e.getMessage());
+            } finally {
+                inFlight.remove(flightKey, created);
+            }
+        };
+        if (background) {
+            refresher.execute(task);
+        } else {
+            task.run();
+        }
+        return created;
+    }
+
+    private <T> Map<String, Object> loadAcrossNodes(Cache cache, String key, Supplier<T> loader, boolean background) {
+        String lockKey = LOCK_PREFIX + cache.getName() + ":" + key;
+        String token = UUID.randomUUID().toString();
+        Boolean locked = tryLock(lockKey, token);
+        if (Boolean.TRUE.equals(locked)) {
+            try {
+                return compute(cache, key, loader);
+            } finally {
+                unlock(lockKey, token);
+            }
+        }
+        if (background && locked != null) {
+            // 其他节点正在刷新，继续返回现有值
+            return read(cache, key);
+        }
+        // 等待持锁节点写入结果
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (locked != null && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Map<String, Object> entry = read(cache, key);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        return compute(cache, key, loader);
+    }
+
+    private Map<String, Object> compute(Cache cache, String key, Supplier<?> loader) {
+        long start = System.currentTimeMillis();
+        Object value = loader.get();
+        long now = System.currentTimeMillis();
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("value", value);
+        entry.put("computedAt", now);
+        entry.put("expiresAt", now + policies.policy(cache.getName()).ttl().toMillis());
+        entry.put("computeMillis", now - start);
+        try {
+            cache.put(key, entry);
+        } catch (RuntimeException e) {
+            LOGGER.warn("[CACHE] 写入 {}::{} 失败: {}", cache.getName(), key, e.getMessage());
+        }
+        return entry;
+    }
+
+    // Redis 不可用时返回 null，调用方不再等待、直接计算
+    private Boolean tryLock(String lockKey, String token) {
+        try {
+            return redisTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(lockMillis));
+        } catch (RuntimeException e) {
+            LOGGER.warn("[CACHE] 获取计算锁 {} 失败，直接计算: {}", lockKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        } catch (RuntimeException e) {
+            LOGGER.warn("[CACHE] 释放计算锁 {} 失败，将在 {} ms 后过期: {}", lockKey, lockMillis, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> read(Cache cache, String key) {
+        try {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            return wrapper != null && wrapper.get() instanceof Map<?, ?> map && map.containsKey("expiresAt")
+                    ? (Map<String, Object>) map : null;
+        } catch (RuntimeException e) {
+            LOGGER.warn("[CACHE] 读取 {}::{} 失败，按未命中处理: {}", cache.getName(), key, e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
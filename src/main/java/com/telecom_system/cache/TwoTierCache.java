@@ -0,0 +1,175 @@
+package com.telecom_system.cache;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 两级缓存：进程内 LocalCache（L1）在前，Redis 缓存（L2）在后
+ *
+ * 读取先查 L1，未命中再查 L2 并回填 L1；写入与失效同时作用于两级，并广播给其他节点丢弃各自的 L1 副本。
+ * 键统一转为字符串，与 Redis 缓存键的转换方式一致。L1 容量取自缓存策略，命中与显式失效计入策略的键统计（自适应 TTL）。
+ * 指标：telecom.cache.gets（tier=l1/l2，result=hit/miss）、telecom.cache.evictions（tier，cause）。
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final Cache redisCache;
+    private final LocalCache localCache;
+    private final CachePolicyRegistry policies;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l1ExplicitEvictions;
+    private final Counter l1RemoteEvictions;
+    private final Counter l2ExplicitEvictions;
+
+    public TwoTierCache(Cache redisCache, CachePolicyRegistry policies, long ttlNanos,
+                        CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        this.name = redisCache.getName();
+        this.redisCache = redisCache;
+        this.policies = policies;
+        this.invalidationBus = invalidationBus;
+
+        this.l1Hits = meterRegistry.counter("telecom.cache.gets", "cache", name, "tier", "l1", "result", "hit");
+        this.l1Misses = meterRegistry.counter("telecom.cache.gets", "cache", name, "tier", "l1", "result", "miss");
+        this.l2Hits = meterRegistry.counter("telecom.cache.gets", "cache", name, "tier", "l2", "result", "hit");
+        this.l2Misses = meterRegistry.counter("telecom.cache.gets", "cache", name, "tier", "l2", "result", "miss");
+        Counter sizeEvictions = evictionCounter(meterRegistry, "l1", "size");
+        Counter expiredEvictions = evictionCounter(meterRegistry, "l1", "expired");
+        this.l1ExplicitEvictions = evictionCounter(meterRegistry, "l1", "explicit");
+        this.l1RemoteEvictions = evictionCounter(meterRegistry, "l1", "remote");
+        this.l2ExplicitEvictions = evictionCounter(meterRegistry, "l2", "explicit");
+        this.localCache = new LocalCache(policies.policy(name).maxEntries(), ttlNanos,
+                cause -> (cause == LocalCache.EvictionCause.SIZE ? sizeEvictions : expiredEvictions).increment());
+    }
+
+    private Counter evictionCounter(MeterRegistry meterRegistry, String tier, String cause) {
+        return meterRegistry.counter("telecom.cache.evictions", "cache", name, "tier", tier, "cause", cause);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = localCache.get(localKey);
+        if (value != null) {
+            l1Hits.increment();
+            policies.recordHit(name, localKey);
+            return new SimpleValueWrapper(value);
+        }
+        l1Misses.increment();
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            l2Misses.increment();
+            return wrapper;
+        }
+        l2Hits.increment();
+        policies.recordHit(name, localKey);
+        localCache.put(localKey, wrapper.get());
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("缓存 " + name + " 中键 " + key + " 的值不是 " + type.getName() + " 类型");
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            return (T) wrapper.get();
+        }
+        T value = redisCache.get(key, valueLoader);
+        if (value != null) {
+            localCache.put(localKey(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        String localKey = localKey(key);
+        localCache.put(localKey, value);
+        invalidationBus.publishEvict(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        Object current = existing != null && existing.get() != null ? existing.get() : value;
+        String localKey = localKey(key);
+        localCache.put(localKey, current);
+        if (existing == null) {
+            invalidationBus.publishEvict(name, localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        l2ExplicitEvictions.increment();
+        String localKey = localKey(key);
+        if (localCache.evict(localKey)) {
+            l1ExplicitEvictions.increment();
+        }
+        policies.recordInvalidation(name, localKey);
+        invalidationBus.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        l2ExplicitEvictions.increment();
+        l1ExplicitEvictions.increment(localCache.clear());
+        invalidationBus.publishClear(name);
+    }
+
+    /**
+     * 其他节点发来的失效消息：只丢弃本节点的 L1 副本（L2 已由发送方处理）
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            l1RemoteEvictions.increment(localCache.clear());
+        } else if (localCache.evict(key)) {
+            l1RemoteEvictions.increment();
+        }
+    }
+
+    /**
+     * 缓存策略修改了 L1 容量
+     */
+    void resize(int maxEntries) {
+        localCache.resize(maxEntries);
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,61 @@
+package com.telecom_system.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 两级缓存管理器：包装 Redis 缓存管理器，为每个缓存加一层进程内 L1（容量随缓存策略调整）
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final CacheManager redisCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final CachePolicyRegistry policies;
+    private final long ttlNanos;
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager redisCacheManager, CacheInvalidationBus invalidationBus,
+                               RedisMessageListenerContainer listenerContainer, MeterRegistry meterRegistry,
+                               CachePolicyRegistry policies, long ttlNanos) {
+        this.redisCacheManager = redisCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.policies = policies;
+        this.ttlNanos = ttlNanos;
+        invalidationBus.subscribe(listenerContainer, (cacheName, key) -> {
+            // 本节点尚未使用过的缓存没有 L1 副本，无需处理
+            TwoTierCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.invalidateLocal(key);
+            }
+        });
+        policies.onChange((cacheName, policy) -> {
+            TwoTierCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.resize(policy.maxEntries());
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, n -> {
+            Cache redisCache = redisCacheManager.getCache(n);
+            return redisCache == null ? null
+                    : new TwoTierCache(redisCache, policies, ttlNanos, invalidationBus, meterRegistry);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+}
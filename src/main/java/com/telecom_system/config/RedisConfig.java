@@ -1,12 +1,20 @@
 package com.telecom_system.config;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -16,12 +24,42 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.telecom_system.cache.BinaryCacheSerializer;
+import com.telecom_system.cache.BinaryCodec;
+import com.telecom_system.cache.CacheCodecs;
+import com.telecom_system.cache.CacheInvalidationBus;
+import com.telecom_system.cache.CachePolicyRegistry;
+import com.telecom_system.cache.TwoTierCacheManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class RedisConfig {
 
+    /**
+     * 两级缓存：进程内 L1（有界 LRU + TTL）在前，Redis L2 在后，失效经发布/订阅广播到其他节点；
+     * 各缓存的 Redis TTL 与 L1 容量取自 CachePolicyRegistry
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                     MeterRegistry meterRegistry,
+                                     CachePolicyRegistry cachePolicyRegistry,
+                                     @Value("${telecom.cache.l1.ttl-seconds:30}") long l1TtlSeconds,
+                                     @Value("${telecom.cache.codec.format:binary}") String codecFormat,
+                                     @Value("${telecom.cache.codec.compress-threshold-bytes:1024}") int compressThreshold) {
+        RedisCacheManager redisCacheManager = redisCacheManager(redisConnectionFactory, cachePolicyRegistry,
+                "binary".equals(codecFormat), compressThreshold);
+        return new TwoTierCacheManager(redisCacheManager,
+                new CacheInvalidationBus(stringRedisTemplate), redisMessageListenerContainer, meterRegistry,
+                cachePolicyRegistry, Duration.ofSeconds(l1TtlSeconds).toNanos());
+    }
+
+    /**
+     * 通用 JSON 序列化器（带类型信息）：未配置二进制编码的缓存使用，也是二进制编码的回退格式
+     */
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
         // 1. 创建 ObjectMapper 并进行深度配置
         ObjectMapper objectMapper = new ObjectMapper();
         
@@ -36,18 +74,64 @@ public class RedisConfig {
         );
 
         // 2. 使用配置好的 objectMapper 创建序列化器
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                                CachePolicyRegistry policies, boolean binary, int compressThreshold) {
+        GenericJackson2JsonRedisSerializer serializer = jsonSerializer();
 
-        // 3. 配置缓存配置项
+        // 3. 配置缓存配置项（TTL 在每次写入时按缓存策略计算，运行时修改策略后新写入的条目即生效）
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
+                .entryTtl((key, value) -> policies.defaults().ttl())
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        // 4. 已知结构的缓存按各自的二进制编码序列化（format=json 时全部沿用 JSON）
+        Map<String, BinaryCodec<?>> codecs = Map.of(
+                "users", CacheCodecs.USER,
+                "user_lists", CacheCodecs.USER_LIST,
+                "search_users", CacheCodecs.USER_LIST,
+                "user_pages", CacheCodecs.USER_PAGE,
+                "traffic_reports", CacheCodecs.STATISTICS);
+        Set<String> names = new HashSet<>(codecs.keySet());
+        names.addAll(policies.policies().keySet());
+
+        Map<String, RedisCacheConfiguration> caches = new HashMap<>();
+        for (String name : names) {
+            RedisCacheConfiguration cacheConfig = config.entryTtl((key, value) -> policies.ttlFor(name, key));
+            BinaryCodec<?> codec = codecs.get(name);
+            caches.put(name, codec == null ? cacheConfig
+                    : withCodec(cacheConfig, codec, binary, serializer, compressThreshold));
+        }
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(config)
+                .withInitialCacheConfigurations(caches)
                 .build();
+        // 不作为 Bean 注册，需手动完成初始化
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    private static RedisCacheConfiguration withCodec(RedisCacheConfiguration base, BinaryCodec<?> codec, boolean binary,
+                                                     GenericJackson2JsonRedisSerializer json, int compressThreshold) {
+        if (!binary) {
+            return base;
+        }
+        return base.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                new BinaryCacheSerializer<>(codec, json, compressThreshold)));
+    }
+
+    /**
+     * Redis 发布/订阅监听容器（在线会话强制下线广播等）
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
     }
 
 }
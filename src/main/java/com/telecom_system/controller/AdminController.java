@@ -1,10 +1,12 @@
 package com.telecom_system.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -151,11 +153,16 @@ public class AdminController {
         return ResponseEntity.ok(Map.of("success", true, "message", "密码重置成功"));
     }
     /**
-     * 获取用户流量使用统计数据
+     * 获取用户流量使用统计数据（日期范围默认为最近 30 天）
      */
     @GetMapping("/traffic-stats")
-    public ResponseEntity<?> getTrafficStats(Model model) {
-        List<Map<String,Object>> stats = statisticsService.getHourlyOnlineUserStatistics();
+    public ResponseEntity<?> getTrafficStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Model model) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(StatisticsService.DEFAULT_TRAFFIC_DAYS - 1);
+        List<Map<String,Object>> stats = statisticsService.getHourlyOnlineUserStatistics(start, end);
         model.addAttribute("stats", stats);
         return ResponseEntity.ok(stats);
     }
@@ -1,10 +1,17 @@
 package com.telecom_system.controller;
 
+import com.telecom_system.dto.CursorPage;
+import com.telecom_system.dto.LoginRecordRow;
+import com.telecom_system.dto.OnlineSession;
 import com.telecom_system.entity.LoginInfo;
+import com.telecom_system.service.LoginInfoExportService;
 import com.telecom_system.service.LoginInfoService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,17 +23,34 @@ import java.util.Map;
 public class LoginInfoController {
     
     private final LoginInfoService loginInfoService;
+    private final LoginInfoExportService loginInfoExportService;
     
-    public LoginInfoController(LoginInfoService loginInfoService) {
+    public LoginInfoController(LoginInfoService loginInfoService, LoginInfoExportService loginInfoExportService) {
         this.loginInfoService = loginInfoService;
+        this.loginInfoExportService = loginInfoExportService;
     }
     
     /**
-     * 获取用户的所有登录记录
+     * 获取用户的登录记录（可选 start/end 限定登录时间范围，缺省为保留期内全部记录）
      */
     @GetMapping("/user/{accountId}")
-    public ResponseEntity<List<LoginInfo>> getUserLoginRecords(@PathVariable Integer accountId) {
-        return ResponseEntity.ok(loginInfoService.findByAccountId(accountId));
+    public ResponseEntity<List<LoginInfo>> getUserLoginRecords(
+            @PathVariable Integer accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return ResponseEntity.ok(loginInfoService.findByAccountId(accountId, start, end));
+    }
+    
+    /**
+     * 游标分页获取用户的登录记录（默认按登录时间倒序；cursor 取上一页返回的 nextCursor）
+     */
+    @GetMapping("/user/{accountId}/page")
+    public ResponseEntity<CursorPage<LoginRecordRow>> getUserLoginRecordPage(
+            @PathVariable Integer accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "desc") String order) {
+        return ResponseEntity.ok(loginInfoService.findHistoryPage(accountId, cursor, size, order));
     }
     
     /**
@@ -40,13 +64,42 @@ public class LoginInfoController {
     }
     
     /**
-     * 获取当前在线用户
+     * 流式导出时间范围内的登录记录（format：ndjson 或 csv）
+     */
+    @GetMapping("/time-range/export")
+    public ResponseEntity<StreamingResponseBody> exportLoginRecordsByTimeRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        LoginInfoExportService.Format exportFormat = LoginInfoExportService.Format.of(format);
+        StreamingResponseBody body = out -> loginInfoExportService.export(start, end, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"login-records." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+    
+    /**
+     * 获取当前在线用户（可选 since：只返回该时刻之后登录的会话）
      */
     @GetMapping("/online")
-    public ResponseEntity<List<LoginInfo>> getOnlineUsers() {
+    public ResponseEntity<List<OnlineSession>> getOnlineUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        if (since != null) {
+            return ResponseEntity.ok(loginInfoService.findOnlineSessionsSince(since));
+        }
         return ResponseEntity.ok(loginInfoService.findOnlineSessions());
     }
     
+    /**
+     * 获取当前在线用户数
+     */
+    @GetMapping("/online/count")
+    public ResponseEntity<Map<String, Object>> getOnlineUserCount() {
+        return ResponseEntity.ok(Map.of("onlineUsers", loginInfoService.countOnlineSessions()));
+    }
+    
     /**
      * 强制用户下线
      */
@@ -57,7 +110,17 @@ public class LoginInfoController {
     }
     
     /**
-     * 获取用户统计信息（总在线时长等）
+     * 获取时间范围内的系统登录统计（登录次数、去重用户数、会话时长分位数等）
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<Map<String, Object>> getSystemLoginStatistics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return ResponseEntity.ok(loginInfoService.getSystemLoginStatistics(start, end));
+    }
+    
+    /**
+     * 获取用户统计信息（总在线时长、会话时长分位数等）
      */
     @GetMapping("/{accountId}/statistics")
     public ResponseEntity<Map<String, Object>> getUserLoginStatistics(@PathVariable Integer accountId) {
@@ -1,21 +1,46 @@
 package com.telecom_system.controller;
 
+import com.telecom_system.dto.ConcurrencyTimeline;
+import com.telecom_system.dto.Dashboard;
+import com.telecom_system.dto.StatisticsSnapshot;
+import com.telecom_system.service.ConcurrencyTimelineService;
+import com.telecom_system.service.DashboardService;
 import com.telecom_system.service.StatisticsService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/statistics")
 @CrossOrigin(origins = "*")
 public class StatisticsController {
+
+    /** 统计数据的截至时间（读取物化视图时即视图上一次刷新的时间） */
+    static final String DATA_AS_OF_HEADER = "X-Data-As-Of";
     
     private final StatisticsService statisticsService;
+    private final ConcurrencyTimelineService concurrencyTimelineService;
+    private final DashboardService dashboardService;
     
-    public StatisticsController(StatisticsService statisticsService) {
+    public StatisticsController(StatisticsService statisticsService,
+                                ConcurrencyTimelineService concurrencyTimelineService,
+                                DashboardService dashboardService) {
         this.statisticsService = statisticsService;
+        this.concurrencyTimelineService = concurrencyTimelineService;
+        this.dashboardService = dashboardService;
+    }
+    
+    /**
+     * 获取管理端仪表盘（各部分并发查询，超时的部分单独标记，其余部分照常返回）
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<Dashboard> getDashboard() {
+        return ResponseEntity.ok(dashboardService.getDashboard());
     }
     
     /**
@@ -35,19 +60,90 @@ public class StatisticsController {
     }
     
     /**
-     * 获取用户活跃度统计
+     * 获取用户活跃度统计（默认读取物化视图，live=true 时实时计算；数据截至时间见响应头 X-Data-As-Of）
+     * limit 缺省 100 条、最多 1000 条，更多用户用 offset 翻页
      */
     @GetMapping("/user-activity")
-    public ResponseEntity<?> getUserActivityStatistics() {
-        return ResponseEntity.ok(statisticsService.getUserActivityStatistics());
+    public ResponseEntity<?> getUserActivityStatistics(
+            @RequestParam(defaultValue = "loginCount") String sort,
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "false") boolean live) {
+        StatisticsSnapshot<?> snapshot = statisticsService.getUserActivityStatistics(sort, direction, limit, offset, live);
+        return ResponseEntity.ok()
+                .header(DATA_AS_OF_HEADER, snapshot.dataAsOf().toString())
+                .body(snapshot.data());
     }
 
     /**
      * 获取小时活跃度统计
      */
     @GetMapping("/user-hourly-activity")
-    public ResponseEntity<?> getHourlyOnlineUserStatistics() {
-        return ResponseEntity.ok(statisticsService.getHourlyOnlineUserStatistics());
+    public ResponseEntity<?> getHourlyOnlineUserStatistics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(StatisticsService.DEFAULT_TRAFFIC_DAYS - 1);
+        return ResponseEntity.ok(statisticsService.getHourlyOnlineUserStatistics(start, end));
+    }
+    
+    /**
+     * 获取 [start, end) 内的并发会话时间线（bucketSeconds 为时间桶长度，默认 1 小时）
+     */
+    @GetMapping("/concurrency-timeline")
+    public ResponseEntity<ConcurrencyTimeline> getConcurrencyTimeline(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "3600") long bucketSeconds) {
+        return ResponseEntity.ok(concurrencyTimelineService.timeline(start, end, bucketSeconds));
+    }
+    
+    /**
+     * 获取某一天每分钟的在线用户数（默认今天）
+     */
+    @GetMapping("/user-minute-activity")
+    public ResponseEntity<?> getMinuteOnlineUserStatistics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(statisticsService.getMinuteOnlineUserStatistics(date != null ? date : LocalDate.now()));
+    }
+    
+    /**
+     * 获取日期范围内登录过的去重用户数（默认最近 30 天；exact=true 时精确统计）
+     */
+    @GetMapping("/unique-users")
+    public ResponseEntity<Map<String, Object>> getUniqueLoginUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean exact) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(StatisticsService.DEFAULT_TRAFFIC_DAYS - 1);
+        return ResponseEntity.ok(statisticsService.getUniqueLoginUsers(start, end, exact));
+    }
+    
+    /**
+     * 获取日期范围内每天的会话时长分位数（默认最近 30 天）
+     */
+    @GetMapping("/session-durations")
+    public ResponseEntity<Map<String, Object>> getSessionDurationStatistics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(StatisticsService.DEFAULT_TRAFFIC_DAYS - 1);
+        return ResponseEntity.ok(statisticsService.getSessionDurationStatistics(start, end));
+    }
+    
+    /**
+     * 获取窗口内最活跃的前 n 个用户
+     * metric：logins（登录次数）或 onlineSeconds（在线秒数）；window：hour、day、month；offset 为 0 表示当前窗口
+     */
+    @GetMapping("/top-users")
+    public ResponseEntity<Map<String, Object>> getTopUsers(
+            @RequestParam(defaultValue = "logins") String metric,
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "10") int n) {
+        return ResponseEntity.ok(statisticsService.getTopUsers(metric, window, offset, n));
     }
     
     /**
@@ -0,0 +1,13 @@
+package com.telecom_system.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 并发会话时间线：每个时间桶的最大/平均并发数，以及整个窗口的峰值与出现时刻
+ */
+public record ConcurrencyTimeline(LocalDateTime start, LocalDateTime end, long bucketSeconds,
+                                  int peak, LocalDateTime peakTime, List<Bucket> buckets) {
+
+    public record Bucket(LocalDateTime start, int max, double avg) {}
+}
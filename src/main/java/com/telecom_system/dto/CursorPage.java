@@ -0,0 +1,8 @@
+package com.telecom_system.dto;
+
+import java.util.List;
+
+/**
+ * 游标分页结果：不含总数，nextCursor 为 null 表示没有更多数据
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasMore, String nextCursor) {}
@@ -0,0 +1,15 @@
+package com.telecom_system.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 管理端仪表盘：各部分并发查询，complete 为 false 表示至少一部分超时或失败（该部分 data 为 null）
+ */
+public record Dashboard(LocalDateTime generatedAt, long elapsedMs, boolean complete, Map<String, Section> sections) {
+
+    /**
+     * 单个部分的结果：status 为 ok、timeout 或 error
+     */
+    public record Section(String status, long elapsedMs, Object data, String error) {}
+}
@@ -0,0 +1,8 @@
+package com.telecom_system.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 登录记录导出行：只含 login_info 本身的列，不加载实体及关联用户
+ */
+public record LoginRecordRow(Integer accountId, LocalDateTime loginTime, LocalDateTime logoutTime) {}
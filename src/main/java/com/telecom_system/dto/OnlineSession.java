@@ -0,0 +1,8 @@
+package com.telecom_system.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 在线会话快照：账号与登录时间
+ */
+public record OnlineSession(Integer accountId, LocalDateTime loginTime) {}
@@ -0,0 +1,8 @@
+package com.telecom_system.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 统计结果及其数据截至时间：读取物化视图时为视图上一次刷新的时间，实时计算时为查询时间
+ */
+public record StatisticsSnapshot<T>(T data, LocalDateTime dataAsOf) {}
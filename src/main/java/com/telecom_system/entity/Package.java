@@ -42,4 +42,52 @@ public class Package {
         }
         return 0L;
     }
+
+    // 便捷方法：获取套餐总秒数（与 PostgreSQL 的 EXTRACT(EPOCH FROM interval) 口径一致）
+    public long getDurationSeconds() {
+        return parseIntervalSeconds(duration);
+    }
+
+    /**
+     * 解析 INTERVAL 文本为秒数
+     * 兼容 "100 hours"、"100:00:00"、"4 days 04:00:00"、"1 mon 2 days" 等格式，
+     * 按 EXTRACT(EPOCH) 的约定：1 月 = 30 天，1 年 = 365.25 天
+     */
+    public static long parseIntervalSeconds(String interval) {
+        if (interval == null || interval.isBlank()) {
+            return 0L;
+        }
+        String[] tokens = interval.trim().toLowerCase().split("\\s+");
+        double seconds = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.contains(":")) {
+                boolean negative = token.startsWith("-");
+                String[] parts = token.replace("-", "").replace("+", "").split(":");
+                double clock = Long.parseLong(parts[0]) * 3600.0;
+                if (parts.length > 1) clock += Long.parseLong(parts[1]) * 60.0;
+                if (parts.length > 2) clock += Double.parseDouble(parts[2]);
+                seconds += negative ? -clock : clock;
+                continue;
+            }
+            double amount = Double.parseDouble(token);
+            String unit = i + 1 < tokens.length ? tokens[++i] : "seconds";
+            if (unit.startsWith("y")) {
+                seconds += amount * 365.25 * 86400;
+            } else if (unit.startsWith("mon")) {
+                seconds += amount * 30 * 86400;
+            } else if (unit.startsWith("w")) {
+                seconds += amount * 7 * 86400;
+            } else if (unit.startsWith("d")) {
+                seconds += amount * 86400;
+            } else if (unit.startsWith("h")) {
+                seconds += amount * 3600;
+            } else if (unit.startsWith("mi")) {
+                seconds += amount * 60;
+            } else {
+                seconds += amount;
+            }
+        }
+        return Math.round(seconds);
+    }
 }
\ No newline at end of file
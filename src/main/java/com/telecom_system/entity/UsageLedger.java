@@ -0,0 +1,59 @@
+package com.telecom_system.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * 用户用量台账：累计当前套餐周期内已结束会话的使用时长
+ * 登出时增量累加，变更套餐时清零，避免每次查询剩余时长都扫描 login_info
+ */
+@Entity
+@Table(name = "usage_ledger")
+public class UsageLedger {
+    @Id
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;                  // 用户ID    PK
+
+    @Column(name = "used_millis", nullable = false)
+    private Long usedMillis;                    // 已结束会话累计时长（毫秒）
+
+    @Column(name = "package_start_time", nullable = false)
+    private LocalDateTime packageStartTime;     // 台账对应的套餐开始时间
+
+    @Column(name = "open_session_start")
+    private LocalDateTime openSessionStart;     // 当前未下线会话的登录时间，null 表示离线
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // 构造方法
+    public UsageLedger() {}
+
+    public UsageLedger(Integer accountId, Long usedMillis, LocalDateTime packageStartTime, LocalDateTime openSessionStart) {
+        this.accountId = accountId;
+        this.usedMillis = usedMillis;
+        this.packageStartTime = packageStartTime;
+        this.openSessionStart = openSessionStart;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getter和Setter方法
+    public Integer getAccountId() { return accountId; }
+    public void setAccountId(Integer accountId) { this.accountId = accountId; }
+
+    public Long getUsedMillis() { return usedMillis; }
+    public void setUsedMillis(Long usedMillis) { this.usedMillis = usedMillis; }
+
+    public LocalDateTime getPackageStartTime() { return packageStartTime; }
+    public void setPackageStartTime(LocalDateTime packageStartTime) { this.packageStartTime = packageStartTime; }
+
+    public LocalDateTime getOpenSessionStart() { return openSessionStart; }
+    public void setOpenSessionStart(LocalDateTime openSessionStart) { this.openSessionStart = openSessionStart; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -56,6 +56,7 @@ public class User {
     
     // Getter和Setter方法
     public Integer getAccount() { return account; }
+    public void setAccount(Integer account) { this.account = account; }
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -0,0 +1,25 @@
+package com.telecom_system.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会话事件：用户上线 / 下线
+ * LOGIN 事件的 time 为登录时间，LOGOUT 事件的 time 为登出时间；
+ * loginTime 为会话的登录时间（LOGOUT 事件中未知时为 null）
+ */
+public record SessionEvent(Type type, int accountId, LocalDateTime time, LocalDateTime loginTime) {
+
+    public enum Type { LOGIN, LOGOUT }
+
+    public static SessionEvent login(int accountId, LocalDateTime loginTime) {
+        return new SessionEvent(Type.LOGIN, accountId, loginTime, loginTime);
+    }
+
+    public static SessionEvent logout(int accountId, LocalDateTime logoutTime) {
+        return new SessionEvent(Type.LOGOUT, accountId, logoutTime, null);
+    }
+
+    public static SessionEvent logout(int accountId, LocalDateTime logoutTime, LocalDateTime loginTime) {
+        return new SessionEvent(Type.LOGOUT, accountId, logoutTime, loginTime);
+    }
+}
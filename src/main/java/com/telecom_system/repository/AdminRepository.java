@@ -2,8 +2,11 @@ package com.telecom_system.repository;
 
 import com.telecom_system.entity.Admin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -49,6 +52,14 @@ public interface AdminRepository extends JpaRepository<Admin, Integer> {
         
         return Optional.empty();
     }
+    // 仅查询登录凭据（账号、用户名、密码），供内存凭据索引加载使用
+    @Query("SELECT a.account, a.name, a.password FROM Admin a")
+    List<Object[]> findAllCredentials();
+
+    // 按账号或用户名查询单个凭据（一次查询，只取三列）；identifier 不是数字时 account 传 null
+    @Query("SELECT a.account, a.name, a.password FROM Admin a WHERE a.account = :account OR a.name = :name")
+    List<Object[]> findCredentials(@Param("account") Integer account, @Param("name") String name);
+
     // 检查管理员名是否存在
     boolean existsByName(String name);
 }
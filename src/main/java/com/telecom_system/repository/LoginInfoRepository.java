@@ -1,6 +1,8 @@
 package com.telecom_system.repository;
 
+import com.telecom_system.dto.LoginRecordRow;
 import com.telecom_system.entity.LoginInfo;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,17 +14,58 @@ import java.util.List;
 @Repository
 public interface LoginInfoRepository extends JpaRepository<LoginInfo, LoginInfo.LoginInfoPK> {
     
-    // 根据用户ID查找所有登录记录
-    List<LoginInfo> findByIdAccountId(Integer accountId);
+    // login_info 按登录时间分区：按时间查询时由调用方给出实际的时间窗口，只有窗口内的分区会被扫描；
+    // 未下线会话不受时间窗口限制，走部分索引 login_info_open_idx
+    
+    // 根据用户ID查找 since 之后的全部登录记录
+    List<LoginInfo> findByIdAccountIdAndIdLoginTimeGreaterThanEqual(Integer accountId, LocalDateTime since);
+    
+    // 根据用户ID查找 [since, until) 内的登录记录
+    List<LoginInfo> findByIdAccountIdAndIdLoginTimeGreaterThanEqualAndIdLoginTimeLessThan(Integer accountId,
+            LocalDateTime since, LocalDateTime until);
+    
+    // 按主键 (account_id, login_time) 游标分页（keyset），只取 login_info 本身的列；limit 由调用方传入 size + 1 以判断是否还有下一页
+    @Query("SELECT new com.telecom_system.dto.LoginRecordRow(li.id.accountId, li.id.loginTime, li.logoutTime) " +
+           "FROM LoginInfo li WHERE li.id.accountId = :accountId AND li.id.loginTime >= :since " +
+           "ORDER BY li.id.loginTime DESC")
+    List<LoginRecordRow> findHistoryDesc(@Param("accountId") Integer accountId, @Param("since") LocalDateTime since,
+                                         Limit limit);
+    
+    @Query("SELECT new com.telecom_system.dto.LoginRecordRow(li.id.accountId, li.id.loginTime, li.logoutTime) " +
+           "FROM LoginInfo li WHERE li.id.accountId = :accountId AND li.id.loginTime >= :since " +
+           "AND li.id.loginTime < :before ORDER BY li.id.loginTime DESC")
+    List<LoginRecordRow> findHistoryBefore(@Param("accountId") Integer accountId, @Param("since") LocalDateTime since,
+                                           @Param("before") LocalDateTime before, Limit limit);
+    
+    @Query("SELECT new com.telecom_system.dto.LoginRecordRow(li.id.accountId, li.id.loginTime, li.logoutTime) " +
+           "FROM LoginInfo li WHERE li.id.accountId = :accountId AND li.id.loginTime >= :since " +
+           "ORDER BY li.id.loginTime ASC")
+    List<LoginRecordRow> findHistoryAsc(@Param("accountId") Integer accountId, @Param("since") LocalDateTime since,
+                                        Limit limit);
+    
+    @Query("SELECT new com.telecom_system.dto.LoginRecordRow(li.id.accountId, li.id.loginTime, li.logoutTime) " +
+           "FROM LoginInfo li WHERE li.id.accountId = :accountId AND li.id.loginTime > :after " +
+           "ORDER BY li.id.loginTime ASC")
+    List<LoginRecordRow> findHistoryAfter(@Param("accountId") Integer accountId, @Param("after") LocalDateTime after,
+                                          Limit limit);
     
     // 查找指定时间范围内的登录记录
     List<LoginInfo> findByIdLoginTimeBetween(LocalDateTime start, LocalDateTime end);
     
-    // 查找未下线的会话（logout_time为null）
-    List<LoginInfo> findByLogoutTimeIsNull();
+    // 统计 [start, end] 内的登录次数
+    @Query("SELECT COUNT(li) FROM LoginInfo li WHERE li.id.loginTime BETWEEN :start AND :end")
+    long countByLoginTimeBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    // [start, end] 内登录次数最多的账号及其次数
+    @Query(value = "SELECT account_id, COUNT(*) AS login_count FROM login_info " +
+           "WHERE login_time BETWEEN :start AND :end " +
+           "GROUP BY account_id ORDER BY login_count DESC, account_id LIMIT 1", nativeQuery = true)
+    List<Object[]> findMostActiveAccount(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
     
-    // 查找指定用户的未下线会话
-    List<LoginInfo> findByIdAccountIdAndLogoutTimeIsNull(Integer accountId);
+    // 仅查询未下线会话的账号与登录时间（不加载实体及关联用户），用于初始化在线会话表
+    // 不设登录时间下界：保留期开始前登录、至今未下线的会话也要加载
+    @Query("SELECT li.id.accountId, li.id.loginTime FROM LoginInfo li WHERE li.logoutTime IS NULL")
+    List<Object[]> findOpenSessionKeys();
     
     // 查找最近24小时的活跃用户
     @Query("SELECT li FROM LoginInfo li WHERE li.id.loginTime >= :sinceTime")
@@ -31,17 +74,17 @@ public interface LoginInfoRepository extends JpaRepository<LoginInfo, LoginInfo.
     // 统计用户的总在线时长（小时） — 使用原生 SQL（PostgreSQL）以避免 JPQL/HQL 对 EXTRACT 的校验问题
     @Query(value = "SELECT account_id, SUM(EXTRACT(EPOCH FROM (logout_time - login_time)) / 3600) " +
            "FROM login_info " +
-           "WHERE logout_time IS NOT NULL AND account_id = :accountId " +
+           "WHERE logout_time IS NOT NULL AND account_id = :accountId AND login_time >= :since " +
            "GROUP BY account_id", nativeQuery = true)
-    Object[] calculateTotalOnlineHours(@Param("accountId") Integer accountId);
+    Object[] calculateTotalOnlineHours(@Param("accountId") Integer accountId, @Param("since") LocalDateTime since);
     
     // 查找在线时长超过阈值的会话 — 使用原生 SQL 返回实体
     @Query(value = "SELECT * FROM login_info li " +
-           "WHERE li.logout_time IS NOT NULL " +
+           "WHERE li.logout_time IS NOT NULL AND li.login_time >= :since " +
            "AND (EXTRACT(EPOCH FROM (li.logout_time - li.login_time)) / 3600) > :hoursThreshold", nativeQuery = true)
-    List<LoginInfo> findLongSessions(@Param("hoursThreshold") Double hoursThreshold);
+    List<LoginInfo> findLongSessions(@Param("hoursThreshold") Double hoursThreshold, @Param("since") LocalDateTime since);
     
     // 自定义查询：查找用户的最后登录时间
-    @Query("SELECT MAX(li.id.loginTime) FROM LoginInfo li WHERE li.id.accountId = :accountId")
-    LocalDateTime findLastLoginTimeByAccountId(@Param("accountId") Integer accountId);
+    @Query("SELECT MAX(li.id.loginTime) FROM LoginInfo li WHERE li.id.accountId = :accountId AND li.id.loginTime >= :since")
+    LocalDateTime findLastLoginTimeByAccountId(@Param("accountId") Integer accountId, @Param("since") LocalDateTime since);
 }
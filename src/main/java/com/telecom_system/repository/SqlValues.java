@@ -0,0 +1,42 @@
+package com.telecom_system.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+/**
+ * 原生 SQL 结果列的类型转换工具
+ * 不同驱动/Hibernate 版本对 TIMESTAMPTZ、NUMERIC 的返回类型不一致，这里统一转换
+ */
+public final class SqlValues {
+
+    private SqlValues() {}
+
+    public static LocalDateTime toLocalDateTime(Object value) {
+        if (value == null) return null;
+        if (value instanceof LocalDateTime ldt) return ldt;
+        if (value instanceof Timestamp ts) return ts.toLocalDateTime();
+        if (value instanceof OffsetDateTime odt) return odt.atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        if (value instanceof Instant instant) return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        if (value instanceof java.util.Date date) return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        throw new IllegalArgumentException("无法转换为时间类型: " + value.getClass().getName());
+    }
+
+    public static LocalDate toLocalDate(Object value) {
+        if (value == null) return null;
+        if (value instanceof LocalDate ld) return ld;
+        if (value instanceof java.sql.Date date) return date.toLocalDate();
+        return toLocalDateTime(value).toLocalDate();
+    }
+
+    public static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    public static double toDouble(Object value) {
+        return value == null ? 0.0 : ((Number) value).doubleValue();
+    }
+}
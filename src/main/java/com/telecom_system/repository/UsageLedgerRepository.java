@@ -0,0 +1,56 @@
+package com.telecom_system.repository;
+
+import com.telecom_system.entity.UsageLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UsageLedgerRepository extends JpaRepository<UsageLedger, Integer> {
+
+    // 变更套餐：台账清零并切换到新的套餐周期
+    @Modifying
+    @Query(value = "UPDATE usage_ledger SET used_millis = 0, package_start_time = :packageStartTime, " +
+           "updated_at = CURRENT_TIMESTAMP WHERE account_id = :accountId", nativeQuery = true)
+    int reset(@Param("accountId") Integer accountId, @Param("packageStartTime") LocalDateTime packageStartTime);
+
+    // 对账修正：仅当台账在对账期间未被并发修改时才覆盖（以 updated_at 做乐观校验）
+    @Modifying
+    @Query(value = "UPDATE usage_ledger SET used_millis = :usedMillis, package_start_time = :packageStartTime, " +
+           "open_session_start = :openSessionStart, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE account_id = :accountId AND updated_at = :expectedUpdatedAt", nativeQuery = true)
+    int correct(@Param("accountId") Integer accountId,
+                @Param("usedMillis") long usedMillis,
+                @Param("packageStartTime") LocalDateTime packageStartTime,
+                @Param("openSessionStart") LocalDateTime openSessionStart,
+                @Param("expectedUpdatedAt") LocalDateTime expectedUpdatedAt);
+
+    /**
+     * 从 login_info 原始记录重新计算台账（单个用户）
+     * 返回列：account_id, package_start_time, used_millis, open_session_start
+     */
+    @Query(value = "SELECT u.account, u.package_start_time, " +
+           "COALESCE(SUM(EXTRACT(EPOCH FROM (l.logout_time - l.login_time)) * 1000) " +
+           "  FILTER (WHERE l.logout_time IS NOT NULL), 0) AS used_millis, " +
+           "MAX(l.login_time) FILTER (WHERE l.logout_time IS NULL) AS open_session_start " +
+           "FROM user_info u " +
+           "LEFT JOIN login_info l ON u.account = l.account_id AND l.login_time >= u.package_start_time " +
+           "WHERE u.account = :accountId " +
+           "GROUP BY u.account, u.package_start_time", nativeQuery = true)
+    List<Object[]> computeFromLoginInfo(@Param("accountId") Integer accountId);
+
+    // 从 login_info 原始记录重新计算全部用户的台账（对账任务使用）
+    @Query(value = "SELECT u.account, u.package_start_time, " +
+           "COALESCE(SUM(EXTRACT(EPOCH FROM (l.logout_time - l.login_time)) * 1000) " +
+           "  FILTER (WHERE l.logout_time IS NOT NULL), 0) AS used_millis, " +
+           "MAX(l.login_time) FILTER (WHERE l.logout_time IS NULL) AS open_session_start " +
+           "FROM user_info u " +
+           "LEFT JOIN login_info l ON u.account = l.account_id AND l.login_time >= u.package_start_time " +
+           "GROUP BY u.account, u.package_start_time", nativeQuery = true)
+    List<Object[]> computeAllFromLoginInfo();
+}
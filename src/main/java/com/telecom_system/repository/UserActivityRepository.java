@@ -0,0 +1,133 @@
+package com.telecom_system.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 用户活跃度统计（单条聚合查询）
+ * 按账号的聚合来自物化视图 mv_user_activity（定时并发刷新）或实时聚合 login_info，再与 user_info 左连接，
+ * 活跃度评级在 SQL 中计算；
+ * 排序列只能取白名单中的值，分页/Top-N 在数据库端完成，结果逐行映射而不构建实体。
+ */
+@Repository
+public class UserActivityRepository {
+
+    /**
+     * 可排序的列（请求参数名 -> SQL 表达式）
+     */
+    public enum SortField {
+        loginCount("login_count"),
+        totalOnlineHours("total_minutes"),
+        lastLoginTime("last_login_time"),
+        accountId("u.account"),
+        balance("u.balance");
+
+        private final String column;
+
+        SortField(String column) {
+            this.column = column;
+        }
+
+        public static SortField of(String value) {
+            for (SortField field : values()) {
+                if (field.name().equalsIgnoreCase(value)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("不支持的排序字段: " + value);
+        }
+    }
+
+    // 在线时长沿用原口径：每个会话按整分钟计（与物化视图 mv_user_activity 的定义一致）
+    private static final String LIVE_ACTIVITY_CTE = """
+        WITH activity AS (
+            SELECT account_id,
+                   COUNT(*) AS login_count,
+                   COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (logout_time - login_time)) / 60))
+                            FILTER (WHERE logout_time IS NOT NULL), 0)::BIGINT AS total_minutes,
+                   MAX(login_time) AS last_login_time
+            FROM login_info
+            WHERE login_time >= ?
+            GROUP BY account_id)
+        """;
+
+    // %s 为按账号聚合的来源：实时 CTE activity 或物化视图 mv_user_activity
+    private static final String ACTIVITY_SQL = """
+        SELECT u.account, u.name,
+               COALESCE(a.login_count, 0) AS login_count,
+               COALESCE(a.total_minutes, 0) AS total_minutes,
+               a.last_login_time,
+               CASE WHEN COALESCE(a.login_count, 0) = 0 THEN '未活跃'
+                    WHEN a.login_count <= 5 THEN '低活跃'
+                    WHEN a.login_count <= 20 THEN '中活跃'
+                    ELSE '高活跃' END AS activity_level,
+               u.balance, u.package_id
+        FROM user_info u
+        LEFT JOIN %s a ON a.account_id = u.account
+        """;
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserActivityRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 实时查询用户活跃度（聚合 since 之后的登录记录），返回 offset 之后的 limit 个用户
+     */
+    public List<Map<String, Object>> findActivity(LocalDateTime since, SortField sort, boolean descending,
+                                                  int limit, int offset) {
+        return query(LIVE_ACTIVITY_CTE + ACTIVITY_SQL.formatted("activity"), since, sort, descending, limit, offset);
+    }
+
+    /**
+     * 从物化视图 mv_user_activity 读取用户活跃度，数据截至视图上一次刷新
+     */
+    public List<Map<String, Object>> findActivityFromView(SortField sort, boolean descending,
+                                                          int limit, int offset) {
+        return query(ACTIVITY_SQL.formatted("mv_user_activity"), null, sort, descending, limit, offset);
+    }
+
+    private List<Map<String, Object>> query(String baseSql, LocalDateTime since, SortField sort, boolean descending,
+                                            int limit, int offset) {
+        String sql = baseSql
+                + " ORDER BY " + sort.column + (descending ? " DESC NULLS LAST" : " ASC NULLS FIRST") + ", u.account"
+                + " LIMIT ? OFFSET ?";
+        List<Map<String, Object>> result = new ArrayList<>(limit);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            int i = 1;
+            if (since != null) {
+                ps.setTimestamp(i++, Timestamp.valueOf(since));
+            }
+            ps.setInt(i++, limit);
+            ps.setInt(i, offset);
+            return ps;
+        }, (ResultSet rs) -> {
+            Map<String, Object> row = new HashMap<>();
+            Timestamp lastLogin = rs.getTimestamp("last_login_time");
+            row.put("accountId", rs.getInt("account"));
+            row.put("userName", rs.getString("name"));
+            row.put("loginCount", rs.getLong("login_count"));
+            row.put("totalOnlineHours", Math.round(rs.getLong("total_minutes") / 60.0 * 100.0) / 100.0);
+            row.put("lastLoginTime", lastLogin == null ? null : lastLogin.toLocalDateTime());
+            row.put("activityLevel", rs.getString("activity_level"));
+            row.put("balance", rs.getBigDecimal("balance"));
+            row.put("packageId", rs.getInt("package_id"));
+            result.add(row);
+        });
+        return result;
+    }
+}
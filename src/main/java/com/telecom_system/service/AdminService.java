@@ -23,17 +23,27 @@ public class AdminService {
 
     // 注意：UserRepository
     private final UserRepository userRepository;
+    private final UsageLedgerService usageLedgerService;
+    private final CredentialDirectory credentialDirectory;
+    private final LiveAggregateStore liveAggregateStore;
+    private final UserListGeneration userListGeneration;
 
-    public AdminService(UserRepository userRepository) {
+    public AdminService(UserRepository userRepository, UsageLedgerService usageLedgerService,
+                        CredentialDirectory credentialDirectory, LiveAggregateStore liveAggregateStore,
+                        UserListGeneration userListGeneration) {
         this.userRepository = userRepository;
+        this.usageLedgerService = usageLedgerService;
+        this.credentialDirectory = credentialDirectory;
+        this.liveAggregateStore = liveAggregateStore;
+        this.userListGeneration = userListGeneration;
     }
 
     // ========== 普通用户的增删改查 ==========
 
     /**
-     * 查询所有普通用户
+     * 查询所有普通用户（列表缓存键带版本号，用户变更后自动换用新键）
      */
-    @Cacheable(value = "users", key = "'all'")
+    @Cacheable(value = "user_lists", key = "'all:' + @userListGeneration.current()")
     public List<User> findAllByOrderByAccountAsc() { 
         List<User> users = userRepository.findAllByOrderByAccountAsc();
         return users;
@@ -42,7 +52,8 @@ public class AdminService {
     /**
      * 分页查询添加缓存
      */
-    @Cacheable(value = "user_pages", key = "#pageable.pageNumber + '-' + #pageable.pageSize")
+    @Cacheable(value = "user_pages",
+               key = "@userListGeneration.current() + ':' + #pageable.pageNumber + '-' + #pageable.pageSize")
     public com.telecom_system.dto.PageResult<User> findAllPaged(Pageable pageable) {
         
         Page<User> users = userRepository.findAll(pageable);
@@ -68,13 +79,16 @@ public class AdminService {
 
     /**
      * 创建普通用户
-     * 改进：需要清理分页和搜索缓存，因为总数和列表已变
+     * 新用户没有单条缓存，只需递增列表缓存版本号（分页、搜索结果与总数已变）
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
     public User createUser(User user) {
         validateUniqueness(user);
         validateFieldFormats(user);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        credentialDirectory.userSaved(saved);
+        liveAggregateStore.userCreated(saved);
+        userListGeneration.changed();
+        return saved;
     }
     /**
      * 唯一性检查
@@ -112,9 +126,9 @@ public class AdminService {
         }
     }
     /**
-     * 更新普通用户信息
+     * 更新普通用户信息（清除该用户的单条缓存，列表缓存换用新版本）
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
+    @CacheEvict(value = "users", key = "#id")
     public User updateUser(Integer id, User user) {
         return userRepository.findById(id)
                 .map(existingUser -> {
@@ -138,19 +152,31 @@ public class AdminService {
                     validateFieldFormatsForUpdate(user);
 
                     // 合并更新可变字段到现有实体
+                    Integer oldPackageId = existingUser.getPackageId();
+                    BigDecimal oldBalance = existingUser.getBalance();
                     if (user.getName() != null) existingUser.setName(user.getName());
                     if (user.getPhone() != null) existingUser.setPhone(user.getPhone());
+                    boolean packageChanged = false;
                     if (user.getPackageId() != null) {
                         if (!user.getPackageId().equals(existingUser.getPackageId())) {
                             // 套餐发生变化，更新套餐生效时间为当前时间
                             existingUser.setPackageStartTime(LocalDateTime.now());
+                            packageChanged = true;
                         }
                         existingUser.setPackageId(user.getPackageId());
                     }
                     if (user.getBalance() != null) existingUser.setBalance(user.getBalance());
                     if (user.getPassword() != null) existingUser.setPassword(user.getPassword());
 
-                    return userRepository.save(existingUser);
+                    User saved = userRepository.save(existingUser);
+                    credentialDirectory.userSaved(saved);
+                    liveAggregateStore.userChanged(oldPackageId, oldBalance, saved);
+                    if (packageChanged) {
+                        // 套餐周期重新开始，用量台账清零
+                        usageLedgerService.resetForPackage(id, saved.getPackageStartTime());
+                    }
+                    userListGeneration.changed();
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + id));
     }
@@ -186,19 +212,22 @@ public class AdminService {
     /**
      * 删除普通用户
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
+    @CacheEvict(value = "users", key = "#id")
     public void deleteUser(Integer id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("用户不存在: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("用户不存在: " + id));
+        userRepository.delete(user);
+        credentialDirectory.userDeleted(id);
+        liveAggregateStore.userDeleted(user);
+        userListGeneration.changed();
     }
 
     /**
      * 根据ID或姓名搜索用户（添加缓存）
-     * key 使用 #query，例如搜索 "200" 会生成缓存 key: search_users::200
+     * key 为版本号加 #query，例如版本 7 下搜索 "200" 会生成缓存 key: search_users::7:200
      */
-    @Cacheable(value = "search_users", key = "#query", unless = "#result == null || #result.isEmpty()")
+    @Cacheable(value = "search_users", key = "@userListGeneration.current() + ':' + #query",
+               unless = "#result == null || #result.isEmpty()")
     public List<User> searchUsers(String query) {
         if (query == null || query.trim().isEmpty()) {
             return List.of();
@@ -216,12 +245,13 @@ public class AdminService {
     /**
      * 重置普通用户密码
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, key = "#id")
+    @CacheEvict(value = "users", key = "#id")
     public void resetUserPassword(Integer id) {
         userRepository.findById(id)
                 .ifPresent(user -> {
                     user.setPassword("default123"); // 重置为默认密码，按需修改
-                    userRepository.save(user);
+                    credentialDirectory.userSaved(userRepository.save(user));
+                    userListGeneration.changed();
                 });
     }
     
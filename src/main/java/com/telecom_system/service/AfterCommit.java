@@ -0,0 +1,29 @@
+package com.telecom_system.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务提交后回调工具
+ * 用于同步进程内的索引/计数器：事务回滚时不应修改内存状态
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /**
+     * 当前线程存在事务时在提交后执行，否则立即执行
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.telecom_system.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 进程内列式会话快照
+ *
+ * 保留期内的会话按 (登录时间, 账号) 排序存放在三个基本类型数组中：账号 int[]、登录与登出时间
+ * long[]（epoch 秒，未下线为 OPEN），每个会话约 20 字节（数组扩容余量另计），不创建实体对象。
+ * 登录时间有序，范围过滤为二分查找；去重与排名在复制出的账号数组上用 Arrays.parallelSort
+ * （在 ForkJoin 公共池上并行排序）后一次线性扫描完成。
+ *
+ * 定时增量刷新：重新读取登录时间不早于上次刷新起点减宽限期的尾部（覆盖异步写入器的落库延迟，
+ * 截断后按序追加），并回填快照中此前登录、期间下线的会话的登出时间；定时全量重建剔除保留期之外的会话、
+ * 补齐宽限期之外迟到的记录。时间精度为秒。
+ */
+@Service
+@ConditionalOnProperty(name = "telecom.session-analytics.mode", havingValue = "columnar")
+public class ColumnarSessionAnalytics implements SessionAnalytics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarSessionAnalytics.class);
+
+    static final long OPEN = Long.MAX_VALUE;
+
+    private static final String SESSIONS_SQL = """
+        SELECT account_id, login_time, logout_time FROM login_info
+        WHERE login_time >= ?
+        ORDER BY login_time, account_id
+        """;
+
+    // 上次刷新前登录、此后下线的会话：登录时间从快照中最早的未下线会话起（裁剪更早的分区），
+    // logout_time 条件走索引 login_info_logout_time_idx
+    private static final String CLOSED_SQL = """
+        SELECT account_id, login_time, logout_time FROM login_info
+        WHERE login_time >= ? AND login_time < ? AND logout_time >= ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final LoginInfoPartitionService loginInfoPartitionService;
+    private final long graceSeconds;
+    private final int fetchSize;
+
+    // 查询持读锁，刷新只在应用变更时短暂持写锁（读库在锁外进行）
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Columns columns = new Columns(1024);
+    // 上一次刷新/重建开始读库的时间；为 null 表示尚未加载
+    private LocalDateTime refreshedFrom;
+
+    public ColumnarSessionAnalytics(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    LoginInfoPartitionService loginInfoPartitionService,
+                                    @Value("${telecom.session-analytics.grace-seconds:60}") long graceSeconds,
+                                    @Value("${telecom.session-analytics.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.loginInfoPartitionService = loginInfoPartitionService;
+        this.graceSeconds = graceSeconds;
+        this.fetchSize = fetchSize;
+    }
+
+    // ========== 查询 ==========
+
+    @Override
+    public long sessionCount() {
+        lock.readLock().lock();
+        try {
+            return columns.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public RangeSummary summarize(LocalDateTime start, LocalDateTime end) {
+        int[] accounts;
+        lock.readLock().lock();
+        try {
+            accounts = columns.accountsBetween(epochSecond(start), epochSecond(end));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return summarize(accounts);
+    }
+
+    /**
+     * 由范围内会话的账号（可修改的副本）统计登录次数、去重人数与最活跃账号
+     */
+    static RangeSummary summarize(int[] accounts) {
+        if (accounts.length == 0) {
+            return new RangeSummary(0, 0, true, null, 0);
+        }
+
+        Arrays.parallelSort(accounts);
+        long uniqueUsers = 0;
+        int mostActive = accounts[0];
+        long mostActiveCount = 0;
+        int run = 0;
+        for (int i = 0; i < accounts.length; i++) {
+            run++;
+            if (i == accounts.length - 1 || accounts[i + 1] != accounts[i]) {
+                uniqueUsers++;
+                // 次数相同时取账号较小者，与 SQL 实现的排序一致
+                if (run > mostActiveCount) {
+                    mostActive = accounts[i];
+                    mostActiveCount = run;
+                }
+                run = 0;
+            }
+        }
+        return new RangeSummary(accounts.length, uniqueUsers, true, mostActive, mostActiveCount);
+    }
+
+    // ========== 加载与刷新 ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * 全量重建：读取保留期内全部会话后整体替换
+     */
+    @Scheduled(cron = "${telecom.session-analytics.rebuild-cron:0 40 * * * *}")
+    public synchronized void rebuild() {
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            Columns fresh = new Columns(Math.max(1024, columns.size));
+            fetchSessions(loginInfoPartitionService.queryHorizon(), fresh);
+            lock.writeLock().lock();
+            try {
+                columns = fresh;
+                refreshedFrom = startedAt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOGGER.info("[SESSION_ANALYTICS] 列式会话快照已重建：{} 个会话", fresh.size);
+        } catch (Exception e) {
+            LOGGER.error("[SESSION_ANALYTICS] 列式会话快照重建失败，继续使用现有快照", e);
+        }
+    }
+
+    /**
+     * 增量刷新：截断并重读宽限期内的尾部，回填期间下线的较早会话
+     */
+    @Scheduled(fixedDelayString = "${telecom.session-analytics.refresh-interval-ms:30000}",
+               initialDelayString = "${telecom.session-analytics.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        if (refreshedFrom == null) {
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            // 截断点取整到秒，与数组中的时间精度一致
+            LocalDateTime tailFrom = refreshedFrom.minusSeconds(graceSeconds).truncatedTo(ChronoUnit.SECONDS);
+            LocalDateTime horizon = loginInfoPartitionService.queryHorizon();
+            if (tailFrom.isBefore(horizon)) {
+                tailFrom = horizon;
+            }
+
+            long tailFromSecond = epochSecond(tailFrom);
+
+            Columns tail = new Columns(256);
+            fetchSessions(tailFrom, tail);
+            // 只需回填快照中仍未下线的会话：登录时间下界取其中最早的一个（刷新与重建互斥，可在锁外读取）
+            long earliestOpen = columns.earliestOpenLogin(tailFromSecond);
+            Columns closed = new Columns(256);
+            if (earliestOpen != OPEN) {
+                jdbcTemplate.query(CLOSED_SQL, rs -> {
+                    closed.append(rs.getInt(1), epochSecond(rs.getTimestamp(2)), epochSecond(rs.getTimestamp(3)));
+                }, new Timestamp(earliestOpen * 1000), Timestamp.valueOf(tailFrom), Timestamp.valueOf(tailFrom));
+            }
+
+            lock.writeLock().lock();
+            try {
+                columns.truncate(columns.lowerBound(tailFromSecond));
+                for (int i = 0; i < tail.size; i++) {
+                    columns.append(tail.accounts[i], tail.logins[i], tail.logouts[i]);
+                }
+                for (int i = 0; i < closed.size; i++) {
+                    columns.close(closed.accounts[i], closed.logins[i], closed.logouts[i]);
+                }
+                refreshedFrom = startedAt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            LOGGER.warn("[SESSION_ANALYTICS] 列式会话快照增量刷新失败，下次重试: {}", e.getMessage());
+        }
+    }
+
+    // 在只读事务中按游标分批读取（PostgreSQL 只有关闭自动提交时 fetch size 才生效）
+    private void fetchSessions(LocalDateTime since, Columns target) {
+        readTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SESSIONS_SQL);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(since));
+            return statement;
+        }, rs -> {
+            Timestamp logout = rs.getTimestamp(3);
+            target.append(rs.getInt(1), epochSecond(rs.getTimestamp(2)), logout == null ? OPEN : epochSecond(logout));
+        }));
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static long epochSecond(Timestamp time) {
+        return Math.floorDiv(time.getTime(), 1000);
+    }
+
+    /**
+     * 按登录时间有序的列存储
+     */
+    static final class Columns {
+        int[] accounts;
+        long[] logins;
+        long[] logouts;
+        int size;
+
+        Columns(int capacity) {
+            accounts = new int[capacity];
+            logins = new long[capacity];
+            logouts = new long[capacity];
+        }
+
+        void append(int account, long login, long logout) {
+            if (size == accounts.length) {
+                int capacity = accounts.length + (accounts.length >> 1) + 1;
+                accounts = Arrays.copyOf(accounts, capacity);
+                logins = Arrays.copyOf(logins, capacity);
+                logouts = Arrays.copyOf(logouts, capacity);
+            }
+            accounts[size] = account;
+            logins[size] = login;
+            logouts[size] = logout;
+            size++;
+        }
+
+        void truncate(int newSize) {
+            size = newSize;
+        }
+
+        // 第一个登录时间不早于 second 的下标
+        int lowerBound(long second) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (logins[mid] < second) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // 登录时间早于 beforeSecond 的未下线会话中最早的登录时间；没有时返回 OPEN
+        long earliestOpenLogin(long beforeSecond) {
+            int end = lowerBound(beforeSecond);
+            for (int i = 0; i < end; i++) {
+                if (logouts[i] == OPEN) {
+                    return logins[i];
+                }
+            }
+            return OPEN;
+        }
+
+        // 登录时间在 [fromSecond, toSecond]（含两端）内的会话的账号副本
+        int[] accountsBetween(long fromSecond, long toSecond) {
+            int from = lowerBound(fromSecond);
+            int to = lowerBound(toSecond + 1);
+            return Arrays.copyOfRange(accounts, from, Math.max(from, to));
+        }
+
+        // 回填登出时间：同一秒内登录的会话中按账号定位
+        void close(int account, long login, long logout) {
+            for (int i = lowerBound(login); i < size && logins[i] == login; i++) {
+                if (accounts[i] == account) {
+                    logouts[i] = logout;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.telecom_system.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telecom_system.event.SessionEvent;
+import com.telecom_system.repository.SqlValues;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 在线并发直方图（按小时、按分钟）
+ *
+ * 以差分数组保存：会话在登录所在的时间桶 +1，在登出所在时间桶的下一个桶 -1，
+ * 某个桶的在线数 = 该桶及之前全部差分之和。跨多个小时的会话只写两个桶。
+ * 为避免从头累加，每天零点按粒度各保存一次在线数检查点（session_concurrency_checkpoint），
+ * 查询某段日期只需 检查点 + 区间内的差分，耗时只与区间长度有关，与历史数据量无关。
+ *
+ * 差分由会话事件在内存中合并，定时批量写库；回填时由 login_info 全量重建。
+ */
+@Service
+public class ConcurrencyHistogram {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyHistogram.class);
+
+    public enum Resolution {
+        HOUR('H', ChronoUnit.HOURS, "hour"),
+        MINUTE('M', ChronoUnit.MINUTES, "minute");
+
+        private final char code;
+        private final ChronoUnit unit;
+        private final String sqlField;
+
+        Resolution(char code, ChronoUnit unit, String sqlField) {
+            this.code = code;
+            this.unit = unit;
+            this.sqlField = sqlField;
+        }
+
+        LocalDateTime bucket(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+
+    private record Bucket(Resolution resolution, LocalDateTime start) {}
+
+    private static final String UPSERT_DELTA_SQL =
+            "INSERT INTO session_concurrency_delta (resolution, bucket, delta) VALUES (?, ?, ?) " +
+            "ON CONFLICT (resolution, bucket) DO UPDATE SET delta = session_concurrency_delta.delta + EXCLUDED.delta";
+
+    // 由 login_info 重建某一粒度的差分（登录 +1，登出的下一个桶 -1）
+    private static final String REBUILD_SQL = """
+        INSERT INTO session_concurrency_delta (resolution, bucket, delta)
+        SELECT ?, bucket, SUM(delta) FROM (
+            SELECT date_trunc('%1$s', login_time) AS bucket, 1 AS delta
+            FROM login_info WHERE login_time >= ?
+            UNION ALL
+            SELECT date_trunc('%1$s', logout_time) + INTERVAL '1 %1$s', -1
+            FROM login_info WHERE login_time >= ? AND logout_time IS NOT NULL
+        ) e
+        GROUP BY bucket
+        HAVING SUM(delta) <> 0
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LoginInfoPartitionService loginInfoPartitionService;
+    private final ConcurrentHashMap<Bucket, Integer> pending = new ConcurrentHashMap<>();
+
+    public ConcurrencyHistogram(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                LoginInfoPartitionService loginInfoPartitionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loginInfoPartitionService = loginInfoPartitionService;
+    }
+
+    // ========== 事件合并与落库 ==========
+
+    /**
+     * 会话状态实际发生变化时由 LoginInfoService 发布：上线 +1，下线在下一个桶 -1
+     */
+    @EventListener
+    public void onSessionEvent(SessionEvent event) {
+        for (Resolution resolution : Resolution.values()) {
+            int delta = event.type() == SessionEvent.Type.LOGIN ? 1 : -1;
+            pending.merge(new Bucket(resolution, deltaBucket(resolution, event)), delta, Integer::sum);
+        }
+    }
+
+    // 事件差分所在的桶：上线为所在桶，下线为所在桶的下一个桶
+    static LocalDateTime deltaBucket(Resolution resolution, SessionEvent event) {
+        LocalDateTime bucket = resolution.bucket(event.time());
+        return event.type() == SessionEvent.Type.LOGIN ? bucket : bucket.plus(1, resolution.unit);
+    }
+
+    @Scheduled(fixedDelayString = "${telecom.concurrency.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        Map<Bucket, Integer> drained = new HashMap<>();
+        for (Bucket bucket : pending.keySet()) {
+            Integer delta = pending.remove(bucket);
+            if (delta != null && delta != 0) {
+                drained.put(bucket, delta);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_DELTA_SQL, drained.entrySet().stream()
+                    .map(e -> new Object[] { String.valueOf(e.getKey().resolution().code),
+                            Timestamp.valueOf(e.getKey().start()), e.getValue() })
+                    .toList());
+        } catch (Exception e) {
+            // 写入失败放回待写队列，下次重试
+            drained.forEach((bucket, delta) -> pending.merge(bucket, delta, Integer::sum));
+            LOGGER.warn("[CONCURRENCY] 差分写入失败，{} 个桶待重试: {}", drained.size(), e.getMessage());
+        }
+    }
+
+    // ========== 检查点与回填 ==========
+
+    /**
+     * 每日计算检查点：从最近两天之前的检查点起重算到今天，吸收宽限期内迟到的差分
+     */
+    @Scheduled(cron = "${telecom.concurrency.checkpoint-cron:0 5 0 * * *}")
+    public void checkpoint() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> computeCheckpoints(LocalDate.now().minusDays(2)));
+        } catch (Exception e) {
+            LOGGER.error("[CONCURRENCY] 检查点计算失败", e);
+        }
+    }
+
+    /**
+     * 由 login_info 全量重建差分与检查点
+     */
+    public void rebuild() {
+        flush();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE session_concurrency_delta, session_concurrency_checkpoint IN EXCLUSIVE MODE");
+            jdbcTemplate.update("DELETE FROM session_concurrency_delta");
+            jdbcTemplate.update("DELETE FROM session_concurrency_checkpoint");
+            LocalDateTime horizon = loginInfoPartitionService.queryHorizon();
+            Timestamp since = Timestamp.valueOf(horizon);
+            for (Resolution resolution : Resolution.values()) {
+                jdbcTemplate.update(String.format(REBUILD_SQL, resolution.sqlField),
+                        String.valueOf(resolution.code), since, since);
+                jdbcTemplate.update("INSERT INTO session_concurrency_checkpoint (resolution, day, open_sessions) " +
+                        "VALUES (?, ?, 0)", String.valueOf(resolution.code), horizon.toLocalDate());
+            }
+            computeCheckpoints(LocalDate.now().minusDays(2));
+        });
+        LOGGER.info("[CONCURRENCY] 在线并发直方图已重建");
+    }
+
+    // 两种粒度分别由各自的差分推算检查点：最后一小时内下线的会话，小时差分的 -1 落在次日零点，分钟差分则在当天
+    private void computeCheckpoints(LocalDate recomputeFrom) {
+        LocalDate today = LocalDate.now();
+        for (Resolution resolution : Resolution.values()) {
+            String code = String.valueOf(resolution.code);
+            Map.Entry<LocalDate, Long> base = latestCheckpoint(resolution, recomputeFrom);
+            Map<LocalDate, Long> net = new HashMap<>();
+            jdbcTemplate.query("SELECT CAST(date_trunc('day', bucket) AS DATE), SUM(delta) FROM session_concurrency_delta " +
+                            "WHERE resolution = ? AND bucket >= ? AND bucket < ? GROUP BY 1",
+                    rs -> {
+                        net.put(SqlValues.toLocalDate(rs.getObject(1)), rs.getLong(2));
+                    },
+                    code, Timestamp.valueOf(base.getKey().atStartOfDay()), Timestamp.valueOf(today.atStartOfDay()));
+
+            List<Object[]> rows = new ArrayList<>();
+            rollForward(base.getKey(), base.getValue(), today, net)
+                    .forEach((day, open) -> rows.add(new Object[] { code, day, open }));
+            jdbcTemplate.batchUpdate("INSERT INTO session_concurrency_checkpoint (resolution, day, open_sessions) " +
+                    "VALUES (?, ?, ?) ON CONFLICT (resolution, day) DO UPDATE SET open_sessions = EXCLUDED.open_sessions",
+                    rows);
+        }
+    }
+
+    /**
+     * 由 day 零点的在线数与各天差分之和，推算 day 之后直到 today（含）每天零点的在线数
+     */
+    static Map<LocalDate, Long> rollForward(LocalDate day, long open, LocalDate today, Map<LocalDate, Long> net) {
+        Map<LocalDate, Long> checkpoints = new TreeMap<>();
+        while (day.isBefore(today)) {
+            open += net.getOrDefault(day, 0L);
+            day = day.plusDays(1);
+            checkpoints.put(day, open);
+        }
+        return checkpoints;
+    }
+
+    // 该粒度不晚于 day 的最近检查点；没有检查点时从保留期起点、在线数 0 开始
+    private Map.Entry<LocalDate, Long> latestCheckpoint(Resolution resolution, LocalDate day) {
+        List<Map.Entry<LocalDate, Long>> found = jdbcTemplate.query(
+                "SELECT day, open_sessions FROM session_concurrency_checkpoint WHERE resolution = ? AND day <= ? " +
+                "ORDER BY day DESC LIMIT 1",
+                (rs, i) -> Map.entry(SqlValues.toLocalDate(rs.getObject(1)), rs.getLong(2)),
+                String.valueOf(resolution.code), day);
+        if (found.isEmpty()) {
+            return Map.entry(loginInfoPartitionService.queryHorizon().toLocalDate(), 0L);
+        }
+        return found.get(0);
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * [from, to) 内每个桶的在线数；晚于当前时间的桶为 -1
+     */
+    public long[] series(Resolution resolution, LocalDateTime from, LocalDateTime to) {
+        int size = (int) resolution.unit.between(from, to);
+        Map.Entry<LocalDate, Long> checkpoint = latestCheckpoint(resolution, from.toLocalDate());
+        LocalDateTime checkpointTime = checkpoint.getKey().atStartOfDay();
+
+        Long before = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(delta), 0) FROM session_concurrency_delta " +
+                        "WHERE resolution = ? AND bucket >= ? AND bucket < ?", Long.class,
+                String.valueOf(resolution.code), Timestamp.valueOf(checkpointTime), Timestamp.valueOf(from));
+        long[] deltas = new long[size];
+        jdbcTemplate.query("SELECT bucket, delta FROM session_concurrency_delta " +
+                        "WHERE resolution = ? AND bucket >= ? AND bucket < ?",
+                rs -> {
+                    int index = (int) resolution.unit.between(from, rs.getTimestamp(1).toLocalDateTime());
+                    deltas[index] += rs.getLong(2);
+                },
+                String.valueOf(resolution.code), Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        return accumulate(resolution, from, checkpoint.getValue() + (before == null ? 0 : before), deltas,
+                LocalDateTime.now());
+    }
+
+    /**
+     * 由 from 之前的在线数 base 与 [from, ...) 内逐桶差分得出每个桶的在线数；晚于 now 的桶为 -1
+     */
+    static long[] accumulate(Resolution resolution, LocalDateTime from, long base, long[] deltas, LocalDateTime now) {
+        long[] counts = new long[deltas.length];
+        long running = base;
+        for (int i = 0; i < deltas.length; i++) {
+            running += deltas[i];
+            counts[i] = from.plus(i, resolution.unit).isAfter(now) ? -1 : Math.max(0, running);
+        }
+        return counts;
+    }
+}
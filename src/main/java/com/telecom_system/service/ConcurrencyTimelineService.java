@@ -0,0 +1,162 @@
+package com.telecom_system.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.telecom_system.dto.ConcurrencyTimeline;
+
+/**
+ * 任意粒度的并发会话时间线（扫描线）
+ *
+ * 以服务端游标按时间顺序读取与窗口重叠的上线(+1)/下线(-1)事件，单遍扫描得到并发曲线，
+ * 同时累计每个桶的最大并发与时间加权平均并发。窗口开始前已上线的会话按窗口起点计入。
+ * 内存只与桶数有关，与会话数量无关。
+ */
+@Service
+public class ConcurrencyTimelineService {
+
+    private static final int MAX_BUCKETS = 100_000;
+
+    // 同一时刻先处理下线再处理上线，与 [login, logout) 的半开区间口径一致
+    private static final String EVENTS_SQL = """
+        SELECT t, d FROM (
+            SELECT GREATEST(login_time, ?) AS t, 1 AS d
+            FROM login_info
+            WHERE login_time >= ? AND login_time < ? AND (logout_time IS NULL OR logout_time > ?)
+            UNION ALL
+            SELECT logout_time, -1
+            FROM login_info
+            WHERE login_time >= ? AND login_time < ? AND logout_time > ? AND logout_time < ?
+        ) e
+        ORDER BY t, d
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoginInfoPartitionService loginInfoPartitionService;
+    private final int fetchSize;
+
+    public ConcurrencyTimelineService(JdbcTemplate jdbcTemplate,
+                                      LoginInfoPartitionService loginInfoPartitionService,
+                                      @Value("${telecom.login-export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loginInfoPartitionService = loginInfoPartitionService;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 计算 [start, end) 内的并发时间线；end 晚于当前时间时截止到当前时间
+     */
+    @Transactional(readOnly = true)
+    public ConcurrencyTimeline timeline(LocalDateTime start, LocalDateTime end, long bucketSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime effectiveEnd = end.isAfter(now) ? now : end;
+        if (bucketSeconds < 1) {
+            throw new IllegalArgumentException("时间桶长度必须大于 0 秒");
+        }
+        if (!effectiveEnd.isAfter(start)) {
+            throw new IllegalArgumentException("结束时间必须晚于开始时间（且开始时间不能晚于当前时间）");
+        }
+        long windowMillis = Duration.between(start, effectiveEnd).toMillis();
+        long bucketMillis = bucketSeconds * 1000;
+        long bucketCount = (windowMillis + bucketMillis - 1) / bucketMillis;
+        if (bucketCount > MAX_BUCKETS) {
+            throw new IllegalArgumentException("时间桶数量过多（上限 " + MAX_BUCKETS + "），请增大桶长度或缩小时间范围");
+        }
+
+        Sweep sweep = new Sweep(start, windowMillis, bucketMillis, (int) bucketCount);
+        Timestamp from = Timestamp.valueOf(start);
+        Timestamp to = Timestamp.valueOf(effectiveEnd);
+        Timestamp horizon = Timestamp.valueOf(loginInfoPartitionService.queryHorizon());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(EVENTS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setTimestamp(1, from);
+            ps.setTimestamp(2, horizon);
+            ps.setTimestamp(3, to);
+            ps.setTimestamp(4, from);
+            ps.setTimestamp(5, horizon);
+            ps.setTimestamp(6, to);
+            ps.setTimestamp(7, from);
+            ps.setTimestamp(8, to);
+            return ps;
+        }, (ResultSet rs) -> {
+            sweep.event(Duration.between(start, rs.getTimestamp(1).toLocalDateTime()).toMillis(), rs.getInt(2));
+        });
+        return sweep.finish(effectiveEnd, bucketSeconds);
+    }
+
+    /**
+     * 扫描线状态：当前并发数及每个桶的最大值、并发数对时间的积分
+     */
+    static final class Sweep {
+        private final LocalDateTime start;
+        private final long windowMillis;
+        private final long bucketMillis;
+        private final int[] max;
+        private final double[] integral;
+
+        private long position;
+        private int level;
+        private int peak;
+        private long peakAt;
+
+        Sweep(LocalDateTime start, long windowMillis, long bucketMillis, int bucketCount) {
+            this.start = start;
+            this.windowMillis = windowMillis;
+            this.bucketMillis = bucketMillis;
+            this.max = new int[bucketCount];
+            this.integral = new double[bucketCount];
+        }
+
+        /**
+         * 处理偏移 offset（毫秒）处的事件，delta 为 +1 上线 / -1 下线
+         */
+        void event(long offset, int delta) {
+            advance(Math.min(Math.max(offset, position), windowMillis));
+            level += delta;
+            if (position < windowMillis) {
+                int bucket = (int) (position / bucketMillis);
+                max[bucket] = Math.max(max[bucket], level);
+            }
+            if (level > peak) {
+                peak = level;
+                peakAt = position;
+            }
+        }
+
+        // 当前并发数保持到 target，把这段时间计入途经的每个桶
+        private void advance(long target) {
+            while (position < target) {
+                int bucket = (int) (position / bucketMillis);
+                long segmentEnd = Math.min(target, (bucket + 1) * bucketMillis);
+                integral[bucket] += (double) level * (segmentEnd - position);
+                max[bucket] = Math.max(max[bucket], level);
+                position = segmentEnd;
+            }
+        }
+
+        ConcurrencyTimeline finish(LocalDateTime end, long bucketSeconds) {
+            advance(windowMillis);
+            List<ConcurrencyTimeline.Bucket> buckets = new ArrayList<>(max.length);
+            for (int i = 0; i < max.length; i++) {
+                long bucketStart = i * bucketMillis;
+                long length = Math.min(bucketMillis, windowMillis - bucketStart);
+                double avg = Math.round(integral[i] / length * 100.0) / 100.0;
+                buckets.add(new ConcurrencyTimeline.Bucket(start.plusNanos(bucketStart * 1_000_000), max[i], avg));
+            }
+            LocalDateTime peakTime = peak > 0 ? start.plusNanos(peakAt * 1_000_000) : null;
+            return new ConcurrencyTimeline(start, end, bucketSeconds, peak, peakTime, buckets);
+        }
+    }
+}
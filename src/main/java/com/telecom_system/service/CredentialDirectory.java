@@ -0,0 +1,252 @@
+package com.telecom_system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.entity.User;
+import com.telecom_system.repository.AdminRepository;
+import com.telecom_system.repository.UserRepository;
+
+/**
+ * 内存登录凭据索引
+ * 按账号和用户名双键索引，只保存账号、用户名和密码摘要（SHA-256），
+ * 登录校验一次内存查找即可完成，无需访问数据库。
+ *
+ * 本节点的增删改先移除索引条目，事务提交后写入新值；其他节点的修改由定时对账在一个周期内同步。
+ * 索引中已有的标识密码不匹配时直接拒绝，不访问数据库；索引中没有的标识（其他节点刚创建的用户）
+ * 用一次只取凭据列的查询补查，查不到的标识在 negative-ttl-ms 内直接拒绝。
+ */
+@Service
+public class CredentialDirectory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CredentialDirectory.class);
+
+    /**
+     * 紧凑的凭据记录，stamp 为本节点写入时间（System.nanoTime），对账时用于跳过更新的条目
+     */
+    public record Credential(int account, String name, byte[] passwordHash, long stamp) {}
+
+    // 未知标识缓存的条目上限，超出后整体清空
+    static final int MAX_UNKNOWN = 10_000;
+
+    private final UserRepository userRepository;
+    private final AdminRepository adminRepository;
+
+    private final Index users;
+    private final Index admins;
+
+    public CredentialDirectory(UserRepository userRepository, AdminRepository adminRepository,
+                               @Value("${telecom.credentials.negative-ttl-ms:5000}") long negativeTtlMillis) {
+        this.userRepository = userRepository;
+        this.adminRepository = adminRepository;
+        this.users = new Index(TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis));
+        this.admins = new Index(TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis));
+    }
+
+    // ========== 登录校验 ==========
+
+    /**
+     * 校验普通用户凭据，返回账号
+     */
+    public Optional<Integer> authenticateUser(String identifier, String password) {
+        return users.authenticate(identifier, password, userRepository::findCredentials);
+    }
+
+    /**
+     * 校验管理员凭据，返回账号
+     */
+    public Optional<Integer> authenticateAdmin(String identifier, String password) {
+        return admins.authenticate(identifier, password, adminRepository::findCredentials);
+    }
+
+    // ========== 写入同步（事务提交后生效） ==========
+
+    public void userSaved(User user) {
+        Credential credential = toCredential(user);
+        // 提交前的登录按未知标识补查数据库，不再使用旧密码摘要
+        users.remove(credential.account());
+        users.forgetUnknown(credential);
+        AfterCommit.run(() -> users.put(credential));
+    }
+
+    public void userDeleted(Integer account) {
+        AfterCommit.run(() -> users.remove(account));
+    }
+
+    // ========== 加载与对账 ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    /**
+     * 定时对账：用数据库中的凭据校正索引，防止多节点部署下的漂移
+     */
+    @Scheduled(fixedDelayString = "${telecom.credentials.reconcile-interval-ms:30000}",
+               initialDelayString = "${telecom.credentials.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        try {
+            int userChanges = users.reconcile(userRepository::findAllCredentials);
+            int adminChanges = admins.reconcile(adminRepository::findAllCredentials);
+            if (userChanges + adminChanges > 0) {
+                LOGGER.info("[CREDENTIALS] 凭据索引对账完成：用户 {} 条变更，管理员 {} 条变更", userChanges, adminChanges);
+            }
+        } catch (Exception e) {
+            LOGGER.error("[CREDENTIALS] 凭据索引对账失败，登录将继续使用现有索引", e);
+        }
+    }
+
+    private static Credential toCredential(User user) {
+        return new Credential(user.getAccount(), user.getName(), digest(user.getPassword()), System.nanoTime());
+    }
+
+    private static byte[] digest(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 单类账号的双键索引
+     */
+    private static final class Index {
+        private final ConcurrentHashMap<Integer, Credential> byAccount = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Credential> byName = new ConcurrentHashMap<>();
+        // 数据库中也查不到的标识 -> 缓存到期时间（System.nanoTime）
+        private final ConcurrentHashMap<String, Long> unknown = new ConcurrentHashMap<>();
+        private final long negativeTtlNanos;
+
+        Index(long negativeTtlNanos) {
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        interface Lookup {
+            List<Object[]> credentials(Integer account, String name);
+        }
+
+        Optional<Integer> authenticate(String identifier, String password, Lookup lookup) {
+            if (identifier == null || password == null) {
+                return Optional.empty();
+            }
+            byte[] hash = digest(password);
+
+            // 与原逻辑一致：先按 account 匹配，再按 name 匹配
+            Integer account = null;
+            try {
+                account = Integer.valueOf(identifier);
+            } catch (NumberFormatException e) {
+                // 不是数字，只按name查找
+            }
+            Credential byId = account == null ? null : byAccount.get(account);
+            Credential named = byName.get(identifier);
+            if (byId != null || named != null) {
+                // 已知标识以索引为准：本节点的写入即时生效，其他节点的修改由对账同步
+                return Stream.of(byId, named)
+                        .filter(c -> c != null && MessageDigest.isEqual(c.passwordHash(), hash))
+                        .map(Credential::account)
+                        .findFirst();
+            }
+
+            Long expiresAt = unknown.get(identifier);
+            if (expiresAt != null && System.nanoTime() - expiresAt < 0) {
+                return Optional.empty();
+            }
+            // 索引中没有该标识（其他节点新建的用户、索引尚未加载）：一次查询补查凭据并写入索引
+            List<Credential> found = new ArrayList<>(2);
+            for (Object[] row : lookup.credentials(account, identifier)) {
+                found.add(put(new Credential(((Number) row[0]).intValue(), (String) row[1],
+                        digest((String) row[2]), System.nanoTime())));
+            }
+            if (found.isEmpty()) {
+                if (unknown.size() >= MAX_UNKNOWN) {
+                    unknown.clear();
+                }
+                unknown.put(identifier, System.nanoTime() + negativeTtlNanos);
+                return Optional.empty();
+            }
+            unknown.remove(identifier);
+            // 与原逻辑一致：账号命中时只校验该账号，否则校验同名用户
+            Integer id = account;
+            Credential candidate = found.stream()
+                    .filter(c -> id != null && c.account() == id)
+                    .findFirst()
+                    .orElse(found.getFirst());
+            return MessageDigest.isEqual(candidate.passwordHash(), hash)
+                    ? Optional.of(candidate.account()) : Optional.empty();
+        }
+
+        // 本节点新建或修改的凭据不再按未知标识拒绝
+        void forgetUnknown(Credential credential) {
+            unknown.remove(String.valueOf(credential.account()));
+            unknown.remove(credential.name());
+        }
+
+        Credential put(Credential credential) {
+            Credential old = byAccount.put(credential.account(), credential);
+            if (old != null && !old.name().equals(credential.name())) {
+                byName.remove(old.name(), old);
+            }
+            byName.put(credential.name(), credential);
+            return credential;
+        }
+
+        void remove(Integer account) {
+            Credential old = byAccount.remove(account);
+            if (old != null) {
+                byName.remove(old.name(), old);
+            }
+        }
+
+        int reconcile(Supplier<List<Object[]>> loader) {
+            // 在查询之前取时间戳：查询期间本节点的写入一律保留
+            long startedAt = System.nanoTime();
+            List<Object[]> rows = loader.get();
+            int changes = 0;
+            Set<Integer> seen = new HashSet<>(rows.size() * 2);
+            for (Object[] row : rows) {
+                int account = ((Number) row[0]).intValue();
+                String name = (String) row[1];
+                byte[] hash = digest((String) row[2]);
+                seen.add(account);
+
+                Credential current = byAccount.get(account);
+                if (current != null && current.stamp() > startedAt) {
+                    continue; // 对账期间本节点已更新，以本地为准
+                }
+                if (current == null || !current.name().equals(name)
+                        || !MessageDigest.isEqual(current.passwordHash(), hash)) {
+                    put(new Credential(account, name, hash, startedAt));
+                    changes++;
+                }
+            }
+            for (Credential credential : byAccount.values()) {
+                if (!seen.contains(credential.account()) && credential.stamp() <= startedAt) {
+                    remove(credential.account());
+                    changes++;
+                }
+            }
+            return changes;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.telecom_system.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.dto.Dashboard;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 管理端仪表盘聚合
+ *
+ * 把实时统计、系统概览、套餐使用与小时流量等相互独立的查询作为若干部分，每部分在一个虚拟线程上
+ * 同时执行，总耗时取决于最慢的部分而不是各部分之和。所有部分共用同一起点计时，
+ * 超过 section-timeout-ms 仍未完成的部分被取消并标记为 timeout，其余部分照常返回。
+ * 各部分经 StatisticsService 代理调用，分别在各自线程上开启只读事务、命中各自的缓存。
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardService.class);
+
+    static final String OK = "ok";
+    static final String TIMEOUT = "timeout";
+    static final String ERROR = "error";
+
+    private final StatisticsService statisticsService;
+    private final Duration sectionTimeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardService(StatisticsService statisticsService,
+                            @Value("${telecom.dashboard.section-timeout-ms:2000}") long sectionTimeoutMs) {
+        this.statisticsService = statisticsService;
+        this.sectionTimeout = Duration.ofMillis(sectionTimeoutMs);
+    }
+
+    /**
+     * 获取仪表盘全部部分；hourlyTraffic 统计最近 DEFAULT_TRAFFIC_DAYS 天
+     */
+    public Dashboard getDashboard() {
+        LocalDate today = LocalDate.now();
+        LocalDate trafficStart = today.minusDays(StatisticsService.DEFAULT_TRAFFIC_DAYS - 1);
+
+        Map<String, Callable<?>> sections = new LinkedHashMap<>();
+        sections.put("online", statisticsService::getOnlineStatistics);
+        sections.put("activeUsers", statisticsService::getActiveUserStatistics);
+        sections.put("systemLoad", statisticsService::getSystemLoadStatistics);
+        sections.put("overview", statisticsService::getSystemStatistics);
+        sections.put("packageUsage", statisticsService::getPackageUsageStatistics);
+        sections.put("hourlyTraffic", () -> statisticsService.getHourlyOnlineUserStatistics(trafficStart, today));
+        return run(sections, sectionTimeout);
+    }
+
+    /**
+     * 并发执行各部分，等待每部分至多 timeout（自提交时起算）
+     */
+    Dashboard run(Map<String, Callable<?>> sections, Duration timeout) {
+        LocalDateTime generatedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+
+        Map<String, Future<Dashboard.Section>> futures = new LinkedHashMap<>();
+        sections.forEach((name, task) -> futures.put(name, executor.submit(() -> {
+            long sectionStart = System.nanoTime();
+            Object data = task.call();
+            return new Dashboard.Section(OK, elapsedMs(sectionStart), data, null);
+        })));
+
+        Map<String, Dashboard.Section> results = new LinkedHashMap<>();
+        boolean complete = true;
+        for (Map.Entry<String, Future<Dashboard.Section>> entry : futures.entrySet()) {
+            Dashboard.Section section = await(entry.getKey(), entry.getValue(), deadline, timeout);
+            complete &= OK.equals(section.status());
+            results.put(entry.getKey(), section);
+        }
+        return new Dashboard(generatedAt, elapsedMs(start), complete, results);
+    }
+
+    private Dashboard.Section await(String name, Future<Dashboard.Section> future, long deadline, Duration timeout) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.warn("[DASHBOARD] {} 超过 {} ms 未完成，已跳过", name, timeout.toMillis());
+            return new Dashboard.Section(TIMEOUT, timeout.toMillis(), null, "超过 " + timeout.toMillis() + " ms 未完成");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            LOGGER.warn("[DASHBOARD] {} 查询失败: {}", name, cause.getMessage());
+            return new Dashboard.Section(ERROR, 0, null, cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return new Dashboard.Section(ERROR, 0, null, "请求被中断");
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
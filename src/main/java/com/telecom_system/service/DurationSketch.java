@@ -0,0 +1,91 @@
+package com.telecom_system.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 会话时长分位数草图（对数分桶，DDSketch 思路）
+ *
+ * 时长（整秒）s >= 1 落入桶 k = ceil(log_γ(s)) + 1，即桶 k 覆盖 (γ^(k-2), γ^(k-1)]，γ = (1 + α) / (1 - α)，α = 1%；
+ * 时长为 0 的会话落入桶 0（1 秒落入桶 1）。
+ * 桶内取相对误差最小的代表值，任意分位数的相对误差不超过 α。草图只保存 (桶号, 次数)，
+ * 可任意合并：按天、按账号保存的草图相加即得任意范围的分布。
+ * 桶号计算与汇总任务中的 SQL（BUCKET_SQL）一致，10 年以内的时长桶号不超过 1000。
+ */
+public class DurationSketch {
+
+    /** 相对误差上限 */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /**
+     * 由整秒时长列 seconds 计算桶号的 SQL 表达式
+     */
+    public static final String BUCKET_SQL =
+            "CASE WHEN seconds < 1 THEN 0 ELSE CEIL(LN(seconds) / " + LOG_GAMMA + ")::INT + 1 END";
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long count;
+
+    public static int bucketOf(long seconds) {
+        return seconds < 1 ? 0 : (int) Math.ceil(Math.log(seconds) / LOG_GAMMA) + 1;
+    }
+
+    /**
+     * 桶的代表值（秒）：桶 k 覆盖 (γ^(k-2), γ^(k-1)]，取 2γ^(k-1) / (γ + 1)，与两端的相对误差均为 α
+     */
+    static double valueOf(int bucket) {
+        return bucket == 0 ? 0 : 2 * Math.pow(GAMMA, bucket - 1) / (GAMMA + 1);
+    }
+
+    public DurationSketch add(long seconds) {
+        return add(bucketOf(seconds), 1);
+    }
+
+    public DurationSketch add(int bucket, long sessions) {
+        if (sessions > 0) {
+            buckets.merge(bucket, sessions, Long::sum);
+            count += sessions;
+        }
+        return this;
+    }
+
+    public DurationSketch merge(DurationSketch other) {
+        other.buckets.forEach(this::add);
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /**
+     * 分位数（秒），q 取 [0, 1]；草图为空时返回 0
+     */
+    public long quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        // 排名从 0 开始：第 rank 个会话所在的桶
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return Math.round(valueOf(bucket.getKey()));
+            }
+        }
+        return Math.round(valueOf(buckets.lastKey()));
+    }
+
+    /**
+     * 输出 p50 / p95 / p99（秒）到统计结果，键名前缀为 prefix
+     */
+    public void putPercentiles(Map<String, Object> stats, String prefix) {
+        stats.put(prefix + "P50Seconds", quantile(0.50));
+        stats.put(prefix + "P95Seconds", quantile(0.95));
+        stats.put(prefix + "P99Seconds", quantile(0.99));
+    }
+}
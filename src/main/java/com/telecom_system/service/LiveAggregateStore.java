@@ -0,0 +1,188 @@
+package com.telecom_system.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.entity.User;
+
+/**
+ * 系统概览的实时聚合计数：用户数、管理员数、余额总额（分）、各套餐订阅人数
+ *
+ * 本节点的增删改在事务提交后按增量更新；其他节点的修改及管理员增删由定时对账
+ * 用 SQL 聚合校正，概览与套餐分布查询无需扫描 user_info。
+ */
+@Service
+public class LiveAggregateStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveAggregateStore.class);
+
+    private static final String USER_AGGREGATE_SQL = """
+        SELECT package_id, COUNT(*), COALESCE(SUM(balance), 0)
+        FROM user_info
+        GROUP BY package_id
+        """;
+
+    private static final String ADMIN_COUNT_SQL = "SELECT COUNT(*) FROM admin_info";
+
+    /**
+     * 某一时刻的聚合值
+     */
+    public record Totals(long users, long admins, BigDecimal totalBalance, Map<Integer, Long> subscribers) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong admins = new AtomicLong();
+    private final AtomicLong balanceCents = new AtomicLong();
+    private final ConcurrentHashMap<Integer, AtomicLong> subscribers = new ConcurrentHashMap<>();
+
+    public LiveAggregateStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ========== 读取 ==========
+
+    public Totals totals() {
+        return new Totals(users.get(), admins.get(), BigDecimal.valueOf(balanceCents.get(), 2), subscribers());
+    }
+
+    public long userCount() {
+        return users.get();
+    }
+
+    /**
+     * 各套餐订阅人数（不含人数为 0 的套餐），按套餐ID排序
+     */
+    public Map<Integer, Long> subscribers() {
+        Map<Integer, Long> result = new TreeMap<>();
+        subscribers.forEach((packageId, count) -> {
+            long value = count.get();
+            if (value > 0) {
+                result.put(packageId, value);
+            }
+        });
+        return result;
+    }
+
+    // ========== 增量更新（事务提交后生效） ==========
+
+    public void userCreated(User user) {
+        Integer packageId = user.getPackageId();
+        long cents = toCents(user.getBalance());
+        AfterCommit.run(() -> {
+            users.incrementAndGet();
+            balanceCents.addAndGet(cents);
+            addSubscribers(packageId, 1);
+        });
+    }
+
+    public void userDeleted(User user) {
+        Integer packageId = user.getPackageId();
+        long cents = toCents(user.getBalance());
+        AfterCommit.run(() -> {
+            users.decrementAndGet();
+            balanceCents.addAndGet(-cents);
+            addSubscribers(packageId, -1);
+        });
+    }
+
+    /**
+     * 用户余额或套餐变化：传入修改前的套餐与余额，以及保存后的用户
+     */
+    public void userChanged(Integer oldPackageId, BigDecimal oldBalance, User saved) {
+        Integer newPackageId = saved.getPackageId();
+        long deltaCents = toCents(saved.getBalance()) - toCents(oldBalance);
+        if (deltaCents == 0 && (oldPackageId == null || oldPackageId.equals(newPackageId))) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            balanceCents.addAndGet(deltaCents);
+            if (oldPackageId != null && !oldPackageId.equals(newPackageId)) {
+                addSubscribers(oldPackageId, -1);
+                addSubscribers(newPackageId, 1);
+            }
+        });
+    }
+
+    private void addSubscribers(Integer packageId, long delta) {
+        if (packageId != null) {
+            subscribers.computeIfAbsent(packageId, id -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    // ========== 加载与对账 ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    /**
+     * 定时对账：按 SQL 聚合值校正计数。
+     * 以查询前读取的计数为基准，只把（聚合值 - 基准）补到计数上，查询期间提交的增量不会丢失；
+     * 在查询快照之前提交、但提交回调晚于基准读取的修改会被计入两次，由下一次对账消除。
+     */
+    @Scheduled(fixedDelayString = "${telecom.live-aggregates.reconcile-interval-ms:300000}",
+               initialDelayString = "${telecom.live-aggregates.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        try {
+            long baseUsers = users.get();
+            long baseAdmins = admins.get();
+            long baseCents = balanceCents.get();
+            Map<Integer, Long> baseSubscribers = new HashMap<>();
+            subscribers.forEach((packageId, count) -> baseSubscribers.put(packageId, count.get()));
+
+            Map<Integer, Long> actualSubscribers = new HashMap<>();
+            long[] actualUsers = new long[1];
+            long[] actualCents = new long[1];
+            jdbcTemplate.query(USER_AGGREGATE_SQL, rs -> {
+                long count = rs.getLong(2);
+                actualSubscribers.put(rs.getInt(1), count);
+                actualUsers[0] += count;
+                actualCents[0] += toCents(rs.getBigDecimal(3));
+            });
+            Long actualAdmins = jdbcTemplate.queryForObject(ADMIN_COUNT_SQL, Long.class);
+
+            long drift = Math.abs(actualUsers[0] - baseUsers) + Math.abs(actualCents[0] - baseCents);
+            users.addAndGet(actualUsers[0] - baseUsers);
+            balanceCents.addAndGet(actualCents[0] - baseCents);
+            if (actualAdmins != null) {
+                drift += Math.abs(actualAdmins - baseAdmins);
+                admins.addAndGet(actualAdmins - baseAdmins);
+            }
+            Map<Integer, Long> packageIds = new HashMap<>(baseSubscribers);
+            packageIds.putAll(actualSubscribers);
+            for (Integer packageId : packageIds.keySet()) {
+                long delta = actualSubscribers.getOrDefault(packageId, 0L) - baseSubscribers.getOrDefault(packageId, 0L);
+                if (delta != 0) {
+                    drift += Math.abs(delta);
+                    addSubscribers(packageId, delta);
+                }
+            }
+            if (drift > 0) {
+                LOGGER.info("[LIVE_AGGREGATES] 聚合计数对账完成：用户 {}，管理员 {}，余额 {}，已校正偏差",
+                        actualUsers[0], actualAdmins, BigDecimal.valueOf(actualCents[0], 2));
+            }
+        } catch (Exception e) {
+            LOGGER.error("[LIVE_AGGREGATES] 聚合计数对账失败，继续使用现有计数", e);
+        }
+    }
+
+    // balance 为 NUMERIC(10,2)，与数据库一致按两位小数四舍五入后以分为单位精确累加
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,91 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.dto.OnlineSession;
+import com.telecom_system.repository.LoginInfoRepository;
+
+/**
+ * 进程内在线会话表，仅适用于单节点部署
+ * 启动时（Web 服务器接收请求之前）从 login_info 加载未下线会话，在线判断与计数为 O(1)
+ */
+@Service
+@ConditionalOnProperty(name = "telecom.online-registry.mode", havingValue = "local")
+public class LocalOnlineSessionRegistry implements OnlineSessionRegistry, SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalOnlineSessionRegistry.class);
+
+    private final LoginInfoRepository loginInfoRepository;
+    private final UserSessionTracker userSessionTracker;
+    private final ConcurrentHashMap<Integer, LocalDateTime> sessions = new ConcurrentHashMap<>();
+
+    public LocalOnlineSessionRegistry(LoginInfoRepository loginInfoRepository,
+                                      UserSessionTracker userSessionTracker) {
+        this.loginInfoRepository = loginInfoRepository;
+        this.userSessionTracker = userSessionTracker;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Object[] row : loginInfoRepository.findOpenSessionKeys()) {
+            // 同一账号存在多个未下线会话时保留最近的一个
+            sessions.merge((Integer) row[0], (LocalDateTime) row[1],
+                    (a, b) -> a.isAfter(b) ? a : b);
+        }
+        LOGGER.info("[ONLINE_REGISTRY] 已加载在线会话 {} 个", sessions.size());
+    }
+
+    @Override
+    public LocalDateTime open(Integer accountId, LocalDateTime loginTime) {
+        return sessions.putIfAbsent(accountId, loginTime);
+    }
+
+    @Override
+    public LocalDateTime close(Integer accountId) {
+        return sessions.remove(accountId);
+    }
+
+    @Override
+    public boolean isOnline(Integer accountId) {
+        return sessions.containsKey(accountId);
+    }
+
+    @Override
+    public LocalDateTime loginTime(Integer accountId) {
+        return sessions.get(accountId);
+    }
+
+    @Override
+    public int count() {
+        return sessions.size();
+    }
+
+    @Override
+    public List<OnlineSession> snapshot() {
+        return sessions.entrySet().stream()
+                .map(e -> new OnlineSession(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparing(OnlineSession::loginTime))
+                .toList();
+    }
+
+    @Override
+    public List<OnlineSession> onlineSince(LocalDateTime since) {
+        return snapshot().stream()
+                .filter(s -> !s.loginTime().isBefore(since))
+                .toList();
+    }
+
+    @Override
+    public void broadcastForceLogout(Integer accountId) {
+        userSessionTracker.invalidate(accountId);
+    }
+}
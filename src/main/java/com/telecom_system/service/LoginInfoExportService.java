@@ -0,0 +1,139 @@
+package com.telecom_system.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.telecom_system.dto.LoginRecordRow;
+
+/**
+ * 登录记录流式导出（NDJSON / CSV）
+ * 在只读事务中以服务端游标按 fetch-size 分批读取，逐行映射为 LoginRecordRow 后直接写入输出流，
+ * 每 flush-rows 行刷新一次；内存占用与时间范围大小无关。
+ */
+@Service
+public class LoginInfoExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() { return contentType; }
+        public String extension() { return extension; }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("不支持的导出格式: " + value + "（可选 ndjson、csv）");
+        }
+    }
+
+    private static final String EXPORT_SQL =
+            "SELECT account_id, login_time, logout_time FROM login_info " +
+            "WHERE login_time BETWEEN ? AND ? ORDER BY login_time, account_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final int flushRows;
+
+    public LoginInfoExportService(JdbcTemplate jdbcTemplate,
+                                  @Value("${telecom.login-export.fetch-size:1000}") int fetchSize,
+                                  @Value("${telecom.login-export.flush-rows:1000}") int flushRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.flushRows = flushRows;
+    }
+
+    /**
+     * 导出时间范围内的登录记录；PostgreSQL 只有在事务内（非自动提交）才使用游标分批读取
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime start, LocalDateTime end, Format format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long[] rows = {0};
+        try {
+            if (format == Format.CSV) {
+                writer.write("account_id,login_time,logout_time\n");
+            }
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, Timestamp.valueOf(start));
+                ps.setTimestamp(2, Timestamp.valueOf(end));
+                return ps;
+            }, (ResultSet rs) -> {
+                try {
+                    write(writer, format, toRow(rs));
+                    if (++rows[0] % flushRows == 0) {
+                        writer.flush();
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // 客户端断开：终止查询并回收游标
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows[0];
+    }
+
+    private static LoginRecordRow toRow(ResultSet rs) throws SQLException {
+        Timestamp logout = rs.getTimestamp(3);
+        return new LoginRecordRow(rs.getInt(1), rs.getTimestamp(2).toLocalDateTime(),
+                logout == null ? null : logout.toLocalDateTime());
+    }
+
+    private static void write(Writer writer, Format format, LoginRecordRow row) throws IOException {
+        // 字段均为数字和时间，无需转义
+        if (format == Format.CSV) {
+            writer.write(Integer.toString(row.accountId()));
+            writer.write(',');
+            writer.write(row.loginTime().toString());
+            writer.write(',');
+            if (row.logoutTime() != null) {
+                writer.write(row.logoutTime().toString());
+            }
+        } else {
+            writer.write("{\"accountId\":");
+            writer.write(Integer.toString(row.accountId()));
+            writer.write(",\"loginTime\":\"");
+            writer.write(row.loginTime().toString());
+            writer.write(row.logoutTime() == null ? "\",\"logoutTime\":null}" : "\",\"logoutTime\":\"");
+            if (row.logoutTime() != null) {
+                writer.write(row.logoutTime().toString());
+                writer.write("\"}");
+            }
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,82 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * login_info 按月分区维护
+ * 定时预建未来 months-ahead 个月的分区，并把早于保留期（retention-months）的分区摘除为归档表。
+ * queryHorizon() 是保留期的起点，即“全部历史”类查询的下界（不读默认分区中早于保留期的残留数据）；
+ * 它本身不裁剪任何已挂载的分区，有实际时间窗口的查询应按该窗口限定 login_time。
+ */
+@Service
+public class LoginInfoPartitionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoginInfoPartitionService.class);
+
+    // 不设保留期时的保留期起点
+    private static final LocalDateTime KEEP_ALL_HORIZON = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public LoginInfoPartitionService(JdbcTemplate jdbcTemplate,
+                                     @Value("${telecom.login-partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${telecom.login-partitions.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * 保留期的起点：保留期内第一个月的月初，与摘除分区的边界一致
+     */
+    public LocalDateTime queryHorizon() {
+        if (retentionMonths <= 0) {
+            return KEEP_ALL_HORIZON;
+        }
+        return YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    /**
+     * 定时维护：预建分区，摘除过期分区（多节点同时执行时由数据库函数内的咨询锁串行化）
+     */
+    @Scheduled(cron = "${telecom.login-partitions.maintain-cron:0 15 2 * * *}")
+    public void maintain() {
+        try {
+            YearMonth current = YearMonth.now();
+            for (int i = 0; i <= monthsAhead; i++) {
+                String created = jdbcTemplate.queryForObject("SELECT create_login_info_partition(?)",
+                        String.class, current.plusMonths(i).atDay(1));
+                if (created != null) {
+                    LOGGER.info("[LOGIN_PARTITIONS] 已创建分区 {}", created);
+                }
+            }
+            if (retentionMonths > 0) {
+                List<String> archived = jdbcTemplate.queryForList("SELECT * FROM detach_login_info_partitions(?)",
+                        String.class, retentionMonths);
+                if (!archived.isEmpty()) {
+                    LOGGER.info("[LOGIN_PARTITIONS] 已摘除过期分区 {}", archived);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.error("[LOGIN_PARTITIONS] 分区维护失败", e);
+        }
+    }
+}
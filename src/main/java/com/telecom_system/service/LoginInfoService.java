@@ -1,17 +1,27 @@
 package com.telecom_system.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.telecom_system.dto.CursorPage;
+import com.telecom_system.dto.LoginRecordRow;
+import com.telecom_system.dto.OnlineSession;
 import com.telecom_system.entity.LoginInfo;
 import com.telecom_system.entity.User;
+import com.telecom_system.event.SessionEvent;
 import com.telecom_system.repository.LoginInfoRepository;
 import com.telecom_system.repository.UserRepository;
 
@@ -19,86 +29,147 @@ import com.telecom_system.repository.UserRepository;
 @Transactional
 public class LoginInfoService {
     
+    private static final int MAX_PAGE_SIZE = 200;
+    
     private final LoginInfoRepository loginInfoRepository;
     private final UserRepository userRepository;
+    private final SessionEventWriter sessionEventWriter;
+    private final OnlineSessionRegistry onlineSessionRegistry;
+    private final LoginInfoPartitionService loginInfoPartitionService;
+    private final LoginRollupService loginRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SessionAnalytics sessionAnalytics;
     
-    public LoginInfoService(LoginInfoRepository loginInfoRepository, UserRepository userRepository) {
+    public LoginInfoService(LoginInfoRepository loginInfoRepository, UserRepository userRepository,
+                            SessionEventWriter sessionEventWriter, OnlineSessionRegistry onlineSessionRegistry,
+                            LoginInfoPartitionService loginInfoPartitionService, LoginRollupService loginRollupService,
+                            ApplicationEventPublisher eventPublisher, SessionAnalytics sessionAnalytics) {
         this.loginInfoRepository = loginInfoRepository;
         this.userRepository = userRepository;
+        this.sessionEventWriter = sessionEventWriter;
+        this.onlineSessionRegistry = onlineSessionRegistry;
+        this.loginInfoPartitionService = loginInfoPartitionService;
+        this.loginRollupService = loginRollupService;
+        this.eventPublisher = eventPublisher;
+        this.sessionAnalytics = sessionAnalytics;
     }
     
     /**
      * 记录用户登录
+     * 已有未登出的会话则复用该会话，不重复创建；新会话交给异步写入器批量落库，
+     * 并发布会话事件（仅在线状态实际变化时发布，供统计模块增量维护）
      */
     public LoginInfo recordLogin(Integer accountId) {
-        // 如果已有未登出的会话则复用该记录（不创建新条目），避免重复会话记录
-        try {
-            java.util.List<LoginInfo> activeSessions = loginInfoRepository.findByIdAccountIdAndLogoutTimeIsNull(accountId);
-            if (activeSessions != null && !activeSessions.isEmpty()) {
-                // 返回最后一个未下线的会话（最近的活跃会话）
-                return activeSessions.get(activeSessions.size() - 1);
-            }
-        } catch (Exception e) {
-            // 查询出现问题时不影响登录主流程，继续尝试创建新会话
-        }
-
-        // 创建登录记录，注意 login_time 与数据库主键相关，极少数情况下可能因时间精度冲突导致主键冲突
-        int maxAttempts = 5;
-        java.time.LocalDateTime now = java.time.LocalDateTime.now();
-        for (int attempt = 0; attempt < maxAttempts; attempt++) {
-            try {
-                LoginInfo loginInfo = new LoginInfo();
-                loginInfo.setId(new LoginInfo.LoginInfoPK(accountId, now));
-                // logout_time 为 null，表示用户在线
-                return loginInfoRepository.save(loginInfo);
-            } catch (org.springframework.dao.DataIntegrityViolationException dive) {
-                // 可能是主键冲突（相同 accountId + login_time），微调时间并重试
-                now = now.plusNanos(1_000_000);
-                if (attempt == maxAttempts - 1) {
-                    throw dive;
-                }
-            }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime existing = onlineSessionRegistry.open(accountId, now);
+        if (existing != null) {
+            return new LoginInfo(accountId, existing);
         }
-        // 理论上不会到达这里
-        return null;
+        SessionEvent event = SessionEvent.login(accountId, now);
+        sessionEventWriter.submit(event);
+        eventPublisher.publishEvent(event);
+        return new LoginInfo(accountId, now);
     }
     
     /**
      * 记录用户登出
      */
-    public LoginInfo recordLogout(Integer accountId) {
-        // 查找该用户未下线的会话
-        List<LoginInfo> activeSessions = loginInfoRepository.findByIdAccountIdAndLogoutTimeIsNull(accountId);
-        
-        if (activeSessions.isEmpty()) {
+    public void recordLogout(Integer accountId) {
+        LocalDateTime loginTime = onlineSessionRegistry.close(accountId);
+        if (loginTime == null) {
             throw new RuntimeException("用户没有活跃的登录会话: " + accountId);
         }
-        
-        // 更新最后一个活跃会话的登出时间
-        LoginInfo lastSession = activeSessions.get(activeSessions.size() - 1);
-        lastSession.setLogoutTime(LocalDateTime.now());
-        
-        return loginInfoRepository.save(lastSession);
+        SessionEvent event = SessionEvent.logout(accountId, LocalDateTime.now(), loginTime);
+        sessionEventWriter.submit(event);
+        eventPublisher.publishEvent(event);
     }
     
     /**
      * 强制用户下线
+     * 不论在线表中是否存在都提交下线事件，顺带关闭库中可能残留的未下线会话；
+     * 并通知所有节点使该用户的 Web 会话失效
      */
     public void forceLogout(Integer accountId) {
-        List<LoginInfo> activeSessions = loginInfoRepository.findByIdAccountIdAndLogoutTimeIsNull(accountId);
-        
-        for (LoginInfo session : activeSessions) {
-            session.setLogoutTime(LocalDateTime.now());
-            loginInfoRepository.save(session);
+        LocalDateTime loginTime = onlineSessionRegistry.close(accountId);
+        SessionEvent event = SessionEvent.logout(accountId, LocalDateTime.now(), loginTime);
+        sessionEventWriter.submit(event);
+        if (loginTime != null) {
+            eventPublisher.publishEvent(event);
         }
+        onlineSessionRegistry.broadcastForceLogout(accountId);
     }
     
     /**
-     * 根据用户ID查找所有登录记录
+     * 根据用户ID查找 [start, end) 内登录的记录；start 为 null 时从保留期开始，end 为 null 时不设上界
      */
     @Transactional(readOnly = true)
-    public List<LoginInfo> findByAccountId(Integer accountId) {
-        return loginInfoRepository.findByIdAccountId(accountId);
+    public List<LoginInfo> findByAccountId(Integer accountId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime horizon = loginInfoPartitionService.queryHorizon();
+        LocalDateTime since = start == null || start.isBefore(horizon) ? horizon : start;
+        if (end == null) {
+            return loginInfoRepository.findByIdAccountIdAndIdLoginTimeGreaterThanEqual(accountId, since);
+        }
+        if (!end.isAfter(since)) {
+            return List.of();
+        }
+        return loginInfoRepository.findByIdAccountIdAndIdLoginTimeGreaterThanEqualAndIdLoginTimeLessThan(
+                accountId, since, end);
+    }
+    
+    /**
+     * 按游标分页查询用户登录历史（keyset 分页，不使用 OFFSET、不统计总数）
+     * order 为 desc（默认，最近的在前）或 asc；cursor 为上一页返回的 nextCursor，首页传 null
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<LoginRecordRow> findHistoryPage(Integer accountId, String cursor, int size, String order) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("每页条数必须在 1 到 " + MAX_PAGE_SIZE + " 之间");
+        }
+        if (!"desc".equalsIgnoreCase(order) && !"asc".equalsIgnoreCase(order)) {
+            throw new IllegalArgumentException("排序方式只能是 asc 或 desc");
+        }
+        boolean descending = "desc".equalsIgnoreCase(order);
+        // 倒序首页按分区顺序取最新的 size + 1 条，翻页时游标即为时间窗口的一端
+        LocalDateTime since = loginInfoPartitionService.queryHorizon();
+        LocalDateTime position = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor, accountId, descending);
+        Limit limit = Limit.of(size + 1);
+
+        List<LoginRecordRow> rows;
+        if (descending) {
+            rows = position == null
+                    ? loginInfoRepository.findHistoryDesc(accountId, since, limit)
+                    : loginInfoRepository.findHistoryBefore(accountId, since, position, limit);
+        } else {
+            rows = position == null
+                    ? loginInfoRepository.findHistoryAsc(accountId, since, limit)
+                    : loginInfoRepository.findHistoryAfter(accountId, position, limit);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<LoginRecordRow> content = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore
+                ? encodeCursor(accountId, descending, content.get(content.size() - 1).loginTime())
+                : null;
+        return new CursorPage<>(List.copyOf(content), content.size(), hasMore, nextCursor);
+    }
+    
+    // 游标内容：账号|排序|最后一条的登录时间，Base64url 编码后对客户端不透明
+    private static String encodeCursor(Integer accountId, boolean descending, LocalDateTime loginTime) {
+        String raw = accountId + "|" + (descending ? "desc" : "asc") + "|" + loginTime;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static LocalDateTime decodeCursor(String cursor, Integer accountId, boolean descending) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length == 3 && parts[0].equals(accountId.toString())
+                    && parts[1].equals(descending ? "desc" : "asc")) {
+                return LocalDateTime.parse(parts[2]);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // 按无效游标处理
+        }
+        throw new IllegalArgumentException("无效的分页游标");
     }
     
     /**
@@ -110,11 +181,24 @@ public class LoginInfoService {
     }
     
     /**
-     * 查找当前在线用户
+     * 查找当前在线用户（在线会话表快照）
      */
-    @Transactional(readOnly = true)
-    public List<LoginInfo> findOnlineSessions() {
-        return loginInfoRepository.findByLogoutTimeIsNull();
+    public List<OnlineSession> findOnlineSessions() {
+        return onlineSessionRegistry.snapshot();
+    }
+    
+    /**
+     * 查找登录时间不早于 since 的在线会话
+     */
+    public List<OnlineSession> findOnlineSessionsSince(LocalDateTime since) {
+        return onlineSessionRegistry.onlineSince(since);
+    }
+    
+    /**
+     * 当前在线用户数
+     */
+    public int countOnlineSessions() {
+        return onlineSessionRegistry.count();
     }
     
     /**
@@ -128,116 +212,57 @@ public class LoginInfoService {
     
     /**
      * 获取用户登录统计信息
+     * 日汇总表 + 尚未汇总的尾部原始记录，单遍累加，不再加载用户的全部登录记录
+     * （可重复读：汇总表、水位线与尾部记录来自同一快照）
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public Map<String, Object> getUserLoginStatistics(Integer accountId) {
-        Map<String, Object> stats = new HashMap<>();
-        
         // 获取用户信息
         User user = userRepository.findById(accountId)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + accountId));
         
-        // 获取所有登录记录
-        List<LoginInfo> loginRecords = loginInfoRepository.findByIdAccountId(accountId);
-        
-        // 计算统计信息
-        long totalSessions = loginRecords.size();
-        long completedSessions = loginRecords.stream()
-                .filter(login -> login.getLogoutTime() != null)
-                .count();
-        
-        long activeSessions = loginRecords.stream()
-                .filter(login -> login.getLogoutTime() == null)
-                .count();
-        
-        // 计算总在线时长（小时）
-        double totalOnlineHours = loginRecords.stream()
-                .filter(login -> login.getLogoutTime() != null)
-                .mapToDouble(login -> {
-                    Duration duration = Duration.between(login.getLoginTime(), login.getLogoutTime());
-                    return duration.toMinutes() / 60.0; // 转换为小时
-                })
-                .sum();
-        
-        // 计算平均会话时长
-        double averageSessionHours = completedSessions > 0 ? totalOnlineHours / completedSessions : 0;
-        
-        // 查找最后登录时间
-        Optional<LocalDateTime> lastLoginTime = loginRecords.stream()
-                .map(LoginInfo::getLoginTime)
-                .max(LocalDateTime::compareTo);
-        
-        // 查找最长会话
-        Optional<LoginInfo> longestSession = loginRecords.stream()
-                .filter(login -> login.getLogoutTime() != null)
-                .max((l1, l2) -> {
-                    Duration d1 = Duration.between(l1.getLoginTime(), l1.getLogoutTime());
-                    Duration d2 = Duration.between(l2.getLoginTime(), l2.getLogoutTime());
-                    return Long.compare(d1.toMinutes(), d2.toMinutes());
-                });
-        
+        Map<String, Object> stats = loginRollupService.accumulate(accountId).toStatistics();
         stats.put("accountId", accountId);
         stats.put("userName", user.getName());
-        stats.put("totalSessions", totalSessions);
-        stats.put("completedSessions", completedSessions);
-        stats.put("activeSessions", activeSessions);
-        stats.put("totalOnlineHours", Math.round(totalOnlineHours * 100.0) / 100.0);
-        stats.put("averageSessionHours", Math.round(averageSessionHours * 100.0) / 100.0);
-        stats.put("lastLoginTime", lastLoginTime.orElse(null));
-        
-        if (longestSession.isPresent()) {
-            LoginInfo session = longestSession.get();
-            Duration duration = Duration.between(session.getLoginTime(), session.getLogoutTime());
-            double hours = duration.toMinutes() / 60.0;
-            stats.put("longestSessionHours", Math.round(hours * 100.0) / 100.0);
-            stats.put("longestSessionDate", session.getLoginTime().toLocalDate());
-        }
-        
         return stats;
     }
     
     /**
      * 获取系统登录统计
+     * 会话时长分位数由每日时长草图合并得到（相对误差 1%），不扫描会话记录
      */
     @Transactional(readOnly = true)
     public Map<String, Object> getSystemLoginStatistics(LocalDateTime startDate, LocalDateTime endDate) {
         Map<String, Object> stats = new HashMap<>();
         
-        // 获取时间范围内的登录记录
-        List<LoginInfo> loginRecords = loginInfoRepository.findByIdLoginTimeBetween(startDate, endDate);
-        
-        // 计算统计信息
-        long totalLogins = loginRecords.size();
-        long uniqueUsers = loginRecords.stream()
-                .map(login -> login.getAccountId())
-                .distinct()
-                .count();
+        // 时间范围的聚合由会话分析实现完成（SQL 聚合或列式快照），不加载登录记录
+        SessionAnalytics.RangeSummary summary = sessionAnalytics.summarize(startDate, endDate);
+        long totalLogins = summary.totalLogins();
         
         // 计算平均每日登录次数
         long daysBetween = Duration.between(startDate, endDate).toDays();
         double averageDailyLogins = daysBetween > 0 ? (double) totalLogins / daysBetween : totalLogins;
         
-        // 查找最活跃的用户
-        Map<Integer, Long> userLoginCounts = new HashMap<>();
-        for (LoginInfo login : loginRecords) {
-            userLoginCounts.merge(login.getAccountId(), 1L, Long::sum);
-        }
-        
-        Optional<Map.Entry<Integer, Long>> mostActiveUser = userLoginCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue());
-        
         stats.put("startDate", startDate);
         stats.put("endDate", endDate);
         stats.put("totalLogins", totalLogins);
-        stats.put("uniqueUsers", uniqueUsers);
+        stats.put("uniqueUsers", summary.uniqueUsers());
+        stats.put("uniqueUsersExact", summary.uniqueUsersExact());
         stats.put("averageDailyLogins", Math.round(averageDailyLogins * 100.0) / 100.0);
         
-        if (mostActiveUser.isPresent()) {
-            Map.Entry<Integer, Long> entry = mostActiveUser.get();
-            Optional<User> user = userRepository.findById(entry.getKey());
-            stats.put("mostActiveUserId", entry.getKey());
+        // 会话时长分位数：合并范围覆盖的每日草图（按登录日期整天统计）
+        DurationSketch durations = new DurationSketch();
+        loginRollupService.systemDurations(startDate.toLocalDate(), endDate.toLocalDate()).values()
+                .forEach(durations::merge);
+        stats.put("completedSessions", durations.count());
+        durations.putPercentiles(stats, "session");
+        
+        // 最活跃的用户
+        if (summary.mostActiveAccountId() != null) {
+            Optional<User> user = userRepository.findById(summary.mostActiveAccountId());
+            stats.put("mostActiveUserId", summary.mostActiveAccountId());
             stats.put("mostActiveUserName", user.map(User::getName).orElse("未知用户"));
-            stats.put("mostActiveUserLoginCount", entry.getValue());
+            stats.put("mostActiveUserLoginCount", summary.mostActiveLoginCount());
         }
         
         return stats;
@@ -246,9 +271,7 @@ public class LoginInfoService {
     /**
      * 检查用户是否在线
      */
-    @Transactional(readOnly = true)
     public boolean isUserOnline(Integer accountId) {
-        List<LoginInfo> activeSessions = loginInfoRepository.findByIdAccountIdAndLogoutTimeIsNull(accountId);
-        return !activeSessions.isEmpty();
+        return onlineSessionRegistry.isOnline(accountId);
     }
 }
\ No newline at end of file
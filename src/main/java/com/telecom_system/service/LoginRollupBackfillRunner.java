@@ -0,0 +1,36 @@
+package com.telecom_system.service;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 汇总数据回填命令：以 --rollup-backfill 启动时，按 login_info 历史数据重建
+ * 会话日汇总（login_daily_rollup）、在线并发直方图与每日登录去重计数
+ * 例如：java -jar telecom_system.jar --rollup-backfill
+ */
+@Component
+public class LoginRollupBackfillRunner implements ApplicationRunner {
+
+    static final String OPTION = "rollup-backfill";
+
+    private final LoginRollupService loginRollupService;
+    private final ConcurrencyHistogram concurrencyHistogram;
+    private final UniqueLoginCounter uniqueLoginCounter;
+
+    public LoginRollupBackfillRunner(LoginRollupService loginRollupService, ConcurrencyHistogram concurrencyHistogram,
+                                     UniqueLoginCounter uniqueLoginCounter) {
+        this.loginRollupService = loginRollupService;
+        this.concurrencyHistogram = concurrencyHistogram;
+        this.uniqueLoginCounter = uniqueLoginCounter;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            loginRollupService.backfill();
+            concurrencyHistogram.rebuild();
+            uniqueLoginCounter.rebuild();
+        }
+    }
+}
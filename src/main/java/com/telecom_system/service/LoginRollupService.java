@@ -0,0 +1,254 @@
+package com.telecom_system.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telecom_system.repository.SqlValues;
+
+/**
+ * 登录会话日汇总
+ *
+ * 定时任务把 logout_time 位于 [水位线, 当前时间 - 宽限期) 的已结束会话按 (账号, 登录日期) 累加进
+ * login_daily_rollup，并在同一事务中推进水位线（rollup_watermark）。宽限期覆盖异步写入器的落库延迟。
+ * 查询时 = 汇总表 + 尚未汇总的尾部原始记录（未下线，或 logout_time 不早于水位线）。
+ * 会话时长分布按同样的区间汇总为对数分桶草图（见 DurationSketch）：
+ * login_duration_rollup 按 (账号, 登录日期, 桶)，system_duration_rollup 按 (登录日期, 桶)。
+ */
+@Service
+public class LoginRollupService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoginRollupService.class);
+
+    static final String WATERMARK_NAME = "login_daily_rollup";
+
+    // 按 (账号, 登录日期) 汇总一个 logout_time 区间内的已结束会话并累加到汇总表（区间走索引 login_info_logout_time_idx）
+    // 时长按会话向下取整到分钟后再求和 / 取最大值，与逐条统计的口径一致
+    private static final String FOLD_SQL = """
+        INSERT INTO login_daily_rollup AS r
+            (account_id, day, session_count, total_minutes, max_session_minutes, last_login_time)
+        SELECT account_id, login_time::DATE, COUNT(*), SUM(minutes), MAX(minutes), MAX(login_time)
+        FROM (
+            SELECT account_id, login_time,
+                   FLOOR(EXTRACT(EPOCH FROM (logout_time - login_time)) / 60)::BIGINT AS minutes
+            FROM login_info
+            WHERE login_time >= ? AND logout_time >= ? AND logout_time < ?
+        ) s
+        GROUP BY account_id, login_time::DATE
+        ON CONFLICT (account_id, day) DO UPDATE SET
+            session_count = r.session_count + EXCLUDED.session_count,
+            total_minutes = r.total_minutes + EXCLUDED.total_minutes,
+            max_session_minutes = GREATEST(r.max_session_minutes, EXCLUDED.max_session_minutes),
+            last_login_time = GREATEST(r.last_login_time, EXCLUDED.last_login_time)
+        """;
+
+    // 同一区间内已结束会话的时长分桶，分别按账号和全系统累加
+    private static final String FOLD_DURATION_SQL = """
+        INSERT INTO login_duration_rollup AS r (account_id, day, bucket, session_count)
+        SELECT account_id, login_time::DATE, %s, COUNT(*)
+        FROM (
+            SELECT account_id, login_time,
+                   FLOOR(EXTRACT(EPOCH FROM (logout_time - login_time)))::BIGINT AS seconds
+            FROM login_info
+            WHERE login_time >= ? AND logout_time >= ? AND logout_time < ?
+        ) s
+        GROUP BY 1, 2, 3
+        ON CONFLICT (account_id, day, bucket) DO UPDATE SET
+            session_count = r.session_count + EXCLUDED.session_count
+        """.formatted(DurationSketch.BUCKET_SQL);
+
+    private static final String FOLD_SYSTEM_DURATION_SQL = """
+        INSERT INTO system_duration_rollup AS r (day, bucket, session_count)
+        SELECT login_time::DATE, %s, COUNT(*)
+        FROM (
+            SELECT login_time,
+                   FLOOR(EXTRACT(EPOCH FROM (logout_time - login_time)))::BIGINT AS seconds
+            FROM login_info
+            WHERE login_time >= ? AND logout_time >= ? AND logout_time < ?
+        ) s
+        GROUP BY 1, 2
+        ON CONFLICT (day, bucket) DO UPDATE SET
+            session_count = r.session_count + EXCLUDED.session_count
+        """.formatted(DurationSketch.BUCKET_SQL);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final LoginInfoPartitionService loginInfoPartitionService;
+    private final long graceMinutes;
+
+    public LoginRollupService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              LoginInfoPartitionService loginInfoPartitionService,
+                              @Value("${telecom.login-rollup.grace-minutes:10}") long graceMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        // 汇总表、水位线与尾部记录须来自同一快照
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.loginInfoPartitionService = loginInfoPartitionService;
+        this.graceMinutes = graceMinutes;
+    }
+
+    /**
+     * 定时汇总：从水位线推进到当前时间减宽限期；尚无水位线时从保留期起点开始
+     */
+    @Scheduled(cron = "${telecom.login-rollup.fold-cron:0 */10 * * * *}")
+    public void fold() {
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                LocalDateTime from = lockWatermark();
+                LocalDateTime to = LocalDateTime.now().minusMinutes(graceMinutes);
+                if (from == null) {
+                    from = loginInfoPartitionService.queryHorizon();
+                }
+                if (!to.isAfter(from)) {
+                    return;
+                }
+                int rows = foldRange(from, to);
+                saveWatermark(to);
+                // 保留期之外的汇总不再参与统计
+                LocalDate horizon = loginInfoPartitionService.queryHorizon().toLocalDate();
+                jdbcTemplate.update("DELETE FROM login_daily_rollup WHERE day < ?", horizon);
+                jdbcTemplate.update("DELETE FROM login_duration_rollup WHERE day < ?", horizon);
+                jdbcTemplate.update("DELETE FROM system_duration_rollup WHERE day < ?", horizon);
+                LOGGER.debug("[LOGIN_ROLLUP] 已汇总 [{} , {})，更新 {} 行", from, to, rows);
+            });
+        } catch (Exception e) {
+            LOGGER.error("[LOGIN_ROLLUP] 会话日汇总失败", e);
+        }
+    }
+
+    /**
+     * 回填：清空汇总表，按 login_info 全部历史重新汇总
+     */
+    public void backfill() {
+        writeTransaction.executeWithoutResult(status -> {
+            lockWatermark();
+            LocalDateTime from = loginInfoPartitionService.queryHorizon();
+            LocalDateTime to = LocalDateTime.now().minusMinutes(graceMinutes);
+            jdbcTemplate.update("DELETE FROM login_daily_rollup");
+            jdbcTemplate.update("DELETE FROM login_duration_rollup");
+            jdbcTemplate.update("DELETE FROM system_duration_rollup");
+            int rows = foldRange(from, to);
+            saveWatermark(to);
+            LOGGER.info("[LOGIN_ROLLUP] 回填完成：登录时间自 {} 起，汇总至 {}，共 {} 行", from, to, rows);
+        });
+    }
+
+    /**
+     * 把用户的汇总数据与尚未汇总的尾部原始记录累加到 accumulator
+     */
+    public LoginStatsAccumulator accumulate(Integer accountId) {
+        return readTransaction.execute(status -> {
+            LoginStatsAccumulator accumulator = new LoginStatsAccumulator();
+            LocalDateTime since = loginInfoPartitionService.queryHorizon();
+            LocalDateTime watermark = jdbcTemplate.query(
+                    "SELECT watermark FROM rollup_watermark WHERE name = ?",
+                    rs -> rs.next() ? rs.getTimestamp(1).toLocalDateTime() : null, WATERMARK_NAME);
+
+            if (watermark != null) {
+                jdbcTemplate.query("SELECT day, session_count, total_minutes, max_session_minutes, last_login_time " +
+                                "FROM login_daily_rollup WHERE account_id = ? AND day >= ?",
+                        rs -> {
+                            accumulator.addDaily(SqlValues.toLocalDate(rs.getObject(1)), rs.getLong(2), rs.getLong(3),
+                                    rs.getLong(4), rs.getTimestamp(5).toLocalDateTime());
+                        },
+                        accountId, since.toLocalDate());
+                jdbcTemplate.query("SELECT bucket, session_count FROM login_duration_rollup WHERE account_id = ? AND day >= ?",
+                        rs -> {
+                            accumulator.addDurationBucket(rs.getInt(1), rs.getLong(2));
+                        },
+                        accountId, since.toLocalDate());
+            }
+
+            // 尾部：未下线，或在水位线之后下线（没有水位线时即全部原始记录）
+            jdbcTemplate.query("SELECT login_time, logout_time FROM login_info " +
+                            "WHERE account_id = ? AND login_time >= ? AND (logout_time IS NULL OR logout_time >= ?)",
+                    rs -> {
+                        Timestamp logout = rs.getTimestamp(2);
+                        accumulator.addSession(rs.getTimestamp(1).toLocalDateTime(),
+                                logout == null ? null : logout.toLocalDateTime());
+                    },
+                    accountId, Timestamp.valueOf(since), Timestamp.valueOf(watermark != null ? watermark : since));
+            return accumulator;
+        });
+    }
+
+    /**
+     * 全系统每天（按登录日期）已结束会话的时长草图，日期范围 [from, to]（含两端）
+     * 汇总表与水位线之后下线的尾部会话合并，结果与逐条统计原始会话一致
+     */
+    public SortedMap<LocalDate, DurationSketch> systemDurations(LocalDate from, LocalDate to) {
+        return readTransaction.execute(status -> {
+            SortedMap<LocalDate, DurationSketch> daily = new TreeMap<>();
+            LocalDate horizon = loginInfoPartitionService.queryHorizon().toLocalDate();
+            LocalDate start = from.isBefore(horizon) ? horizon : from;
+            if (to.isBefore(start)) {
+                return daily;
+            }
+            LocalDateTime watermark = jdbcTemplate.query(
+                    "SELECT watermark FROM rollup_watermark WHERE name = ?",
+                    rs -> rs.next() ? rs.getTimestamp(1).toLocalDateTime() : null, WATERMARK_NAME);
+
+            if (watermark != null) {
+                jdbcTemplate.query("SELECT day, bucket, session_count FROM system_duration_rollup " +
+                                "WHERE day BETWEEN ? AND ?",
+                        rs -> {
+                            daily.computeIfAbsent(SqlValues.toLocalDate(rs.getObject(1)), d -> new DurationSketch())
+                                    .add(rs.getInt(2), rs.getLong(3));
+                        },
+                        start, to);
+            }
+
+            // 尾部：水位线之后下线的会话（没有水位线时即全部已结束会话）
+            LocalDateTime tailFrom = watermark != null ? watermark : start.atStartOfDay();
+            jdbcTemplate.query("SELECT login_time, logout_time FROM login_info " +
+                            "WHERE login_time >= ? AND login_time < ? AND logout_time >= ?",
+                    rs -> {
+                        LocalDateTime login = rs.getTimestamp(1).toLocalDateTime();
+                        daily.computeIfAbsent(login.toLocalDate(), d -> new DurationSketch())
+                                .add(LoginStatsAccumulator.sessionSeconds(login, rs.getTimestamp(2).toLocalDateTime()));
+                    },
+                    Timestamp.valueOf(start.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()),
+                    Timestamp.valueOf(tailFrom));
+            return daily;
+        });
+    }
+
+    private int foldRange(LocalDateTime from, LocalDateTime to) {
+        Timestamp horizon = Timestamp.valueOf(loginInfoPartitionService.queryHorizon());
+        jdbcTemplate.update(FOLD_DURATION_SQL, horizon, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        jdbcTemplate.update(FOLD_SYSTEM_DURATION_SQL, horizon, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return jdbcTemplate.update(FOLD_SQL, horizon, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    // 锁定水位线行，多节点同时执行时串行化
+    private LocalDateTime lockWatermark() {
+        jdbcTemplate.update("INSERT INTO rollup_watermark (name, watermark) VALUES (?, NULL) ON CONFLICT (name) DO NOTHING",
+                WATERMARK_NAME);
+        return jdbcTemplate.queryForObject("SELECT watermark FROM rollup_watermark WHERE name = ? FOR UPDATE",
+                (rs, i) -> {
+                    Timestamp ts = rs.getTimestamp(1);
+                    return ts == null ? null : ts.toLocalDateTime();
+                }, WATERMARK_NAME);
+    }
+
+    private void saveWatermark(LocalDateTime watermark) {
+        jdbcTemplate.update("UPDATE rollup_watermark SET watermark = ? WHERE name = ?",
+                Timestamp.valueOf(watermark), WATERMARK_NAME);
+    }
+}
@@ -13,24 +13,29 @@ public class LoginService {
     
     private final UserRepository userRepository;
     private final AdminRepository adminRepository;
+    private final CredentialDirectory credentialDirectory;
     
-    public LoginService(UserRepository userRepository, AdminRepository adminRepository) {
+    public LoginService(UserRepository userRepository, AdminRepository adminRepository,
+                        CredentialDirectory credentialDirectory) {
         this.userRepository = userRepository;
         this.adminRepository = adminRepository;
+        this.credentialDirectory = credentialDirectory;
     }
     
     /**
-     * 用户登录验证
+     * 用户登录验证：先查内存凭据索引，校验通过后按主键加载一次用户
      */
     public Optional<User> userLogin(String identifier, String password) {
-        return userRepository.validateLogin(identifier, password);
+        return credentialDirectory.authenticateUser(identifier, password)
+                .flatMap(userRepository::findById);
     }
     
     /**
      * 管理员登录验证
      */
     public Optional<Admin> adminLogin(String identifier, String password) {
-        return adminRepository.validateLogin(identifier, password);
+        return credentialDirectory.authenticateAdmin(identifier, password)
+                .flatMap(adminRepository::findById);
     }
     
     /**
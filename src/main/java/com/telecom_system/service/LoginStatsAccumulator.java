@@ -0,0 +1,116 @@
+package com.telecom_system.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 用户登录统计的单遍累加器
+ * 输入既可以是日汇总（login_daily_rollup 的一行），也可以是尚未汇总的原始会话，
+ * 两者可以任意混合；结果与逐条累加全部原始会话一致。
+ * 时长口径与原逐条计算相同：每条会话先向下取整到分钟再累加 / 比较最长会话。
+ * 已结束会话的时长同时计入分位数草图（DurationSketch），输出 p50 / p95 / p99。
+ */
+public class LoginStatsAccumulator {
+
+    private long totalSessions;
+    private long completedSessions;
+    private long activeSessions;
+    private long totalMinutes;
+    private long maxSessionMinutes = -1;
+    private LocalDate longestSessionDate;
+    private LocalDateTime lastLoginTime;
+    private final DurationSketch durations = new DurationSketch();
+
+    /**
+     * 累加一天的已结束会话汇总（sessionMinutes 为各会话整分钟数之和，maxMinutes 为其中最大值）
+     */
+    public LoginStatsAccumulator addDaily(LocalDate day, long sessionCount, long sessionMinutes,
+                                          long maxMinutes, LocalDateTime lastLogin) {
+        totalSessions += sessionCount;
+        completedSessions += sessionCount;
+        totalMinutes += sessionMinutes;
+        offerLongest(maxMinutes, day);
+        offerLastLogin(lastLogin);
+        return this;
+    }
+
+    /**
+     * 累加日汇总中的一个时长桶（login_duration_rollup 的一行）
+     */
+    public LoginStatsAccumulator addDurationBucket(int bucket, long sessionCount) {
+        durations.add(bucket, sessionCount);
+        return this;
+    }
+
+    /**
+     * 累加一条原始会话，logoutTime 为 null 表示仍在线
+     */
+    public LoginStatsAccumulator addSession(LocalDateTime loginTime, LocalDateTime logoutTime) {
+        totalSessions++;
+        offerLastLogin(loginTime);
+        if (logoutTime == null) {
+            activeSessions++;
+            return this;
+        }
+        long minutes = sessionMinutes(loginTime, logoutTime);
+        completedSessions++;
+        totalMinutes += minutes;
+        durations.add(sessionSeconds(loginTime, logoutTime));
+        offerLongest(minutes, loginTime.toLocalDate());
+        return this;
+    }
+
+    /**
+     * 单条会话时长（整分钟，向下取整），与汇总任务中 FLOOR(EXTRACT(EPOCH ...) / 60) 的口径一致
+     */
+    public static long sessionMinutes(LocalDateTime loginTime, LocalDateTime logoutTime) {
+        return Duration.between(loginTime, logoutTime).toMinutes();
+    }
+
+    /**
+     * 单条会话时长（整秒，向下取整），与时长分桶中 FLOOR(EXTRACT(EPOCH ...)) 的口径一致
+     */
+    public static long sessionSeconds(LocalDateTime loginTime, LocalDateTime logoutTime) {
+        return Duration.between(loginTime, logoutTime).getSeconds();
+    }
+
+    // 时长相同时取较早的日期，使结果与累加顺序无关
+    private void offerLongest(long minutes, LocalDate day) {
+        if (minutes > maxSessionMinutes
+                || minutes == maxSessionMinutes && longestSessionDate != null && day.isBefore(longestSessionDate)) {
+            maxSessionMinutes = minutes;
+            longestSessionDate = day;
+        }
+    }
+
+    private void offerLastLogin(LocalDateTime loginTime) {
+        if (loginTime != null && (lastLoginTime == null || loginTime.isAfter(lastLoginTime))) {
+            lastLoginTime = loginTime;
+        }
+    }
+
+    /**
+     * 输出统计结果（键与 LoginInfoService.getUserLoginStatistics 的返回一致，不含用户信息）
+     */
+    public Map<String, Object> toStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        double totalOnlineHours = totalMinutes / 60.0;
+        double averageSessionHours = completedSessions > 0 ? totalOnlineHours / completedSessions : 0;
+
+        stats.put("totalSessions", totalSessions);
+        stats.put("completedSessions", completedSessions);
+        stats.put("activeSessions", activeSessions);
+        stats.put("totalOnlineHours", Math.round(totalOnlineHours * 100.0) / 100.0);
+        stats.put("averageSessionHours", Math.round(averageSessionHours * 100.0) / 100.0);
+        stats.put("lastLoginTime", lastLoginTime);
+        if (completedSessions > 0) {
+            stats.put("longestSessionHours", Math.round(maxSessionMinutes / 60.0 * 100.0) / 100.0);
+            stats.put("longestSessionDate", longestSessionDate);
+            durations.putPercentiles(stats, "session");
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,45 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.telecom_system.dto.OnlineSession;
+
+/**
+ * 在线会话表：账号 -> 登录时间
+ * 由 recordLogin / recordLogout / forceLogout 维护，替代对 login_info 的未下线会话扫描。
+ * 实现由 telecom.online-registry.mode 选择：redis（多节点共享，默认）或 local（单节点进程内）
+ */
+public interface OnlineSessionRegistry {
+
+    /**
+     * 标记上线；账号已在线时不覆盖，返回已有会话的登录时间，否则返回 null
+     */
+    LocalDateTime open(Integer accountId, LocalDateTime loginTime);
+
+    /**
+     * 标记下线，返回被关闭会话的登录时间；账号不在线时返回 null
+     */
+    LocalDateTime close(Integer accountId);
+
+    boolean isOnline(Integer accountId);
+
+    LocalDateTime loginTime(Integer accountId);
+
+    int count();
+
+    /**
+     * 当前在线会话快照，按登录时间排序
+     */
+    List<OnlineSession> snapshot();
+
+    /**
+     * 登录时间不早于 since 的在线会话，按登录时间排序
+     */
+    List<OnlineSession> onlineSince(LocalDateTime since);
+
+    /**
+     * 使账号在所有节点上的 Web 会话失效（强制下线）
+     */
+    void broadcastForceLogout(Integer accountId);
+}
@@ -0,0 +1,176 @@
+package com.telecom_system.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telecom_system.entity.Package;
+import com.telecom_system.repository.PackageRepository;
+
+/**
+ * 进程内套餐目录（写时复制快照）
+ *
+ * package_info 极少变化，套餐读取全部走内存：快照为不可变数组，按 (套餐ID - 最小ID) 直接下标访问
+ * （ID 跨度超过 DENSE_SPAN 时改为在有序 ID 数组上二分查找），INTERVAL 时长预先解析为秒。
+ * 套餐增删改在事务提交后重新加载并整体替换快照，同时经发布/订阅通知其他节点重新加载；
+ * 另按 refresh-interval-ms 定时重载，防止通知丢失或直接改库后长期不一致。
+ */
+@Service
+public class PackageCatalog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackageCatalog.class);
+
+    private static final ChannelTopic CHANGED_TOPIC = new ChannelTopic("telecom:packages:changed");
+
+    // ID 跨度不超过该值时按下标直接访问
+    static final int DENSE_SPAN = 4096;
+
+    /**
+     * 套餐条目（不可变）；durationSeconds 与 Package.getDurationSeconds 口径一致
+     */
+    public record Entry(int id, String duration, BigDecimal cost, long durationSeconds) {
+
+        static Entry of(Package packageInfo) {
+            return new Entry(packageInfo.getId(), packageInfo.getDuration(), packageInfo.getCost(),
+                    packageInfo.getDurationSeconds());
+        }
+
+        /**
+         * 转为实体副本（供视图与接口返回，修改副本不影响目录）
+         */
+        public Package toPackage() {
+            return new Package(id, duration, cost);
+        }
+    }
+
+    /**
+     * 某一时刻的全部套餐，创建后不再修改
+     */
+    static final class Snapshot {
+        // 按 ID 升序
+        final List<Entry> entries;
+        private final int minId;
+        // 稠密时按 id - minId 下标存放（空位为 null），否则为 null
+        private final Entry[] dense;
+        // 稀疏时的有序 ID，与 entries 一一对应
+        private final int[] ids;
+
+        Snapshot(List<Entry> sorted) {
+            this.entries = List.copyOf(sorted);
+            this.minId = sorted.isEmpty() ? 0 : sorted.getFirst().id();
+            long span = sorted.isEmpty() ? 0 : (long) sorted.getLast().id() - minId + 1;
+            if (span <= DENSE_SPAN) {
+                this.dense = new Entry[(int) span];
+                for (Entry entry : sorted) {
+                    dense[entry.id() - minId] = entry;
+                }
+                this.ids = null;
+            } else {
+                this.dense = null;
+                this.ids = sorted.stream().mapToInt(Entry::id).toArray();
+            }
+        }
+
+        Entry get(int id) {
+            if (dense != null) {
+                long index = (long) id - minId;
+                return index >= 0 && index < dense.length ? dense[(int) index] : null;
+            }
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? entries.get(index) : null;
+        }
+    }
+
+    private final PackageRepository packageRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate readTransaction;
+    private volatile Snapshot snapshot;
+
+    public PackageCatalog(PackageRepository packageRepository,
+                          PlatformTransactionManager transactionManager,
+                          StringRedisTemplate redisTemplate,
+                          RedisMessageListenerContainer listenerContainer) {
+        this.packageRepository = packageRepository;
+        this.redisTemplate = redisTemplate;
+        // 提交回调中调用时原事务已结束，需在新的只读事务中读取
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        listenerContainer.addMessageListener((message, pattern) -> refresh(), CHANGED_TOPIC);
+    }
+
+    /**
+     * 全部套餐（按 ID 升序，不可修改）
+     */
+    public List<Entry> all() {
+        return snapshot().entries;
+    }
+
+    public Optional<Entry> find(Integer id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(snapshot().get(id));
+    }
+
+    public int size() {
+        return snapshot().entries.size();
+    }
+
+    /**
+     * 套餐已变更：当前事务提交后重新加载本节点的快照，并通知其他节点重新加载
+     */
+    public void changed() {
+        AfterCommit.run(() -> {
+            refresh();
+            try {
+                redisTemplate.convertAndSend(CHANGED_TOPIC.getTopic(), "changed");
+            } catch (Exception e) {
+                LOGGER.warn("[PACKAGE_CATALOG] 广播套餐变更失败，其他节点将在定时重载后更新: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 启动时及定时重新加载；失败时继续使用现有快照
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${telecom.package-catalog.refresh-interval-ms:300000}",
+               initialDelayString = "${telecom.package-catalog.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            LOGGER.warn("[PACKAGE_CATALOG] 重新加载套餐目录失败，继续使用现有快照: {}", e.getMessage());
+        }
+    }
+
+    // 尚未加载（启动完成前的请求）时同步加载
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload();
+    }
+
+    // 串行执行：后开始的加载读到的数据不早于先开始的，快照不会被旧数据覆盖
+    private synchronized Snapshot reload() {
+        List<Entry> entries = readTransaction.execute(status -> packageRepository.findAll(Sort.by("id")).stream()
+                .map(Entry::of)
+                .toList());
+        Snapshot fresh = new Snapshot(entries);
+        snapshot = fresh;
+        LOGGER.debug("[PACKAGE_CATALOG] 套餐目录已加载：{} 个套餐", entries.size());
+        return fresh;
+    }
+}
@@ -3,8 +3,10 @@ package com.telecom_system.service;
 import com.telecom_system.entity.Package;
 import com.telecom_system.repository.PackageRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -15,24 +17,35 @@ import java.util.stream.Collectors;
 public class PackageService {
     
     private final PackageRepository packageRepository;
+    private final PackageCatalog packageCatalog;
     
-    public PackageService(PackageRepository packageRepository) {
+    public PackageService(PackageRepository packageRepository, PackageCatalog packageCatalog) {
         this.packageRepository = packageRepository;
+        this.packageCatalog = packageCatalog;
     }
     
+    /**
+     * 全部套餐：读取内存中的套餐目录（不开启事务，不占用数据库连接）
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Package> findAllPackages() {
-        return packageRepository.findAll();
+        return packageCatalog.all().stream()
+                .map(PackageCatalog.Entry::toPackage)
+                .toList();
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<Package> findPackageById(Integer id) {
-        return packageRepository.findById(id);
+        return packageCatalog.find(id).map(PackageCatalog.Entry::toPackage);
     }
     
     public Package createPackage(Package Package) {
         if (packageRepository.existsById(Package.getId())) {
             throw new RuntimeException("套餐ID已存在: " + Package.getId());
         }
-        return packageRepository.save(Package);
+        Package saved = packageRepository.save(Package);
+        packageCatalog.changed();
+        return saved;
     }
     
     public Package updatePackage(Integer id, Package Package) {
@@ -44,7 +57,9 @@ public class PackageService {
                     if (Package.getCost() != null) {
                         existingPackage.setCost(Package.getCost());
                     }
-                    return packageRepository.save(existingPackage);
+                    Package saved = packageRepository.save(existingPackage);
+                    packageCatalog.changed();
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("套餐不存在: " + id));
     }
@@ -54,10 +69,17 @@ public class PackageService {
             throw new RuntimeException("套餐不存在: " + id);
         }
         packageRepository.deleteById(id);
+        packageCatalog.changed();
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<Package> findPackagesByPriceRange(Double minPrice, Double maxPrice) {
-        return packageRepository.findByCostBetween(minPrice, maxPrice);
+        BigDecimal min = BigDecimal.valueOf(minPrice);
+        BigDecimal max = BigDecimal.valueOf(maxPrice);
+        return packageCatalog.all().stream()
+                .filter(entry -> entry.cost().compareTo(min) >= 0 && entry.cost().compareTo(max) <= 0)
+                .map(PackageCatalog.Entry::toPackage)
+                .toList();
     }
     
     public List<Map<String, Object>> getPopularPackages() {
@@ -0,0 +1,259 @@
+package com.telecom_system.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.dto.OnlineSession;
+import com.telecom_system.repository.LoginInfoRepository;
+
+/**
+ * 基于 Redis 的在线会话表，供多节点共享
+ *
+ * 有序集合 {telecom:online}:sessions 保存在线账号，分值为登录时间（毫秒时间戳），
+ * 支持计数与"某时刻之后上线"的范围查询；每个账号另有哈希 {telecom:online}:session:{id}
+ * 保存精确的登录时间与所在节点。两者由 Lua 脚本原子维护（键使用同一 hash tag，兼容集群）。
+ *
+ * 强制下线通过频道 telecom:online:force-logout 广播，各节点使本地的 Web 会话失效。
+ * 后台对账以 login_info 为准修复 Redis 数据丢失或节点崩溃造成的偏差。
+ */
+@Service
+@ConditionalOnProperty(name = "telecom.online-registry.mode", havingValue = "redis", matchIfMissing = true)
+public class RedisOnlineSessionRegistry implements OnlineSessionRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisOnlineSessionRegistry.class);
+
+    private static final String SESSIONS_KEY = "{telecom:online}:sessions";
+    private static final String SESSION_KEY_PREFIX = "{telecom:online}:session:";
+    private static final ChannelTopic FORCE_LOGOUT_TOPIC = new ChannelTopic("telecom:online:force-logout");
+
+    // 上线：账号已在线时返回已有登录时间，否则写入有序集合与哈希
+    private static final RedisScript<String> OPEN_SCRIPT = new DefaultRedisScript<>("""
+        local existing = redis.call('HGET', KEYS[2], 'loginTime')
+        if existing then
+            return existing
+        end
+        redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+        redis.call('HSET', KEYS[2], 'loginTime', ARGV[3], 'node', ARGV[4])
+        return false
+        """, String.class);
+
+    // 下线：ARGV[2] 非空时仅当分值（登录时间）一致才删除，供对账使用，避免误删期间重新登录的会话
+    private static final RedisScript<String> CLOSE_SCRIPT = new DefaultRedisScript<>("""
+        local score = redis.call('ZSCORE', KEYS[1], ARGV[1])
+        if ARGV[2] ~= '' and (not score or tonumber(score) ~= tonumber(ARGV[2])) then
+            return false
+        end
+        local existing = redis.call('HGET', KEYS[2], 'loginTime')
+        redis.call('ZREM', KEYS[1], ARGV[1])
+        redis.call('DEL', KEYS[2])
+        return existing
+        """, String.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final LoginInfoRepository loginInfoRepository;
+    private final UserSessionTracker userSessionTracker;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    // 上一轮对账发现的偏差：连续两轮一致才修复，避开异步写入器尚未落库的窗口
+    private Map<Integer, Long> pendingMissing = Map.of();
+    private Map<Integer, Long> pendingStale = Map.of();
+
+    public RedisOnlineSessionRegistry(StringRedisTemplate redisTemplate,
+                                      LoginInfoRepository loginInfoRepository,
+                                      UserSessionTracker userSessionTracker,
+                                      RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.loginInfoRepository = loginInfoRepository;
+        this.userSessionTracker = userSessionTracker;
+        listenerContainer.addMessageListener((message, pattern) -> onForceLogout(new String(message.getBody())),
+                FORCE_LOGOUT_TOPIC);
+    }
+
+    // ========== 会话维护 ==========
+
+    @Override
+    public LocalDateTime open(Integer accountId, LocalDateTime loginTime) {
+        String existing = redisTemplate.execute(OPEN_SCRIPT, List.of(SESSIONS_KEY, sessionKey(accountId)),
+                accountId.toString(), Long.toString(toMillis(loginTime)), loginTime.toString(), nodeId);
+        return existing == null ? null : LocalDateTime.parse(existing);
+    }
+
+    @Override
+    public LocalDateTime close(Integer accountId) {
+        return closeIfScore(accountId, "");
+    }
+
+    private LocalDateTime closeIfScore(Integer accountId, String expectedScore) {
+        String existing = redisTemplate.execute(CLOSE_SCRIPT, List.of(SESSIONS_KEY, sessionKey(accountId)),
+                accountId.toString(), expectedScore);
+        return existing == null ? null : LocalDateTime.parse(existing);
+    }
+
+    // ========== 查询 ==========
+
+    @Override
+    public boolean isOnline(Integer accountId) {
+        return redisTemplate.opsForZSet().score(SESSIONS_KEY, accountId.toString()) != null;
+    }
+
+    @Override
+    public LocalDateTime loginTime(Integer accountId) {
+        Object value = redisTemplate.opsForHash().get(sessionKey(accountId), "loginTime");
+        return value == null ? null : LocalDateTime.parse(value.toString());
+    }
+
+    @Override
+    public int count() {
+        Long size = redisTemplate.opsForZSet().zCard(SESSIONS_KEY);
+        return size == null ? 0 : size.intValue();
+    }
+
+    @Override
+    public List<OnlineSession> snapshot() {
+        return toSessions(redisTemplate.opsForZSet().rangeWithScores(SESSIONS_KEY, 0, -1));
+    }
+
+    @Override
+    public List<OnlineSession> onlineSince(LocalDateTime since) {
+        return toSessions(redisTemplate.opsForZSet()
+                .rangeByScoreWithScores(SESSIONS_KEY, toMillis(since), Double.POSITIVE_INFINITY));
+    }
+
+    // ========== 强制下线广播 ==========
+
+    @Override
+    public void broadcastForceLogout(Integer accountId) {
+        redisTemplate.convertAndSend(FORCE_LOGOUT_TOPIC.getTopic(), accountId.toString());
+    }
+
+    private void onForceLogout(String accountId) {
+        try {
+            int invalidated = userSessionTracker.invalidate(Integer.valueOf(accountId));
+            if (invalidated > 0) {
+                LOGGER.info("[ONLINE_REGISTRY] 强制下线 account={}，本节点失效会话 {} 个", accountId, invalidated);
+            }
+        } catch (NumberFormatException e) {
+            LOGGER.warn("[ONLINE_REGISTRY] 忽略无效的强制下线消息: {}", accountId);
+        }
+    }
+
+    // ========== 加载与对账 ==========
+
+    /**
+     * 启动时 Redis 中没有在线会话（首次部署、Redis 数据丢失）则直接从 login_info 加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            if (count() > 0) {
+                return;
+            }
+            int loaded = 0;
+            for (Map.Entry<Integer, LocalDateTime> e : openSessionsInDatabase().entrySet()) {
+                if (open(e.getKey(), e.getValue()) == null) {
+                    loaded++;
+                }
+            }
+            LOGGER.info("[ONLINE_REGISTRY] 已从 login_info 加载在线会话 {} 个", loaded);
+        } catch (Exception e) {
+            LOGGER.error("[ONLINE_REGISTRY] 加载在线会话失败，等待定时对账修复", e);
+        }
+    }
+
+    /**
+     * 定时对账：Redis 与 login_info 未下线会话的差异连续两轮存在时才修复。
+     * 登录/登出事件由异步写入器延迟落库，单轮差异可能只是尚未写入，不能据此修改。
+     */
+    @Scheduled(fixedDelayString = "${telecom.online-registry.reconcile-interval-ms:60000}",
+               initialDelayString = "${telecom.online-registry.reconcile-interval-ms:60000}")
+    public synchronized void reconcile() {
+        try {
+            Map<Integer, Long> inRedis = new HashMap<>();
+            for (OnlineSession s : snapshot()) {
+                inRedis.put(s.accountId(), toMillis(s.loginTime()));
+            }
+            Map<Integer, LocalDateTime> inDatabase = openSessionsInDatabase();
+
+            Map<Integer, Long> missing = new HashMap<>();
+            inDatabase.forEach((account, loginTime) -> {
+                if (!inRedis.containsKey(account)) {
+                    missing.put(account, toMillis(loginTime));
+                }
+            });
+            Map<Integer, Long> stale = new HashMap<>(inRedis);
+            stale.keySet().removeAll(inDatabase.keySet());
+
+            int added = 0;
+            int removed = 0;
+            for (Map.Entry<Integer, Long> e : missing.entrySet()) {
+                if (Objects.equals(pendingMissing.get(e.getKey()), e.getValue())
+                        && open(e.getKey(), inDatabase.get(e.getKey())) == null) {
+                    added++;
+                }
+            }
+            for (Map.Entry<Integer, Long> e : stale.entrySet()) {
+                if (Objects.equals(pendingStale.get(e.getKey()), e.getValue())
+                        && closeIfScore(e.getKey(), e.getValue().toString()) != null) {
+                    removed++;
+                }
+            }
+            pendingMissing = missing;
+            pendingStale = stale;
+            if (added + removed > 0) {
+                LOGGER.warn("[ONLINE_REGISTRY] 在线会话对账：补录 {} 个，清除 {} 个", added, removed);
+            }
+        } catch (Exception e) {
+            LOGGER.error("[ONLINE_REGISTRY] 在线会话对账失败", e);
+        }
+    }
+
+    private Map<Integer, LocalDateTime> openSessionsInDatabase() {
+        Map<Integer, LocalDateTime> sessions = new HashMap<>();
+        for (Object[] row : loginInfoRepository.findOpenSessionKeys()) {
+            // 同一账号存在多个未下线会话时保留最近的一个
+            sessions.merge((Integer) row[0], (LocalDateTime) row[1], (a, b) -> a.isAfter(b) ? a : b);
+        }
+        return sessions;
+    }
+
+    // ========== 工具方法 ==========
+
+    private static String sessionKey(Integer accountId) {
+        return SESSION_KEY_PREFIX + accountId;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static List<OnlineSession> toSessions(Set<TypedTuple<String>> tuples) {
+        if (tuples == null) {
+            return List.of();
+        }
+        return tuples.stream()
+                .map(t -> new OnlineSession(Integer.valueOf(t.getValue()),
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(t.getScore().longValue()), ZoneId.systemDefault())))
+                .toList();
+    }
+}
@@ -0,0 +1,28 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会话分析查询
+ * 实现由 telecom.session-analytics.mode 选择：sql（直接查询 login_info，默认）
+ * 或 columnar（进程内列式快照，并行计算）
+ */
+public interface SessionAnalytics {
+
+    /**
+     * 时间范围内的登录汇总；uniqueUsersExact 为 false 时去重人数为 HyperLogLog 估计值，
+     * mostActiveAccountId 在范围内没有登录时为 null
+     */
+    record RangeSummary(long totalLogins, long uniqueUsers, boolean uniqueUsersExact,
+                        Integer mostActiveAccountId, long mostActiveLoginCount) {}
+
+    /**
+     * 保留期内的会话总数
+     */
+    long sessionCount();
+
+    /**
+     * 登录时间位于 [start, end]（含两端）的会话汇总
+     */
+    RangeSummary summarize(LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,333 @@
+package com.telecom_system.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.telecom_system.event.SessionEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 登录/登出审计记录的异步批量写入器
+ *
+ * 请求线程只把会话事件放入有界队列即返回；后台线程按批次（batch-size）或
+ * 等待时间（linger-ms）取出事件，以 JDBC 批量语句写入 login_info，并同步更新用量台账。
+ * 队列满时请求线程最多阻塞 offer-timeout-ms，仍无空位则取得写入锁，把队列中更早的事件连同本事件
+ * 按顺序在请求线程内写库（背压）；后台线程从取出事件到写完整批都持有写入锁，因此同一账号的事件不会乱序。
+ * 数据库暂时不可用时整批退避重试而不丢弃，队列随之填满，请求线程转为同步写入并一同等待。
+ * 应用关闭时先停止接收再清空队列，保证已接收的事件全部落库。
+ */
+@Service
+public class SessionEventWriter implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionEventWriter.class);
+
+    // 登录：账号不存在未下线会话时插入新会话，并记录到用量台账
+    private static final String LOGIN_SQL = """
+        WITH opened AS (
+            INSERT INTO login_info (account_id, login_time)
+            SELECT CAST(? AS INT), CAST(? AS TIMESTAMPTZ)
+            WHERE NOT EXISTS (
+                SELECT 1 FROM login_info WHERE account_id = ? AND logout_time IS NULL)
+            ON CONFLICT DO NOTHING
+            RETURNING account_id, login_time)
+        UPDATE usage_ledger l SET open_session_start = o.login_time, updated_at = CURRENT_TIMESTAMP
+        FROM opened o
+        WHERE l.account_id = o.account_id
+        """;
+
+    // 登出：关闭账号全部未下线会话，并把属于当前套餐周期的时长累加到用量台账
+    private static final String LOGOUT_SQL = """
+        WITH closed AS (
+            UPDATE login_info SET logout_time = ?
+            WHERE account_id = ? AND logout_time IS NULL AND login_time <= ?
+            RETURNING account_id, login_time, logout_time)
+        UPDATE usage_ledger l SET
+            used_millis = l.used_millis + COALESCE((
+                SELECT SUM(EXTRACT(EPOCH FROM (c.logout_time - c.login_time)) * 1000)
+                FROM closed c
+                WHERE c.login_time >= l.package_start_time), 0)::BIGINT,
+            open_session_start = NULL,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE l.account_id = ?
+        """;
+
+    // 停止接收后，非约束类失败的最大尝试次数
+    static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<SessionEvent> queue;
+    // 取出并写入事件时持有（公平锁：后台线程逐批重复加锁，请求线程不会一直等不到）
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private final int batchSize;
+    private final long lingerMillis;
+    private final long offerTimeoutMillis;
+    private final long retryBackoffMillis;
+    private final long retryBackoffMaxMillis;
+
+    private final Timer flushTimer;
+    private final Counter writtenCounter;
+    private final Counter callerRunsCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public SessionEventWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${telecom.session-writer.queue-capacity:10000}") int queueCapacity,
+                              @Value("${telecom.session-writer.batch-size:200}") int batchSize,
+                              @Value("${telecom.session-writer.linger-ms:50}") long lingerMillis,
+                              @Value("${telecom.session-writer.offer-timeout-ms:100}") long offerTimeoutMillis,
+                              @Value("${telecom.session-writer.retry-backoff-ms:100}") long retryBackoffMillis,
+                              @Value("${telecom.session-writer.retry-backoff-max-ms:5000}") long retryBackoffMaxMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 调用线程同步写入时不加入业务事务，避免写入失败连带回滚
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.retryBackoffMillis = Math.max(1, retryBackoffMillis);
+        this.retryBackoffMaxMillis = Math.max(this.retryBackoffMillis, retryBackoffMaxMillis);
+
+        Gauge.builder("telecom.session.writer.queue.depth", queue, BlockingQueue::size)
+                .description("待写入的会话事件数")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("telecom.session.writer.flush")
+                .description("单批会话事件写库耗时")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.writtenCounter = meterRegistry.counter("telecom.session.writer.events", "result", "written");
+        this.callerRunsCounter = meterRegistry.counter("telecom.session.writer.events", "result", "caller_runs");
+        this.failedCounter = meterRegistry.counter("telecom.session.writer.events", "result", "failed");
+        this.retriedCounter = meterRegistry.counter("telecom.session.writer.retries");
+    }
+
+    /**
+     * 提交会话事件：队列满时在 offer-timeout-ms 内等待，超时（或已停止接收）则由调用线程按顺序写入
+     */
+    public void submit(SessionEvent event) {
+        try {
+            if (running && queue.offer(event, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        callerRunsCounter.increment();
+        drainAndFlush(event);
+    }
+
+    /**
+     * 在写入锁内写完队列中已有的事件，再写 event（为 null 时只清空队列）
+     */
+    private void drainAndFlush(SessionEvent event) {
+        writeLock.lock();
+        try {
+            List<SessionEvent> pending = new ArrayList<>(queue.size() + 1);
+            queue.drainTo(pending);
+            if (event != null) {
+                pending.add(event);
+            }
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                flush(pending.subList(from, Math.min(from + batchSize, pending.size())));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // ========== 后台写入线程 ==========
+
+    private void runLoop() {
+        List<SessionEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            writeLock.lock();
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // 已取出的事件照常写入；继续循环，直到停止且队列清空
+                Thread.interrupted();
+            } finally {
+                try {
+                    if (!batch.isEmpty()) {
+                        flush(batch);
+                    }
+                } finally {
+                    batch.clear();
+                    writeLock.unlock();
+                }
+            }
+        }
+    }
+
+    // 取出一批事件：凑满 batch-size 或自第一个事件起等待 linger-ms
+    private void collect(List<SessionEvent> batch) throws InterruptedException {
+        SessionEvent first = queue.poll(lingerMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                break;
+            }
+            SessionEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * 写入一批事件：按原始顺序把相邻的同类事件合并为一个 JDBC 批次，整批在同一事务内提交。
+     * 整批违反约束时（例如个别账号已被删除导致外键冲突）逐条重试，只丢弃违反约束的事件；
+     * 其余失败（连接断开、超时、死锁等）保留整批，退避后重试，期间队列积压由背压限流。
+     */
+    private void flush(List<SessionEvent> events) {
+        long start = System.nanoTime();
+        try {
+            writeWithRetry(events);
+            writtenCounter.increment(events.size());
+        } catch (DataIntegrityViolationException batchFailure) {
+            LOGGER.warn("[SESSION_WRITER] 批量写入违反约束，改为逐条写入: {}", batchFailure.getMessage());
+            for (SessionEvent event : events) {
+                try {
+                    writeWithRetry(List.of(event));
+                    writtenCounter.increment();
+                } catch (DataIntegrityViolationException e) {
+                    failedCounter.increment();
+                    LOGGER.error("[SESSION_WRITER] 会话事件违反约束，已丢弃: {}", event, e);
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 在一个事务内写入 events；违反约束时抛出，其他失败按 retry-backoff-ms 起指数退避后重试。
+     * 停止接收后最多再试 SHUTDOWN_ATTEMPTS 次，仍失败则丢弃，避免数据库不可用时关闭流程一直阻塞。
+     */
+    private void writeWithRetry(List<SessionEvent> events) {
+        long backoff = retryBackoffMillis;
+        boolean interrupted = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeInOrder(events));
+                    return;
+                } catch (DataIntegrityViolationException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    if (!running && attempt >= SHUTDOWN_ATTEMPTS) {
+                        failedCounter.increment(events.size());
+                        LOGGER.error("[SESSION_WRITER] 停止时写入仍失败，已丢弃 {} 个会话事件", events.size(), e);
+                        return;
+                    }
+                    retriedCounter.increment();
+                    LOGGER.warn("[SESSION_WRITER] 写入失败，{}ms 后第 {} 次重试: {}", backoff, attempt, e.getMessage());
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    // 已取出的事件不能因中断丢失：记下中断状态，写完后恢复
+                    interrupted = true;
+                }
+                backoff = Math.min(backoff * 2, retryBackoffMaxMillis);
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeInOrder(List<SessionEvent> events) {
+        int from = 0;
+        while (from < events.size()) {
+            SessionEvent.Type type = events.get(from).type();
+            int to = from;
+            while (to < events.size() && events.get(to).type() == type) {
+                to++;
+            }
+            List<SessionEvent> run = events.subList(from, to);
+            if (type == SessionEvent.Type.LOGIN) {
+                jdbcTemplate.batchUpdate(LOGIN_SQL, run.stream()
+                        .map(e -> new Object[] { e.accountId(), Timestamp.valueOf(e.time()), e.accountId() })
+                        .toList());
+            } else {
+                jdbcTemplate.batchUpdate(LOGOUT_SQL, run.stream()
+                        .map(e -> new Object[] { Timestamp.valueOf(e.time()), e.accountId(),
+                                Timestamp.valueOf(e.time()), e.accountId() })
+                        .toList());
+            }
+            from = to;
+        }
+    }
+
+    // ========== 生命周期 ==========
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "session-event-writer");
+        worker.start();
+    }
+
+    /**
+     * 停止接收新事件（之后的提交由调用线程同步写入），并等待队列清空
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 停止前最后一刻入队的事件由当前线程补写
+        drainAndFlush(null);
+        LOGGER.info("[SESSION_WRITER] 会话事件写入器已停止");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 阶段低于 Web 服务器：先于其启动、晚于其停止（不再有新请求后才清空队列）
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,130 @@
+package com.telecom_system.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving 频繁项草图：最多跟踪 capacity 个账号的带权计数
+ *
+ * 新账号在草图已满时替换计数最小的账号，并继承其计数作为误差上界（error），
+ * 因此每个被跟踪账号的真实值位于 [count - error, count] 内；
+ * 未被跟踪的账号真实值不超过 minCount()。非线程安全，由调用方同步。
+ */
+public class SpaceSaving {
+
+    /**
+     * 被跟踪的账号：count 为估计值（上界），error 为可能高估的量
+     */
+    public record Counter(int accountId, long count, long error) {}
+
+    private static final Comparator<Counter> ORDER =
+            Comparator.comparingLong(Counter::count).thenComparingInt(Counter::accountId);
+
+    private final int capacity;
+    private final Map<Integer, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> ordered = new TreeSet<>(ORDER);
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("草图容量必须大于 0");
+        }
+        this.capacity = capacity;
+    }
+
+    public void offer(int accountId, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        Counter current = counters.get(accountId);
+        Counter updated;
+        if (current != null) {
+            ordered.remove(current);
+            updated = new Counter(accountId, current.count() + weight, current.error());
+        } else if (counters.size() < capacity) {
+            updated = new Counter(accountId, weight, 0);
+        } else {
+            Counter evicted = ordered.pollFirst();
+            counters.remove(evicted.accountId());
+            updated = new Counter(accountId, evicted.count() + weight, evicted.count());
+        }
+        counters.put(accountId, updated);
+        ordered.add(updated);
+    }
+
+    /**
+     * 未被跟踪账号的计数上界：草图未满时为 0，否则为最小计数
+     */
+    public long minCount() {
+        return counters.size() < capacity ? 0 : ordered.first().count();
+    }
+
+    /**
+     * 按计数降序返回全部被跟踪账号
+     */
+    public List<Counter> counters() {
+        return new ArrayList<>(ordered.descendingSet());
+    }
+
+    // ========== 序列化（写入 Redis） ==========
+
+    /**
+     * 格式：minCount;account:count:error,account:count:error,...
+     */
+    public String serialize() {
+        StringBuilder sb = new StringBuilder().append(minCount()).append(';');
+        for (Counter c : ordered.descendingSet()) {
+            sb.append(c.accountId()).append(':').append(c.count()).append(':').append(c.error()).append(',');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解析 serialize 的结果，返回 (minCount, 被跟踪账号)
+     */
+    public static Summary parse(String value) {
+        int split = value.indexOf(';');
+        long minCount = Long.parseLong(value.substring(0, split));
+        List<Counter> counters = new ArrayList<>();
+        for (String item : value.substring(split + 1).split(",")) {
+            if (item.isEmpty()) {
+                continue;
+            }
+            String[] parts = item.split(":");
+            counters.add(new Counter(Integer.parseInt(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+        }
+        return new Summary(minCount, counters);
+    }
+
+    public record Summary(long minCount, List<Counter> counters) {}
+
+    /**
+     * 合并多个节点的草图：每个账号的上界为各节点上界之和（未跟踪该账号的节点计其 minCount），
+     * 下界为各节点 (count - error) 之和；按上界降序取前 n 个
+     */
+    public static List<Counter> mergeTop(List<Summary> summaries, int n) {
+        Map<Integer, long[]> bounds = new HashMap<>();
+        long totalMin = 0;
+        for (Summary summary : summaries) {
+            totalMin += summary.minCount();
+            for (Counter c : summary.counters()) {
+                long[] b = bounds.computeIfAbsent(c.accountId(), id -> new long[2]);
+                // 先减去该节点的 minCount，最后统一加回 totalMin
+                b[0] += c.count() - summary.minCount();
+                b[1] += c.count() - c.error();
+            }
+        }
+        long base = totalMin;
+        return bounds.entrySet().stream()
+                .map(e -> {
+                    long upper = e.getValue()[0] + base;
+                    return new Counter(e.getKey(), upper, upper - e.getValue()[1]);
+                })
+                .sorted(ORDER.reversed())
+                .limit(n)
+                .toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.repository.LoginInfoRepository;
+
+/**
+ * 基于 login_info 聚合查询的会话分析（默认实现）
+ */
+@Service
+@ConditionalOnProperty(name = "telecom.session-analytics.mode", havingValue = "sql", matchIfMissing = true)
+public class SqlSessionAnalytics implements SessionAnalytics {
+
+    private static final LocalTime LAST_SECOND = LocalTime.of(23, 59, 59);
+
+    private final LoginInfoRepository loginInfoRepository;
+    private final UniqueLoginCounter uniqueLoginCounter;
+
+    public SqlSessionAnalytics(LoginInfoRepository loginInfoRepository, UniqueLoginCounter uniqueLoginCounter) {
+        this.loginInfoRepository = loginInfoRepository;
+        this.uniqueLoginCounter = uniqueLoginCounter;
+    }
+
+    @Override
+    public long sessionCount() {
+        return loginInfoRepository.count();
+    }
+
+    @Override
+    public RangeSummary summarize(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime until = exclusiveEnd(end);
+        // BETWEEN 为闭区间：上界取开区间上界的前 1 微秒（数据库时间精度）
+        LocalDateTime last = until.minus(1, ChronoUnit.MICROS);
+        long totalLogins = loginInfoRepository.countByLoginTimeBetween(start, last);
+        // 整天范围为 [零点, 次日零点)，去重人数走每日 HLL
+        UniqueLoginCounter.Estimate uniqueUsers = uniqueLoginCounter.count(start, until, false);
+        List<Object[]> mostActive = loginInfoRepository.findMostActiveAccount(start, last);
+        if (mostActive.isEmpty()) {
+            return new RangeSummary(totalLogins, uniqueUsers.count(), uniqueUsers.exact(), null, 0);
+        }
+        return new RangeSummary(totalLogins, uniqueUsers.count(), uniqueUsers.exact(),
+                ((Number) mostActive.get(0)[0]).intValue(), ((Number) mostActive.get(0)[1]).longValue());
+    }
+
+    /**
+     * 闭区间结束时间对应的开区间上界：落在当天最后一秒内（如 23:59:59）时视为整天，对齐到次日零点；
+     * 否则加 1 微秒
+     */
+    static LocalDateTime exclusiveEnd(LocalDateTime end) {
+        if (!end.toLocalTime().isBefore(LAST_SECOND)) {
+            return end.toLocalDate().plusDays(1).atStartOfDay();
+        }
+        return end.plus(1, ChronoUnit.MICROS);
+    }
+}
@@ -1,19 +1,20 @@
 package com.telecom_system.service;
 
-import com.telecom_system.entity.Admin;
-import com.telecom_system.entity.User;
-import com.telecom_system.repository.LoginInfoRepository;
-import com.telecom_system.repository.PackageRepository;
-import com.telecom_system.repository.UserRepository;
-import com.telecom_system.repository.AdminRepository;
-import com.telecom_system.repository.StatisticsRepository;
-import org.springframework.cache.annotation.Cacheable;
+import com.telecom_system.cache.RefreshAheadCache;
+import com.telecom_system.dto.StatisticsSnapshot;
+import com.telecom_system.repository.UserActivityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,61 +24,87 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class StatisticsService {
     
-    private final UserRepository userRepository;
-    private final AdminRepository adminRepository;
-    private final PackageRepository packageRepository;
-    private final LoginInfoRepository loginInfoRepository;
-    private final StatisticsRepository statisticsRepository;
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsService.class);
     
-    public StatisticsService(UserRepository userRepository, 
-                            AdminRepository adminRepository,
-                           PackageRepository packageRepository,
-                           LoginInfoRepository loginInfoRepository,
-                           StatisticsRepository statisticsRepository) {
-        this.userRepository = userRepository;
-        this.adminRepository = adminRepository;
-        this.packageRepository = packageRepository;
-        this.loginInfoRepository = loginInfoRepository;
-        this.statisticsRepository = statisticsRepository;
+    /** 流量统计默认统计的天数（含当天） */
+    public static final int DEFAULT_TRAFFIC_DAYS = 30;
+    
+    /** 用户活跃度每页默认条数与上限（超过上限需用 offset 分页） */
+    public static final int DEFAULT_ACTIVITY_LIMIT = 100;
+    public static final int MAX_ACTIVITY_LIMIT = 1000;
+    
+    private final PackageCatalog packageCatalog;
+    private final OnlineSessionRegistry onlineSessionRegistry;
+    private final LoginInfoPartitionService loginInfoPartitionService;
+    private final UserActivityRepository userActivityRepository;
+    private final ConcurrencyHistogram concurrencyHistogram;
+    private final LiveAggregateStore liveAggregateStore;
+    private final UniqueLoginCounter uniqueLoginCounter;
+    private final LoginRollupService loginRollupService;
+    private final TopUsersTracker topUsersTracker;
+    private final SessionAnalytics sessionAnalytics;
+    private final StatisticsViewService statisticsViewService;
+    private final RefreshAheadCache refreshAheadCache;
+    
+    public StatisticsService(PackageCatalog packageCatalog,
+                           OnlineSessionRegistry onlineSessionRegistry,
+                           LoginInfoPartitionService loginInfoPartitionService,
+                           UserActivityRepository userActivityRepository,
+                           ConcurrencyHistogram concurrencyHistogram,
+                           LiveAggregateStore liveAggregateStore,
+                           UniqueLoginCounter uniqueLoginCounter,
+                           LoginRollupService loginRollupService,
+                           TopUsersTracker topUsersTracker,
+                           SessionAnalytics sessionAnalytics,
+                           StatisticsViewService statisticsViewService,
+                           RefreshAheadCache refreshAheadCache) {
+        this.packageCatalog = packageCatalog;
+        this.onlineSessionRegistry = onlineSessionRegistry;
+        this.loginInfoPartitionService = loginInfoPartitionService;
+        this.userActivityRepository = userActivityRepository;
+        this.concurrencyHistogram = concurrencyHistogram;
+        this.liveAggregateStore = liveAggregateStore;
+        this.uniqueLoginCounter = uniqueLoginCounter;
+        this.loginRollupService = loginRollupService;
+        this.topUsersTracker = topUsersTracker;
+        this.sessionAnalytics = sessionAnalytics;
+        this.statisticsViewService = statisticsViewService;
+        this.refreshAheadCache = refreshAheadCache;
     }
     
     /**
      * 获取系统总体统计信息
+     * 计数与余额读取实时聚合计数，不扫描 user_info / admin_info
      */
-    @Cacheable(value = "systemStatistics", key = "'all'")
     public Map<String, Object> getSystemStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
         // 用户统计
-        List<User> allUsers = userRepository.findAll();
-        List<Admin> allAdmins = adminRepository.findAll();
-        long totalUsers = allUsers.size() + allAdmins.size();
+        LiveAggregateStore.Totals totals = liveAggregateStore.totals();
+        long totalUsers = totals.users() + totals.admins();
         
         // 余额统计
-        BigDecimal totalBalance = allUsers.stream()
-                .map(User::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        // 修复：使用新的 RoundingMode 枚举
+        BigDecimal totalBalance = totals.totalBalance();
         BigDecimal averageBalance = totalUsers > 0 ? 
                 totalBalance.divide(BigDecimal.valueOf(totalUsers), 2, RoundingMode.HALF_UP) : 
                 BigDecimal.ZERO;
         
         // 套餐统计
-        long activePackages = packageRepository.count();
+        long activePackages = packageCatalog.size();
         
-        // 在线用户统计
-        List<Object> onlineUsers = loginInfoRepository.findByLogoutTimeIsNull().stream()
-                .map(login -> {
+        // 在线用户统计（在线会话表快照）
+        List<Object> onlineUsers = onlineSessionRegistry.snapshot().stream()
+                .map(session -> {
                     Map<String, Object> onlineUser = new HashMap<>();
-                    onlineUser.put("accountId", login.getAccountId());
-                    onlineUser.put("loginTime", login.getLoginTime());
+                    onlineUser.put("accountId", session.accountId());
+                    onlineUser.put("loginTime", session.loginTime());
                     return onlineUser;
                 })
                 .collect(Collectors.toList());
         
         stats.put("totalUsers", totalUsers);
-        stats.put("Users", allUsers.size());
-        stats.put("Admins", allAdmins.size());
+        stats.put("Users", totals.users());
+        stats.put("Admins", totals.admins());
         stats.put("totalBalance", totalBalance);
         stats.put("averageBalance", averageBalance);
         stats.put("activePackages", activePackages);
@@ -90,162 +117,203 @@ public class StatisticsService {
     
     /**
      * 获取套餐使用统计
+     * 订阅人数直接取自实时聚合计数（内存读取，不经缓存，人数随用户变更即时更新），按人数降序
      */
-    @Cacheable(value = "packageUsageStatistics", key = "'all'")
     public List<Map<String, Object>> getPackageUsageStatistics() {
-        List<Object[]> results = packageRepository.findPopularPackages();
+        Map<Integer, Long> subscribers = liveAggregateStore.subscribers();
+        long totalUsers = liveAggregateStore.userCount();
         
-        return results.stream()
-                .map(result -> {
+        return packageCatalog.all().stream()
+                .map(packageInfo -> {
                     Map<String, Object> packageStats = new HashMap<>();
+                    long userCount = subscribers.getOrDefault(packageInfo.id(), 0L);
                     
-                    // 这里需要根据实际的 PackageInfo 结构调整
-                    Object packageObj = result[0];
-                    Long userCount = (Long) result[1];
-                    
-                    if (packageObj instanceof com.telecom_system.entity.Package) {
-                        com.telecom_system.entity.Package packageInfo = 
-                            (com.telecom_system.entity.Package) packageObj;
-                        packageStats.put("packageId", packageInfo.getId());
-                        packageStats.put("duration", packageInfo.getDuration());
-                        packageStats.put("cost", packageInfo.getCost());
-                    } else {
-                        // 如果是数组形式
-                        Object[] packageArray = (Object[]) packageObj;
-                        packageStats.put("packageId", packageArray[0]);
-                        packageStats.put("duration", packageArray[1]);
-                        packageStats.put("cost", packageArray[2]);
-                    }
-                    
+                    packageStats.put("packageId", packageInfo.id());
+                    packageStats.put("duration", packageInfo.duration());
+                    packageStats.put("cost", packageInfo.cost());
                     packageStats.put("userCount", userCount);
                     
                     // 计算使用率
-                    long totalUsers = userRepository.count();
-                    double usageRate = totalUsers > 0 ? (userCount.doubleValue() / totalUsers) * 100 : 0;
+                    double usageRate = totalUsers > 0 ? ((double) userCount / totalUsers) * 100 : 0;
                     packageStats.put("usageRate", Math.round(usageRate * 100.0) / 100.0);
                     
                     return packageStats;
                 })
+                .sorted(Comparator.comparingLong((Map<String, Object> stats) -> (Long) stats.get("userCount")).reversed())
                 .collect(Collectors.toList());
     }
     
     /**
-     * 获取用户活跃度统计
+     * 保持仪表盘默认统计的缓存常热：启动后立即执行一次，之后按 warm-interval-ms 读取，
+     * 缺失时同步计算，临近过期时由 RefreshAheadCache 在后台刷新
      */
-    public List<Map<String, Object>> getUserActivityStatistics() {
-        List<User> allUsers = userRepository.findAll();
-        
-        return allUsers.stream()
-                .map(user -> {
-                    Map<String, Object> activityStats = new HashMap<>();
-                    
-                    // 获取用户的登录记录
-                    List<com.telecom_system.entity.LoginInfo> userLogins = 
-                        loginInfoRepository.findByIdAccountId(user.getAccount());
-                    
-                    // 计算活跃度指标
-                    long loginCount = userLogins.size();
-                    
-                    double totalOnlineHours = userLogins.stream()
-                            .filter(login -> login.getLogoutTime() != null)
-                            .mapToDouble(login -> {
-                                java.time.Duration duration = java.time.Duration.between(
-                                    login.getLoginTime(), login.getLogoutTime());
-                                return duration.toMinutes() / 60.0;
-                            })
-                            .sum();
-                    
-                    // 计算最后登录时间
-                    java.util.Optional<LocalDateTime> lastLogin = userLogins.stream()
-                            .map(com.telecom_system.entity.LoginInfo::getLoginTime)
-                            .max(LocalDateTime::compareTo);
-                    
-                    // 活跃度评级
-                    String activityLevel;
-                    if (loginCount == 0) {
-                        activityLevel = "未活跃";
-                    } else if (loginCount <= 5) {
-                        activityLevel = "低活跃";
-                    } else if (loginCount <= 20) {
-                        activityLevel = "中活跃";
-                    } else {
-                        activityLevel = "高活跃";
-                    }
-                    
-                    activityStats.put("accountId", user.getAccount());
-                    activityStats.put("userName", user.getName());
-                    activityStats.put("loginCount", loginCount);
-                    activityStats.put("totalOnlineHours", Math.round(totalOnlineHours * 100.0) / 100.0);
-                    activityStats.put("lastLoginTime", lastLogin.orElse(null));
-                    activityStats.put("activityLevel", activityLevel);
-                    activityStats.put("balance", user.getBalance());
-                    activityStats.put("packageId", user.getPackageId());
-                    
-                    return activityStats;
-                })
-                .sorted((a, b) -> Long.compare(
-                    (Long) b.get("loginCount"), 
-                    (Long) a.get("loginCount")
-                ))
-                .collect(Collectors.toList());
+    @Scheduled(fixedDelayString = "${telecom.cache.refresh-ahead.warm-interval-ms:240000}")
+    public void warmDashboardCaches() {
+        try {
+            LocalDate today = LocalDate.now();
+            getHourlyOnlineUserStatistics(today.minusDays(DEFAULT_TRAFFIC_DAYS - 1), today);
+        } catch (Exception e) {
+            LOGGER.warn("[STATISTICS] 预热仪表盘缓存失败: {}", e.getMessage());
+        }
     }
     
-    
+    /**
+     * 获取用户活跃度统计
+     * 单条聚合查询完成计数、时长与评级；sort 为排序字段（默认 loginCount），
+     * limit 为空时取 DEFAULT_ACTIVITY_LIMIT 条，最多 MAX_ACTIVITY_LIMIT 条，其余按 offset 翻页。
+     * 默认读取物化视图，live 为 true 时实时聚合 login_info
+     */
+    public StatisticsSnapshot<List<Map<String, Object>>> getUserActivityStatistics(String sort, String direction,
+                                                                                Integer limit, int offset,
+                                                                                boolean live) {
+        int pageSize = limit != null ? limit : DEFAULT_ACTIVITY_LIMIT;
+        if (pageSize < 1 || pageSize > MAX_ACTIVITY_LIMIT || offset < 0) {
+            throw new IllegalArgumentException("分页参数无效：limit 须在 1 到 " + MAX_ACTIVITY_LIMIT + " 之间，offset 不能为负");
+        }
+        if (!"desc".equalsIgnoreCase(direction) && !"asc".equalsIgnoreCase(direction)) {
+            throw new IllegalArgumentException("排序方式只能是 asc 或 desc");
+        }
+        UserActivityRepository.SortField sortField = UserActivityRepository.SortField.of(sort);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        if (!live) {
+            LocalDateTime refreshedAt = statisticsViewService.refreshedAt(StatisticsViewService.View.USER_ACTIVITY);
+            if (refreshedAt != null) {
+                return new StatisticsSnapshot<>(
+                        userActivityRepository.findActivityFromView(sortField, descending, pageSize, offset), refreshedAt);
+            }
+        }
+        LocalDateTime asOf = LocalDateTime.now();
+        return new StatisticsSnapshot<>(userActivityRepository.findActivity(loginInfoPartitionService.queryHorizon(),
+                sortField, descending, pageSize, offset), asOf);
+    }
     
     /**
-     * 获取实时数据统计
+     * 获取实时数据统计（在线人数、活跃用户与系统规模三部分的合并）
      */
     public Map<String, Object> getRealtimeStatistics() {
         Map<String, Object> realtimeStats = new HashMap<>();
-        
-        // 当前在线用户
-        List<com.telecom_system.entity.LoginInfo> onlineSessions = 
-            loginInfoRepository.findByLogoutTimeIsNull();
-        int onlineUsers = onlineSessions.size();
-        
-        // 今日登录用户
-        LocalDateTime todayStart = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime todayEnd = LocalDateTime.now().withHour(23).withMinute(59).withSecond(59);
-        List<com.telecom_system.entity.LoginInfo> todayLogins = 
-            loginInfoRepository.findByIdLoginTimeBetween(todayStart, todayEnd);
-        int todayLoginUsers = (int) todayLogins.stream()
-                .map(com.telecom_system.entity.LoginInfo::getAccountId)
-                .distinct()
-                .count();
-        
-        // 系统负载信息
-        long totalUsers = userRepository.count();
-        long totalPackages = packageRepository.count();
-        long totalLoginRecords = loginInfoRepository.count();
-        
-        realtimeStats.put("onlineUsers", onlineUsers);
-        realtimeStats.put("todayLoginUsers", todayLoginUsers);
-        realtimeStats.put("totalUsers", totalUsers);
-        realtimeStats.put("totalPackages", totalPackages);
-        realtimeStats.put("totalLoginRecords", totalLoginRecords);
+        realtimeStats.putAll(getOnlineStatistics());
+        realtimeStats.putAll(getActiveUserStatistics());
+        realtimeStats.putAll(getSystemLoadStatistics());
         realtimeStats.put("serverTime", LocalDateTime.now());
         realtimeStats.put("systemStatus", "正常运行");
-        
         return realtimeStats;
     }
     
+    /**
+     * 当前在线用户数
+     */
+    public Map<String, Object> getOnlineStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("onlineUsers", onlineSessionRegistry.count());
+        return stats;
+    }
+    
+    /**
+     * 今日登录用户及周活、月活（HyperLogLog 估计）
+     */
+    public Map<String, Object> getActiveUserStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("todayLoginUsers", uniqueLoginCounter.activeUsers(1).count());
+        stats.put("weeklyActiveUsers", uniqueLoginCounter.activeUsers(7).count());
+        stats.put("monthlyActiveUsers", uniqueLoginCounter.activeUsers(30).count());
+        stats.put("activeUsersStandardError", UniqueLoginCounter.STANDARD_ERROR);
+        return stats;
+    }
+    
+    /**
+     * 系统规模：用户数、套餐数与保留期内的登录记录数
+     */
+    public Map<String, Object> getSystemLoadStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", liveAggregateStore.userCount());
+        stats.put("totalPackages", packageCatalog.size());
+        stats.put("totalLoginRecords", sessionAnalytics.sessionCount());
+        return stats;
+    }
+    
+    /**
+     * 获取 [startDate, endDate] 内登录过的去重用户数
+     * 默认为 HyperLogLog 估计值（标准误差 0.81%），exact 为 true 时精确统计
+     */
+    public Map<String, Object> getUniqueLoginUsers(LocalDate startDate, LocalDate endDate, boolean exact) {
+        UniqueLoginCounter.Estimate estimate = uniqueLoginCounter.count(startDate, endDate, exact);
+        Map<String, Object> result = new HashMap<>();
+        result.put("startDate", startDate);
+        result.put("endDate", endDate);
+        result.put("uniqueUsers", estimate.count());
+        result.put("exact", estimate.exact());
+        result.put("standardError", estimate.exact() ? 0.0 : UniqueLoginCounter.STANDARD_ERROR);
+        return result;
+    }
+    
+    /**
+     * 获取 [startDate, endDate] 内每天及整个范围的会话时长分位数（p50 / p95 / p99，秒）
+     * 按登录日期统计已结束的会话；由每日时长草图合并得到，相对误差 1%
+     */
+    public Map<String, Object> getSessionDurationStatistics(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("结束日期不能早于开始日期");
+        }
+        DurationSketch total = new DurationSketch();
+        List<Map<String, Object>> daily = new ArrayList<>();
+        loginRollupService.systemDurations(startDate, endDate).forEach((day, sketch) -> {
+            total.merge(sketch);
+            Map<String, Object> dayStats = new HashMap<>();
+            dayStats.put("date", day);
+            dayStats.put("completedSessions", sketch.count());
+            sketch.putPercentiles(dayStats, "session");
+            daily.add(dayStats);
+        });
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("startDate", startDate);
+        result.put("endDate", endDate);
+        result.put("completedSessions", total.count());
+        total.putPercentiles(result, "session");
+        result.put("relativeAccuracy", DurationSketch.RELATIVE_ACCURACY);
+        result.put("daily", daily);
+        return result;
+    }
+    
+    /**
+     * 获取窗口内登录次数或在线时长最多的前 n 个用户（流式 Top-K 草图，不查询 login_info）
+     * count 为估计值，真实值位于 [count - error, count]；offset 为 0 表示当前窗口
+     */
+    public Map<String, Object> getTopUsers(String metric, String window, int offset, int n) {
+        TopUsersTracker.Window topWindow = TopUsersTracker.Window.of(window);
+        List<Map<String, Object>> users = topUsersTracker.top(TopUsersTracker.Metric.of(metric), topWindow, offset, n)
+                .stream()
+                .map(user -> {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("accountId", user.accountId());
+                    item.put("count", user.count());
+                    item.put("error", user.error());
+                    item.put("guaranteedCount", user.count() - user.error());
+                    return item;
+                })
+                .collect(Collectors.toList());
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("metric", metric);
+        result.put("window", window);
+        result.put("windowStart", topUsersTracker.windowStart(topWindow, offset));
+        result.put("sketchCapacity", topUsersTracker.capacity());
+        result.put("users", users);
+        return result;
+    }
+    
     /**
      * 获取套餐分布统计
      */
     public Map<String, Object> getPackageDistribution() {
         Map<String, Object> distribution = new HashMap<>();
         
-        List<User> allUsers = userRepository.findAll();
-        
-        // 按套餐分组统计
-        Map<Integer, Long> packageDistribution = allUsers.stream()
-                .collect(Collectors.groupingBy(
-                    User::getPackageId,
-                    Collectors.counting()
-                ));
+        // 按套餐分组统计（实时聚合计数）
+        Map<Integer, Long> packageDistribution = liveAggregateStore.subscribers();
         
         distribution.put("packageDistribution", packageDistribution);
-        distribution.put("totalUsers", allUsers.size());
+        distribution.put("totalUsers", liveAggregateStore.userCount());
         
         // 计算最受欢迎的套餐
         Integer mostPopularPackage = packageDistribution.entrySet().stream()
@@ -277,29 +345,68 @@ public class StatisticsService {
      */
     /**
      * 获取每小时在线用户统计（添加缓存）
-     * 缓存名称：traffic_reports，固定 key：'hourly_stats'
+     * 读取在线并发直方图中 [startDate, endDate] 的小时桶：onlineUserCount 为该小时在各天中的峰值在线数，
+     * averageOnlineUserCount 为日均在线数，peakDate 为峰值所在日期
+     * 缓存名称：traffic_reports，key：'hourly_stats:' + 日期范围（经 RefreshAheadCache 提前刷新、防击穿）
      */
-    @Cacheable(value = "traffic_reports", key = "'hourly_stats'")
-    public List<Map<String, Object>> getHourlyOnlineUserStatistics() {
-        List<Object[]> results = statisticsRepository.getHourlyOnlineUserStatistics();
+    public List<Map<String, Object>> getHourlyOnlineUserStatistics(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("结束日期不能早于开始日期");
+        }
+        return refreshAheadCache.get("traffic_reports", "hourly_stats:" + startDate + ":" + endDate,
+                () -> computeHourlyOnlineUserStatistics(startDate, endDate));
+    }
+    
+    private List<Map<String, Object>> computeHourlyOnlineUserStatistics(LocalDate startDate, LocalDate endDate) {
+        long[] counts = concurrencyHistogram.series(ConcurrencyHistogram.Resolution.HOUR,
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        int days = counts.length / 24;
         
-        return results.stream()
-                .map(result -> {
-                    Map<String, Object> hourlyStats = new HashMap<>();
-                    
-                    // 提取小时数和在线用户数
-                    Integer hour = ((Number) result[0]).intValue();
-                    Long onlineUserCount = ((Number) result[1]).longValue();
-                    
-                    hourlyStats.put("hour", hour);
-                    hourlyStats.put("onlineUserCount", onlineUserCount);
-                    
-                    // 格式化小时显示（例如：00:00 - 00:59）
-                    String timeRange = String.format("%02d:00 - %02d:59", hour, hour);
-                    hourlyStats.put("timeRange", timeRange);
-                    
-                    return hourlyStats;
-                })
-                .collect(Collectors.toList());
+        List<Map<String, Object>> result = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            long peak = 0;
+            long sum = 0;
+            int samples = 0;
+            LocalDate peakDate = null;
+            for (int day = 0; day < days; day++) {
+                long count = counts[day * 24 + hour];
+                if (count < 0) {
+                    continue; // 尚未到来的小时
+                }
+                sum += count;
+                samples++;
+                if (peakDate == null || count > peak) {
+                    peak = count;
+                    peakDate = startDate.plusDays(day);
+                }
+            }
+            Map<String, Object> hourlyStats = new HashMap<>();
+            hourlyStats.put("hour", hour);
+            hourlyStats.put("onlineUserCount", peak);
+            hourlyStats.put("averageOnlineUserCount", samples > 0 ? Math.round(sum * 100.0 / samples) / 100.0 : 0.0);
+            hourlyStats.put("peakDate", peakDate);
+            
+            // 格式化小时显示（例如：00:00 - 00:59）
+            String timeRange = String.format("%02d:00 - %02d:59", hour, hour);
+            hourlyStats.put("timeRange", timeRange);
+            result.add(hourlyStats);
+        }
+        return result;
+    }
+    
+    /**
+     * 获取某一天每分钟的在线用户数（尚未到来的分钟不返回）
+     */
+    public List<Map<String, Object>> getMinuteOnlineUserStatistics(LocalDate date) {
+        long[] counts = concurrencyHistogram.series(ConcurrencyHistogram.Resolution.MINUTE,
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        List<Map<String, Object>> result = new ArrayList<>(counts.length);
+        for (int minute = 0; minute < counts.length && counts[minute] >= 0; minute++) {
+            Map<String, Object> minuteStats = new HashMap<>();
+            minuteStats.put("minute", String.format("%02d:%02d", minute / 60, minute % 60));
+            minuteStats.put("onlineUserCount", counts[minute]);
+            result.add(minuteStats);
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 统计物化视图的刷新调度
+ *
+ * 每个视图有独立的刷新周期；刷新使用 REFRESH MATERIALIZED VIEW CONCURRENTLY（依赖视图上的唯一索引），
+ * 刷新期间读取不受阻塞。多节点部署时以事务级 advisory lock 保证同一时刻只有一个节点刷新，
+ * 成功后把事务开始时间记入 statistics_view_refresh，作为视图数据的截至时间。
+ */
+@Service
+public class StatisticsViewService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatisticsViewService.class);
+
+    /**
+     * 物化视图（名称为常量，不接受外部输入）
+     */
+    public enum View {
+        USER_ACTIVITY("mv_user_activity");
+
+        final String viewName;
+
+        View(String viewName) {
+            this.viewName = viewName;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public StatisticsViewService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${telecom.statistics-views.user-activity.refresh-interval-ms:300000}",
+               initialDelayString = "${telecom.statistics-views.user-activity.refresh-interval-ms:300000}")
+    public void refreshUserActivity() {
+        refresh(View.USER_ACTIVITY);
+    }
+
+    /**
+     * 并发刷新视图；其他节点正在刷新时跳过本次
+     */
+    public void refresh(View view) {
+        try {
+            long start = System.nanoTime();
+            Boolean refreshed = transactionTemplate.execute(status -> {
+                Boolean locked = jdbcTemplate.queryForObject(
+                        "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, view.viewName);
+                if (!Boolean.TRUE.equals(locked)) {
+                    return false;
+                }
+                jdbcTemplate.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY " + view.viewName);
+                jdbcTemplate.update("""
+                        INSERT INTO statistics_view_refresh (view_name, refreshed_at) VALUES (?, now())
+                        ON CONFLICT (view_name) DO UPDATE SET refreshed_at = EXCLUDED.refreshed_at
+                        """, view.viewName);
+                return true;
+            });
+            if (Boolean.TRUE.equals(refreshed)) {
+                LOGGER.debug("[STATISTICS_VIEWS] {} 刷新完成，耗时 {} ms", view.viewName,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (Exception e) {
+            LOGGER.error("[STATISTICS_VIEWS] {} 刷新失败，继续使用上一次的数据", view.viewName, e);
+        }
+    }
+
+    /**
+     * 视图数据的截至时间；从未刷新过时返回 null
+     */
+    public LocalDateTime refreshedAt(View view) {
+        return jdbcTemplate.query("SELECT refreshed_at FROM statistics_view_refresh WHERE view_name = ?",
+                rs -> rs.next() ? rs.getTimestamp(1).toLocalDateTime() : null, view.viewName);
+    }
+}
@@ -0,0 +1,229 @@
+package com.telecom_system.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.event.SessionEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 最活跃用户 Top-K 跟踪
+ *
+ * 由会话事件驱动，按小时 / 天 / 月窗口各维护两个 Space-Saving 草图：登录次数（上线时 +1）
+ * 与在线秒数（下线时按会话跨越的窗口拆分累加）。各节点只统计本节点的事件，
+ * 定时把草图写入 Redis 哈希 {telecom:topk}:{指标}:{窗口}:{起始时间} 中以节点为字段的位置，
+ * 查询时合并所有节点的草图并给出误差范围，不访问 login_info。
+ */
+@Service
+public class TopUsersTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TopUsersTracker.class);
+
+    private static final String KEY_PREFIX = "{telecom:topk}:";
+
+    public enum Metric {
+        LOGINS, ONLINE_SECONDS;
+
+        public static Metric of(String value) {
+            return switch (value == null ? "" : value) {
+                case "logins" -> LOGINS;
+                case "onlineSeconds" -> ONLINE_SECONDS;
+                default -> throw new IllegalArgumentException("不支持的指标: " + value + "（可选 logins、onlineSeconds）");
+            };
+        }
+    }
+
+    /**
+     * 统计窗口及其保留的窗口个数
+     */
+    public enum Window {
+        HOUR(ChronoUnit.HOURS, 48), DAY(ChronoUnit.DAYS, 62), MONTH(ChronoUnit.MONTHS, 13);
+
+        final ChronoUnit unit;
+        final int retained;
+
+        Window(ChronoUnit unit, int retained) {
+            this.unit = unit;
+            this.retained = retained;
+        }
+
+        public static Window of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("不支持的窗口: " + value + "（可选 hour、day、month）");
+            }
+        }
+
+        LocalDateTime start(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case MONTH -> time.with(TemporalAdjusters.firstDayOfMonth()).truncatedTo(ChronoUnit.DAYS);
+            };
+        }
+
+        LocalDateTime oldestRetained(LocalDateTime now) {
+            return start(now).minus(retained - 1L, unit);
+        }
+    }
+
+    /**
+     * 查询结果：count 为估计值（上界），真实值不低于 count - error
+     */
+    public record TopUser(int accountId, long count, long error) {}
+
+    private record SketchKey(Metric metric, Window window, LocalDateTime start) {}
+
+    private static final class Slot {
+        final SpaceSaving sketch;
+        boolean dirty;
+
+        Slot(int capacity) {
+            this.sketch = new SpaceSaving(capacity);
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final int capacity;
+    // 带启动时间，重启后（即使进程号相同）不会覆盖上一次运行写入的草图
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "@"
+            + ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final Map<SketchKey, Slot> slots = new HashMap<>();
+
+    public TopUsersTracker(StringRedisTemplate redisTemplate,
+                           @Value("${telecom.top-users.capacity:200}") int capacity) {
+        this.redisTemplate = redisTemplate;
+        this.capacity = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @EventListener
+    public void onSessionEvent(SessionEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (slots) {
+            for (Window window : Window.values()) {
+                if (event.type() == SessionEvent.Type.LOGIN) {
+                    offer(new SketchKey(Metric.LOGINS, window, window.start(event.time())), event.accountId(), 1, now);
+                } else if (event.loginTime() != null) {
+                    offerOnlineSeconds(window, event, now);
+                }
+            }
+        }
+    }
+
+    // 会话跨越多个窗口时按窗口边界拆分在线秒数
+    private void offerOnlineSeconds(Window window, SessionEvent event, LocalDateTime now) {
+        LocalDateTime oldest = window.oldestRetained(now);
+        LocalDateTime from = event.loginTime().isBefore(oldest) ? oldest : event.loginTime();
+        while (from.isBefore(event.time())) {
+            LocalDateTime start = window.start(from);
+            LocalDateTime next = start.plus(1, window.unit);
+            LocalDateTime to = next.isBefore(event.time()) ? next : event.time();
+            offer(new SketchKey(Metric.ONLINE_SECONDS, window, start), event.accountId(),
+                    Duration.between(from, to).getSeconds(), now);
+            from = to;
+        }
+    }
+
+    private void offer(SketchKey key, int accountId, long weight, LocalDateTime now) {
+        if (weight <= 0 || key.start().isBefore(key.window().oldestRetained(now))) {
+            return;
+        }
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot(capacity));
+        slot.sketch.offer(accountId, weight);
+        slot.dirty = true;
+    }
+
+    /**
+     * 把有变化的草图写入 Redis，并丢弃保留期之外的窗口
+     */
+    @Scheduled(fixedDelayString = "${telecom.top-users.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<SketchKey, String> dirty = new HashMap<>();
+        synchronized (slots) {
+            slots.entrySet().removeIf(e -> e.getKey().start().isBefore(e.getKey().window().oldestRetained(now)));
+            slots.forEach((key, slot) -> {
+                if (slot.dirty) {
+                    dirty.put(key, slot.sketch.serialize());
+                    slot.dirty = false;
+                }
+            });
+        }
+        try {
+            dirty.forEach((key, value) -> {
+                String redisKey = redisKey(key);
+                redisTemplate.opsForHash().put(redisKey, nodeId, value);
+                redisTemplate.expire(redisKey, ttl(key, now));
+            });
+        } catch (Exception e) {
+            LOGGER.warn("[TOP_USERS] 写入 Top-K 草图失败，下次重试: {}", e.getMessage());
+            synchronized (slots) {
+                dirty.keySet().forEach(key -> {
+                    Slot slot = slots.get(key);
+                    if (slot != null) {
+                        slot.dirty = true;
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * 合并各节点草图，返回窗口内的前 n 个账号；offset 为 0 表示当前窗口，1 表示上一个窗口，依此类推
+     */
+    public List<TopUser> top(Metric metric, Window window, int offset, int n) {
+        if (n < 1 || n > capacity) {
+            throw new IllegalArgumentException("n 必须在 1 到 " + capacity + " 之间");
+        }
+        if (offset < 0 || offset >= window.retained) {
+            throw new IllegalArgumentException("offset 必须在 0 到 " + (window.retained - 1) + " 之间");
+        }
+        LocalDateTime start = windowStart(window, offset);
+        List<SpaceSaving.Summary> summaries = new ArrayList<>();
+        for (Object value : redisTemplate.opsForHash().values(redisKey(new SketchKey(metric, window, start)))) {
+            summaries.add(SpaceSaving.parse(Objects.toString(value)));
+        }
+        return SpaceSaving.mergeTop(summaries, n).stream()
+                .map(c -> new TopUser(c.accountId(), c.count(), c.error()))
+                .toList();
+    }
+
+    public LocalDateTime windowStart(Window window, int offset) {
+        return window.start(LocalDateTime.now()).minus(offset, window.unit);
+    }
+
+    private static String redisKey(SketchKey key) {
+        return KEY_PREFIX + key.metric().name().toLowerCase(Locale.ROOT) + ":"
+                + key.window().name().toLowerCase(Locale.ROOT) + ":" + key.start();
+    }
+
+    // 保留到该窗口移出保留期为止
+    private static Duration ttl(SketchKey key, LocalDateTime now) {
+        LocalDateTime expiresAt = key.start().plus(key.window().retained, key.window().unit);
+        return Duration.between(now, expiresAt).plusMinutes(5);
+    }
+}
@@ -0,0 +1,201 @@
+package com.telecom_system.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.telecom_system.event.SessionEvent;
+
+/**
+ * 登录去重用户数（UV）计数
+ *
+ * 每天一个 Redis HyperLogLog（{telecom:uv}:day:yyyy-MM-dd），上线事件时 PFADD 账号；
+ * 任意日期范围的去重人数为各日 HLL 的并集基数（多键 PFCOUNT，键使用同一 hash tag，兼容集群）。
+ * Redis HLL 的标准误差为 0.81%（基数较小时使用稀疏编码，结果接近精确值）。
+ *
+ * 不超过 exact-max-days 天、或不按整天对齐的范围，以及 Redis 不可用时，
+ * 退回 login_info 上的 COUNT(DISTINCT) 精确统计。
+ */
+@Service
+public class UniqueLoginCounter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UniqueLoginCounter.class);
+
+    /** Redis HyperLogLog 基数估计的标准误差 */
+    public static final double STANDARD_ERROR = 0.0081;
+
+    private static final String KEY_PREFIX = "{telecom:uv}:day:";
+    private static final int BACKFILL_BATCH = 1000;
+
+    // 写入并续期：每次写入都把过期时间推到保留期末尾
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>("""
+        local changed = redis.call('PFADD', KEYS[1], unpack(ARGV, 2))
+        redis.call('EXPIRE', KEYS[1], ARGV[1])
+        return changed
+        """, Long.class);
+
+    private static final String EXACT_SQL = """
+        SELECT COUNT(DISTINCT account_id) FROM login_info
+        WHERE login_time >= ? AND login_time < ?
+        """;
+
+    private static final String BACKFILL_SQL = """
+        SELECT DISTINCT CAST(login_time AS DATE) AS day, account_id
+        FROM login_info
+        WHERE login_time >= ?
+        ORDER BY day
+        """;
+
+    /**
+     * 去重人数；exact 为 false 时为 HLL 估计值，误差见 STANDARD_ERROR
+     */
+    public record Estimate(long count, boolean exact) {}
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final LoginInfoPartitionService loginInfoPartitionService;
+    private final int exactMaxDays;
+    private final int retentionDays;
+
+    public UniqueLoginCounter(StringRedisTemplate redisTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              LoginInfoPartitionService loginInfoPartitionService,
+                              @Value("${telecom.unique-logins.exact-max-days:0}") int exactMaxDays,
+                              @Value("${telecom.unique-logins.retention-days:400}") int retentionDays) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.loginInfoPartitionService = loginInfoPartitionService;
+        this.exactMaxDays = exactMaxDays;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * 上线事件：把账号加入当天的 HLL；Redis 不可用时只记录日志，不影响登录
+     */
+    @EventListener
+    public void onSessionEvent(SessionEvent event) {
+        if (event.type() != SessionEvent.Type.LOGIN) {
+            return;
+        }
+        try {
+            add(event.time().toLocalDate(), List.of(String.valueOf(event.accountId())));
+        } catch (Exception e) {
+            LOGGER.warn("[UNIQUE_LOGINS] 写入登录去重计数失败 account={}: {}", event.accountId(), e.getMessage());
+        }
+    }
+
+    // ========== 查询 ==========
+
+    /**
+     * [from, to] 日期范围（含两端）内登录过的去重人数
+     */
+    public Estimate count(LocalDate from, LocalDate to, boolean exact) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("结束日期不能早于开始日期");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (exact || days <= exactMaxDays || days > retentionDays) {
+            return exact(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        }
+        List<String> keys = new ArrayList<>((int) days);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            keys.add(key(day));
+        }
+        try {
+            Long count = redisTemplate.opsForHyperLogLog().size(keys.toArray(String[]::new));
+            return new Estimate(count != null ? count : 0, false);
+        } catch (Exception e) {
+            LOGGER.warn("[UNIQUE_LOGINS] 读取 HyperLogLog 失败，改为精确统计: {}", e.getMessage());
+            return exact(from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        }
+    }
+
+    /**
+     * [start, end) 内登录过的去重人数：按整天对齐时使用 HLL，否则精确统计
+     */
+    public Estimate count(LocalDateTime start, LocalDateTime end, boolean exact) {
+        if (!exact && start.toLocalTime().equals(LocalTime.MIDNIGHT) && end.toLocalTime().equals(LocalTime.MIDNIGHT)
+                && end.isAfter(start)) {
+            return count(start.toLocalDate(), end.toLocalDate().minusDays(1), false);
+        }
+        return exact(start, end);
+    }
+
+    /**
+     * 以今天为结束日的日活、周活（7 天）、月活（30 天）
+     */
+    public Estimate activeUsers(int days) {
+        LocalDate today = LocalDate.now();
+        return count(today.minusDays(days - 1L), today, false);
+    }
+
+    private Estimate exact(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime horizon = loginInfoPartitionService.queryHorizon();
+        LocalDateTime from = start.isBefore(horizon) ? horizon : start;
+        if (!end.isAfter(from)) {
+            return new Estimate(0, true);
+        }
+        Long count = jdbcTemplate.queryForObject(EXACT_SQL, Long.class, Timestamp.valueOf(from), Timestamp.valueOf(end));
+        return new Estimate(count != null ? count : 0, true);
+    }
+
+    // ========== 回填 ==========
+
+    /**
+     * 按 login_info 重建保留期内每天的 HLL（PFADD 幂等，可重复执行）
+     */
+    public void rebuild() {
+        LocalDateTime horizon = loginInfoPartitionService.queryHorizon();
+        LocalDateTime retentionStart = LocalDate.now().minusDays(retentionDays - 1L).atStartOfDay();
+        LocalDateTime since = retentionStart.isAfter(horizon) ? retentionStart : horizon;
+
+        LocalDate[] currentDay = new LocalDate[1];
+        List<String> members = new ArrayList<>(BACKFILL_BATCH);
+        long[] total = new long[1];
+        jdbcTemplate.query(BACKFILL_SQL, rs -> {
+            LocalDate day = rs.getDate(1).toLocalDate();
+            if (currentDay[0] != null && (!day.equals(currentDay[0]) || members.size() >= BACKFILL_BATCH)) {
+                add(currentDay[0], members);
+                members.clear();
+            }
+            currentDay[0] = day;
+            members.add(String.valueOf(rs.getInt(2)));
+            total[0]++;
+        }, Timestamp.valueOf(since));
+        if (!members.isEmpty()) {
+            add(currentDay[0], members);
+        }
+        LOGGER.info("[UNIQUE_LOGINS] 登录去重计数回填完成：自 {} 起 {} 条（日期, 账号）", since.toLocalDate(), total[0]);
+    }
+
+    private void add(LocalDate day, List<String> accountIds) {
+        LocalDate expiresOn = day.plusDays(retentionDays);
+        long ttlSeconds = Duration.between(LocalDateTime.now(), expiresOn.atStartOfDay()).getSeconds();
+        if (ttlSeconds <= 0) {
+            return;
+        }
+        List<String> args = new ArrayList<>(accountIds.size() + 1);
+        args.add(String.valueOf(ttlSeconds));
+        args.addAll(accountIds);
+        redisTemplate.execute(ADD_SCRIPT, List.of(key(day)), args.toArray());
+    }
+
+    private static String key(LocalDate day) {
+        return KEY_PREFIX + day;
+    }
+}
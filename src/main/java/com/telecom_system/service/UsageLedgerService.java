@@ -0,0 +1,140 @@
+package com.telecom_system.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.telecom_system.entity.UsageLedger;
+import com.telecom_system.entity.User;
+import com.telecom_system.repository.SqlValues;
+import com.telecom_system.repository.UsageLedgerRepository;
+
+/**
+ * 用户用量台账服务
+ * 登出/强制下线时把会话时长累加到台账（由 SessionEventWriter 随 login_info 一并写入），变更套餐时清零，
+ * 剩余时长 = 套餐时长 - (台账累计 + 当前在线会话已用时长)，查询为 O(1)
+ */
+@Service
+@Transactional
+public class UsageLedgerService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UsageLedgerService.class);
+
+    private final UsageLedgerRepository usageLedgerRepository;
+    private final LoginInfoPartitionService partitions;
+    private final long reconcileToleranceMillis;
+
+    public UsageLedgerService(UsageLedgerRepository usageLedgerRepository,
+                              LoginInfoPartitionService partitions,
+                              @Value("${telecom.usage-ledger.reconcile-tolerance-millis:1000}") long reconcileToleranceMillis) {
+        this.usageLedgerRepository = usageLedgerRepository;
+        this.partitions = partitions;
+        this.reconcileToleranceMillis = reconcileToleranceMillis;
+    }
+
+    /**
+     * 套餐变更：台账清零
+     */
+    public void resetForPackage(Integer accountId, LocalDateTime packageStartTime) {
+        usageLedgerRepository.reset(accountId, packageStartTime);
+    }
+
+    /**
+     * 获取当前套餐周期已使用的秒数（含在线会话）
+     * 台账不存在或与用户的套餐周期不一致时（新用户、账号回收复用等）从原始记录重建
+     */
+    public double getUsedSeconds(User user) {
+        UsageLedger ledger = usageLedgerRepository.findById(user.getAccount())
+                .filter(l -> sameInstant(l.getPackageStartTime(), user.getPackageStartTime()))
+                .orElseGet(() -> rebuild(user.getAccount()));
+
+        double usedSeconds = ledger.getUsedMillis() / 1000.0;
+        LocalDateTime openSessionStart = ledger.getOpenSessionStart();
+        if (openSessionStart != null && !openSessionStart.isBefore(ledger.getPackageStartTime())) {
+            usedSeconds += Math.max(0, Duration.between(openSessionStart, LocalDateTime.now()).toMillis()) / 1000.0;
+        }
+        return usedSeconds;
+    }
+
+    /**
+     * 根据 login_info 原始记录重建单个用户的台账
+     * 套餐周期早于保留期起点时，已归档分区中的会话不在 login_info 内，重建结果偏小
+     */
+    public UsageLedger rebuild(Integer accountId) {
+        List<Object[]> rows = usageLedgerRepository.computeFromLoginInfo(accountId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("用户不存在: " + accountId);
+        }
+        UsageLedger ledger = toLedger(rows.get(0));
+        if (ledger.getPackageStartTime().isBefore(partitions.queryHorizon())) {
+            LOGGER.warn("[USAGE_LEDGER] 套餐周期早于保留期起点，重建结果不含已归档会话 account={}", accountId);
+        }
+        return usageLedgerRepository.save(ledger);
+    }
+
+    /**
+     * 定时对账：用 login_info 原始记录校验台账，修正偏差并补齐缺失的台账
+     * 套餐周期早于保留期起点的账号，部分会话已随分区归档，原始记录算出的值偏小，
+     * 此时以增量维护的台账为准，不做修正
+     */
+    @Scheduled(cron = "${telecom.usage-ledger.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        // 先读台账再算原始值：对账期间发生的登出会改变 updated_at，修正时会被跳过，留待下次对账
+        Map<Integer, UsageLedger> ledgers = usageLedgerRepository.findAll().stream()
+                .collect(Collectors.toMap(UsageLedger::getAccountId, Function.identity()));
+
+        LocalDateTime horizon = partitions.queryHorizon();
+        int created = 0;
+        int corrected = 0;
+        int skipped = 0;
+        for (Object[] row : usageLedgerRepository.computeAllFromLoginInfo()) {
+            UsageLedger expected = toLedger(row);
+            UsageLedger actual = ledgers.get(expected.getAccountId());
+            if (actual == null) {
+                usageLedgerRepository.save(expected);
+                created++;
+            } else if (expected.getPackageStartTime().isBefore(horizon)) {
+                skipped++;
+            } else if (drifted(actual, expected)) {
+                LOGGER.warn("[USAGE_LEDGER] 台账偏差 account={} ledger={}ms raw={}ms",
+                        expected.getAccountId(), actual.getUsedMillis(), expected.getUsedMillis());
+                corrected += usageLedgerRepository.correct(expected.getAccountId(), expected.getUsedMillis(),
+                        expected.getPackageStartTime(), expected.getOpenSessionStart(), actual.getUpdatedAt());
+            }
+        }
+        LOGGER.info("[USAGE_LEDGER] 对账完成：新建 {} 条，修正 {} 条，跳过早于保留期的 {} 条", created, corrected, skipped);
+    }
+
+    private boolean drifted(UsageLedger actual, UsageLedger expected) {
+        return Math.abs(actual.getUsedMillis() - expected.getUsedMillis()) > reconcileToleranceMillis
+                || !sameInstant(actual.getPackageStartTime(), expected.getPackageStartTime())
+                || !sameInstant(actual.getOpenSessionStart(), expected.getOpenSessionStart());
+    }
+
+    private UsageLedger toLedger(Object[] row) {
+        return new UsageLedger(
+                ((Number) row[0]).intValue(),
+                SqlValues.toLong(row[2]),
+                SqlValues.toLocalDateTime(row[1]),
+                SqlValues.toLocalDateTime(row[3]));
+    }
+
+    // 数据库时间精度为微秒，比较前统一截断
+    private static boolean sameInstant(LocalDateTime a, LocalDateTime b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.truncatedTo(ChronoUnit.MICROS).equals(b.truncatedTo(ChronoUnit.MICROS));
+    }
+}
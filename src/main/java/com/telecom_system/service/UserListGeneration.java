@@ -0,0 +1,132 @@
+package com.telecom_system.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 用户列表类缓存的版本号
+ *
+ * user_lists、user_pages、search_users 的缓存键带有当前版本号（@userListGeneration.current()），
+ * 用户数据变更后递增版本号，旧版本的条目不再被读取，随 TTL 自然过期，无需逐条清除。
+ * 版本号保存在 Redis 中，递增后经发布/订阅通知各节点，并定时与 Redis 对齐以防消息丢失。
+ *
+ * 合并窗口：距上一次递增超过 coalesce-ms 的变更在事务提交后立即递增；窗口内的后续变更只做标记，
+ * 由定时任务在窗口结束时统一递增一次，连续写入不会反复使列表缓存失效。
+ */
+@Service
+public class UserListGeneration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserListGeneration.class);
+
+    private static final String GENERATION_KEY = "{telecom:cache}:generation:user-lists";
+    private static final ChannelTopic GENERATION_TOPIC = new ChannelTopic("telecom:cache:generation:user-lists");
+
+    private final StringRedisTemplate redisTemplate;
+    private final long coalesceNanos;
+    private final AtomicLong current = new AtomicLong();
+
+    // 以下两个字段由 this 同步
+    private long lastBumpAt;
+    private boolean pending;
+
+    public UserListGeneration(StringRedisTemplate redisTemplate,
+                              RedisMessageListenerContainer listenerContainer,
+                              @Value("${telecom.cache.generation.coalesce-ms:2000}") long coalesceMillis) {
+        this.redisTemplate = redisTemplate;
+        this.coalesceNanos = coalesceMillis * 1_000_000;
+        this.lastBumpAt = System.nanoTime() - coalesceNanos;
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                advanceTo(Long.parseLong(new String(message.getBody())));
+            } catch (NumberFormatException e) {
+                LOGGER.warn("[CACHE] 忽略无效的版本号消息: {}", new String(message.getBody()));
+            }
+        }, GENERATION_TOPIC);
+    }
+
+    /**
+     * 当前版本号（缓存键的一部分）
+     */
+    public long current() {
+        return current.get();
+    }
+
+    /**
+     * 用户数据已变更：当前事务提交后递增版本号，合并窗口内的多次变更只递增一次
+     */
+    public void changed() {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                if (System.nanoTime() - lastBumpAt < coalesceNanos) {
+                    pending = true;
+                    return;
+                }
+            }
+            bump();
+        });
+    }
+
+    /**
+     * 窗口结束时递增窗口内积压的变更
+     */
+    @Scheduled(fixedDelayString = "${telecom.cache.generation.coalesce-ms:2000}")
+    public void flushPending() {
+        synchronized (this) {
+            if (!pending) {
+                return;
+            }
+        }
+        bump();
+    }
+
+    private void bump() {
+        synchronized (this) {
+            pending = false;
+            lastBumpAt = System.nanoTime();
+        }
+        try {
+            Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            if (generation != null) {
+                advanceTo(generation);
+                redisTemplate.convertAndSend(GENERATION_TOPIC.getTopic(), generation.toString());
+            }
+        } catch (Exception e) {
+            LOGGER.warn("[CACHE] 递增用户列表缓存版本号失败，稍后重试: {}", e.getMessage());
+            synchronized (this) {
+                pending = true;
+            }
+        }
+    }
+
+    /**
+     * 启动时及定时与 Redis 中的版本号对齐
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${telecom.cache.generation.sync-interval-ms:30000}",
+               initialDelayString = "${telecom.cache.generation.sync-interval-ms:30000}")
+    public void sync() {
+        try {
+            String value = redisTemplate.opsForValue().get(GENERATION_KEY);
+            if (value != null) {
+                advanceTo(Long.parseLong(value));
+            }
+        } catch (Exception e) {
+            LOGGER.warn("[CACHE] 读取用户列表缓存版本号失败: {}", e.getMessage());
+        }
+    }
+
+    // 版本号只增不减（消息可能乱序到达）
+    private void advanceTo(long generation) {
+        current.accumulateAndGet(generation, Math::max);
+    }
+}
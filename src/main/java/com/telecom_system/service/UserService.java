@@ -1,14 +1,11 @@
 package com.telecom_system.service;
 
 import com.telecom_system.entity.User;
-import com.telecom_system.entity.Package;
-import com.telecom_system.repository.PackageRepository;
 import com.telecom_system.repository.UserRepository;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -27,17 +24,27 @@ import java.util.Optional;
 public class UserService {
     
     private final UserRepository userRepository;
-    private final PackageRepository packageRepository;
+    private final PackageCatalog packageCatalog;
+    private final UsageLedgerService usageLedgerService;
+    private final CredentialDirectory credentialDirectory;
+    private final LiveAggregateStore liveAggregateStore;
+    private final UserListGeneration userListGeneration;
 
-    public UserService(UserRepository userRepository,PackageRepository packageRepository) {
+    public UserService(UserRepository userRepository, PackageCatalog packageCatalog,
+                       UsageLedgerService usageLedgerService, CredentialDirectory credentialDirectory,
+                       LiveAggregateStore liveAggregateStore, UserListGeneration userListGeneration) {
         this.userRepository = userRepository;
-        this.packageRepository = packageRepository;
+        this.packageCatalog = packageCatalog;
+        this.usageLedgerService = usageLedgerService;
+        this.credentialDirectory = credentialDirectory;
+        this.liveAggregateStore = liveAggregateStore;
+        this.userListGeneration = userListGeneration;
     }
     
     /**
      * 查找所有用户
      */
-    @Cacheable(value = "users", key = "'all_desc'")
+    @Cacheable(value = "user_lists", key = "'all_desc:' + @userListGeneration.current()")
     public List<User> findAllByOrderByAccountDesc() {
         return userRepository.findAllByOrderByAccountDesc();
     }
@@ -71,7 +78,6 @@ public class UserService {
     /**
      * 创建新用户
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
     public User createUser(User User) {
         // 业务逻辑验证
         if (userRepository.existsById(User.getAccount())) {
@@ -87,16 +93,21 @@ public class UserService {
             User.setBalance(BigDecimal.ZERO);
         }
         
-        return userRepository.save(User);
+        User saved = userRepository.save(User);
+        credentialDirectory.userSaved(saved);
+        liveAggregateStore.userCreated(saved);
+        userListGeneration.changed();
+        return saved;
     }
     
     /**
      * 更新用户信息
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
+    @CacheEvict(value = "users", key = "#account")
     public User updateUser(Integer account, User User) {
         return userRepository.findById(account)
                 .map(existingUser -> {
+                    Integer oldPackageId = existingUser.getPackageId();
                     // 只更新允许修改的字段
                     if (User.getName() != null) {
                         existingUser.setName(User.getName());
@@ -107,7 +118,11 @@ public class UserService {
                     if (User.getPackageId() != null) {
                         existingUser.setPackageId(User.getPackageId());
                     }
-                    return userRepository.save(existingUser);
+                    User saved = userRepository.save(existingUser);
+                    credentialDirectory.userSaved(saved);
+                    liveAggregateStore.userChanged(oldPackageId, saved.getBalance(), saved);
+                    userListGeneration.changed();
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + account));
     }
@@ -115,18 +130,20 @@ public class UserService {
     /**
      * 删除用户
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
+    @CacheEvict(value = "users", key = "#account")
     public void deleteUser(Integer account) {
-        if (!userRepository.existsById(account)) {
-            throw new RuntimeException("用户不存在: " + account);
-        }
-        userRepository.deleteById(account);
+        User user = userRepository.findById(account)
+                .orElseThrow(() -> new RuntimeException("用户不存在: " + account));
+        userRepository.delete(user);
+        credentialDirectory.userDeleted(account);
+        liveAggregateStore.userDeleted(user);
+        userListGeneration.changed();
     }
     
     /**
      * 用户充值
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
+    @CacheEvict(value = "users", key = "#account")
     public User recharge(Integer account, Double amount) {
         if (amount <= 0) {
             throw new RuntimeException("充值金额必须大于0");
@@ -134,9 +151,12 @@ public class UserService {
         
         return userRepository.findById(account)
                 .map(user -> {
-                    BigDecimal newBalance = user.getBalance().add(BigDecimal.valueOf(amount));
-                    user.setBalance(newBalance);
-                    return userRepository.save(user);
+                    BigDecimal oldBalance = user.getBalance();
+                    user.setBalance(oldBalance.add(BigDecimal.valueOf(amount)));
+                    User saved = userRepository.save(user);
+                    liveAggregateStore.userChanged(saved.getPackageId(), oldBalance, saved);
+                    userListGeneration.changed();
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + account));
     }
@@ -144,7 +164,7 @@ public class UserService {
     /**
      * 用户消费/扣费
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
+    @CacheEvict(value = "users", key = "#account")
     public User deductBalance(Integer account, Double amount) {
         if (amount <= 0) {
             throw new RuntimeException("扣费金额必须大于0");
@@ -152,12 +172,16 @@ public class UserService {
         
         return userRepository.findById(account)
                 .map(user -> {
-                    BigDecimal newBalance = user.getBalance().subtract(BigDecimal.valueOf(amount));
+                    BigDecimal oldBalance = user.getBalance();
+                    BigDecimal newBalance = oldBalance.subtract(BigDecimal.valueOf(amount));
                     if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
                         throw new RuntimeException("余额不足，当前余额: " + user.getBalance());
                     }
                     user.setBalance(newBalance);
-                    return userRepository.save(user);
+                    User saved = userRepository.save(user);
+                    liveAggregateStore.userChanged(saved.getPackageId(), oldBalance, saved);
+                    userListGeneration.changed();
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + account));
     }
@@ -165,7 +189,7 @@ public class UserService {
     /**
      * 更改用户套餐
      */
-    @CacheEvict(value = {"users", "user_pages", "search_users"}, allEntries = true)
+    @CacheEvict(value = "users", key = "#account")
     public User changePackage(Integer account, Integer packageId) {
         try {
             // 1. 查询用户信息
@@ -173,23 +197,29 @@ public class UserService {
                     .orElseThrow(() -> new RuntimeException("用户不存在: " + account));
             
             // 2. 查询套餐信息
-            Package pkg = packageRepository.findById(packageId)
+            PackageCatalog.Entry pkg = packageCatalog.find(packageId)
                     .orElseThrow(() -> new RuntimeException("套餐不存在: " + packageId));
             
             // 3. 检查余额是否足够
-            if (user.getBalance().compareTo(pkg.getCost()) < 0) {
-                throw new RuntimeException("余额不足，当前余额: " + user.getBalance() + "，套餐费用: " + pkg.getCost());
+            if (user.getBalance().compareTo(pkg.cost()) < 0) {
+                throw new RuntimeException("余额不足，当前余额: " + user.getBalance() + "，套餐费用: " + pkg.cost());
             }
             
             // 4. 扣费
-            user.setBalance(user.getBalance().subtract(pkg.getCost()));
+            Integer oldPackageId = user.getPackageId();
+            BigDecimal oldBalance = user.getBalance();
+            user.setBalance(user.getBalance().subtract(pkg.cost()));
             
             // 5. 更新套餐（不累加时长，直接覆盖）
             user.setPackageId(packageId);
             user.setPackageStartTime(LocalDateTime.now());
             
-            // 6. 保存用户信息
-            return userRepository.save(user);
+            // 6. 保存用户信息，并清零用量台账
+            User saved = userRepository.save(user);
+            usageLedgerService.resetForPackage(account, saved.getPackageStartTime());
+            liveAggregateStore.userChanged(oldPackageId, oldBalance, saved);
+            userListGeneration.changed();
+            return saved;
             
         } catch (DataIntegrityViolationException e) {
             throw new RuntimeException("操作失败，数据完整性约束违反: " + e.getMessage());
@@ -197,46 +227,40 @@ public class UserService {
     }
     
     /**
-    * 获取用户剩余时长信息 - 使用原生SQL替代视图
+    * 获取用户剩余时长信息 - 基于用量台账，不再扫描 login_info
     */
     public Map<String, Object> getRemainingTime(Integer account) {
         // 首先验证用户是否存在
         User user = userRepository.findById(account)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + account));
-        try {
-            Map<String, Object> queryData = userRepository.findRemainingTimeByAccount(account);
-            
-            // 处理返回数据
-            Map<String, Object> result = new HashMap<>();
-            result.put("account", user.getAccount());
-            result.put("name", user.getName());
-            result.put("phone", user.getPhone());
-            result.put("packageId", user.getPackageId());
-            result.put("balance", user.getBalance());
-            
-            // 计算时间格式
-            BigDecimal usedSeconds = (BigDecimal) queryData.get("used_seconds");
-            BigDecimal remainingSeconds = (BigDecimal) queryData.get("remaining_seconds");
-            BigDecimal remainingHours = (BigDecimal) queryData.get("remaining_hours");
-            
-            // 转换为更友好的格式
-            result.put("totalDuration", queryData.get("total_duration"));
-            result.put("usedSeconds", usedSeconds != null ? usedSeconds.doubleValue() : 0.0);
-            result.put("usedHours", usedSeconds != null ? usedSeconds.doubleValue() / 3600 : 0.0);
-            result.put("remainingSeconds", remainingSeconds != null ? remainingSeconds.doubleValue() : 0.0);
-            result.put("remainingHours", remainingHours != null ? remainingHours.doubleValue() : 0.0);
-            result.put("status", queryData.get("status"));
-            result.put("packageCost", queryData.get("cost"));
-            
-            // 添加格式化后的显示文本
-            result.put("usedDurationText", formatDuration(usedSeconds != null ? usedSeconds.doubleValue() : 0.0));
-            result.put("remainingDurationText", formatDuration(remainingSeconds != null ? remainingSeconds.doubleValue() : 0.0));
-            
-            return result;
-            
-        } catch (EmptyResultDataAccessException e) {
-            throw new RuntimeException("用户剩余时长信息不存在: " + account);
-        }
+        PackageCatalog.Entry pkg = packageCatalog.find(user.getPackageId())
+                .orElseThrow(() -> new RuntimeException("用户剩余时长信息不存在: " + account));
+
+        double usedSeconds = usageLedgerService.getUsedSeconds(user);
+        double remainingSeconds = pkg.durationSeconds() - usedSeconds;
+
+        // 处理返回数据
+        Map<String, Object> result = new HashMap<>();
+        result.put("account", user.getAccount());
+        result.put("name", user.getName());
+        result.put("phone", user.getPhone());
+        result.put("packageId", user.getPackageId());
+        result.put("balance", user.getBalance());
+
+        // 转换为更友好的格式
+        result.put("totalDuration", pkg.duration());
+        result.put("usedSeconds", usedSeconds);
+        result.put("usedHours", usedSeconds / 3600);
+        result.put("remainingSeconds", remainingSeconds);
+        result.put("remainingHours", remainingSeconds / 3600);
+        result.put("status", remainingSeconds < 0 ? "已超时" : "正常");
+        result.put("packageCost", pkg.cost());
+
+        // 添加格式化后的显示文本
+        result.put("usedDurationText", formatDuration(usedSeconds));
+        result.put("remainingDurationText", formatDuration(remainingSeconds));
+
+        return result;
     }
     /**
      * 格式化时间为易读格式
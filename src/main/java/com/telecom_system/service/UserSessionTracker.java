@@ -0,0 +1,82 @@
+package com.telecom_system.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.telecom_system.entity.User;
+
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionAttributeListener;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+
+/**
+ * 跟踪本节点上已登录用户的 Web 会话（session 属性 "user"），
+ * 强制下线时据此使对应会话失效
+ */
+@Component
+public class UserSessionTracker implements HttpSessionAttributeListener {
+
+    private static final String USER_ATTRIBUTE = "user";
+
+    private final ConcurrentHashMap<Integer, Set<HttpSession>> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void attributeAdded(HttpSessionBindingEvent event) {
+        if (USER_ATTRIBUTE.equals(event.getName())) {
+            bind(event.getValue(), event.getSession());
+        }
+    }
+
+    @Override
+    public void attributeReplaced(HttpSessionBindingEvent event) {
+        // getValue() 为被替换的旧值
+        if (USER_ATTRIBUTE.equals(event.getName())) {
+            unbind(event.getValue(), event.getSession());
+            bind(event.getSession().getAttribute(USER_ATTRIBUTE), event.getSession());
+        }
+    }
+
+    @Override
+    public void attributeRemoved(HttpSessionBindingEvent event) {
+        if (USER_ATTRIBUTE.equals(event.getName())) {
+            unbind(event.getValue(), event.getSession());
+        }
+    }
+
+    /**
+     * 使账号在本节点上的全部 Web 会话失效，返回失效的会话数
+     */
+    public int invalidate(Integer accountId) {
+        Set<HttpSession> bound = sessions.remove(accountId);
+        if (bound == null) {
+            return 0;
+        }
+        int invalidated = 0;
+        for (HttpSession session : bound) {
+            try {
+                session.invalidate();
+                invalidated++;
+            } catch (IllegalStateException e) {
+                // 会话已失效
+            }
+        }
+        return invalidated;
+    }
+
+    private void bind(Object value, HttpSession session) {
+        if (value instanceof User user && user.getAccount() != null) {
+            sessions.computeIfAbsent(user.getAccount(), k -> ConcurrentHashMap.newKeySet()).add(session);
+        }
+    }
+
+    private void unbind(Object value, HttpSession session) {
+        if (value instanceof User user && user.getAccount() != null) {
+            sessions.computeIfPresent(user.getAccount(), (k, set) -> {
+                set.remove(session);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.telecom_system;
 import com.telecom_system.entity.LoginInfo;
 import com.telecom_system.entity.User;
 import com.telecom_system.repository.LoginInfoRepository;
-import com.telecom_system.repository.StatisticsRepository;
 import com.telecom_system.repository.UserRepository;
 
 import org.junit.jupiter.api.Test;
@@ -20,6 +19,8 @@ import static org.junit.jupiter.api.Assertions.*;
 @Transactional  // 测试完成后回滚数据
 class LoginInfoRepositoryTest {
 
+    // 按登录时间查询的方法需给出时间下界，测试取足够早的时间以覆盖全部数据
+    private static final LocalDateTime SINCE = LocalDateTime.of(1970, 1, 1, 0, 0);
     
     @Autowired
     private LoginInfoRepository loginInfoRepository;
@@ -27,31 +28,13 @@ class LoginInfoRepositoryTest {
     @Autowired
     private UserRepository userRepository;
     
-    @Autowired
-    private StatisticsRepository statisticsRepository;
-
-    @Test 
-    void testHourlyOnlineUserStatistics() {
-        // 测试按小时统计在线用户数量
-        System.out.println("-- testHourlyOnlineUserStatistics begin --");
-        List<Object[]> stats = statisticsRepository.getHourlyOnlineUserStatistics();
-        System.out.println("Hourly Online User Statistics:");
-        for (Object[] record : stats) {
-            Integer hour = (Integer) record[0];
-            Long onlineUserCount = ((Number) record[1]).longValue();
-            System.out.printf("Hour: %02d, Online Users: %d%n", hour, onlineUserCount);
-        }
-        System.out.println("-- testHourlyOnlineUserStatistics over --\n");
-        
-    }
-
     @Test
     void testFindByIdAccountId() {
         // 测试根据用户ID查找登录记录
         System.out.println("-- testFindByIdAccountId begin --");
         long total = loginInfoRepository.count();
         System.out.println("login_info all_records: " + total);
-        List<LoginInfo> results = loginInfoRepository.findByIdAccountId(200001);
+        List<LoginInfo> results = loginInfoRepository.findByIdAccountIdAndIdLoginTimeGreaterThanEqual(200001, SINCE);
         System.out.println("select accountId=200001 results: " + results.size());
         results.forEach(li -> System.out.println(prettyLoginInfo(li)));
         assertNotNull(results);
@@ -59,14 +42,14 @@ class LoginInfoRepositoryTest {
     }
     
     @Test
-    void testFindByLogoutTimeIsNull() {
-        // 测试查找在线用户
-        System.out.println("-- testFindByLogoutTimeIsNull begin --");
-        List<LoginInfo> onlineUsers = loginInfoRepository.findByLogoutTimeIsNull();
+    void testFindOpenSessionKeys() {
+        // 测试查找在线用户（只取账号与登录时间）
+        System.out.println("-- testFindOpenSessionKeys begin --");
+        List<Object[]> onlineUsers = loginInfoRepository.findOpenSessionKeys();
         System.out.println("login_in uesrs (logout_time is null): " + onlineUsers.size());
-        onlineUsers.forEach(li -> System.out.println(prettyLoginInfo(li)));
+        onlineUsers.forEach(row -> System.out.println("accountId=" + row[0] + ", loginTime=" + row[1]));
         assertNotNull(onlineUsers);
-        System.out.println("-- testFindByLogoutTimeIsNull over --\n");
+        System.out.println("-- testFindOpenSessionKeys over --\n");
     }
     
     
@@ -102,7 +85,7 @@ class LoginInfoRepositoryTest {
         assertNotNull(saved);
         
         // 查询验证
-        List<LoginInfo> results = loginInfoRepository.findByIdAccountId(999999);
+        List<LoginInfo> results = loginInfoRepository.findByIdAccountIdAndIdLoginTimeGreaterThanEqual(999999, SINCE);
         System.out.println("select accountId=999999 results: " + results.size());
         results.forEach(li -> System.out.println(prettyLoginInfo(li)));
         assertFalse(results.isEmpty());
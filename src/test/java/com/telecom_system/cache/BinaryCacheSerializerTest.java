@@ -0,0 +1,118 @@
+package com.telecom_system.cache;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.telecom_system.config.RedisConfig;
+import com.telecom_system.dto.PageResult;
+import com.telecom_system.entity.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二进制缓存编码：各结构往返一致，大值压缩，不支持的值与旧 JSON 条目走 JSON
+ */
+class BinaryCacheSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = RedisConfig.jsonSerializer();
+
+    static User user(int account) {
+        User user = new User("用户" + account, "$2a$10$abcdefghijklmnopqrstuv" + account,
+                new BigDecimal("1234.50").add(BigDecimal.valueOf(account % 100)), account % 5 + 1);
+        user.setAccount(account);
+        user.setPhone("1380000" + String.format("%04d", account % 10000));
+        user.setPackageStartTime(LocalDateTime.of(2026, 3, 1, 8, 30, 15, 123_456_000));
+        return user;
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(user(20001 + i));
+        }
+        return users;
+    }
+
+    private static void assertSameUser(User expected, User actual) {
+        assertEquals(expected.getAccount(), actual.getAccount());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getPassword(), actual.getPassword());
+        assertEquals(expected.getBalance(), actual.getBalance());
+        assertEquals(expected.getPackageId(), actual.getPackageId());
+        assertEquals(expected.getPhone(), actual.getPhone());
+        assertEquals(expected.getPackageStartTime(), actual.getPackageStartTime());
+    }
+
+    @Test
+    void userAndPageRoundTrip() {
+        BinaryCacheSerializer<User> userSerializer = new BinaryCacheSerializer<>(CacheCodecs.USER, json, 1024);
+        User user = user(20001);
+        user.setPhone(null);
+        assertSameUser(user, (User) userSerializer.deserialize(userSerializer.serialize(user)));
+
+        BinaryCacheSerializer<PageResult<User>> pageSerializer =
+                new BinaryCacheSerializer<>(CacheCodecs.USER_PAGE, json, 1024);
+        PageResult<User> page = new PageResult<>(users(20), 95, 5, 1, 20, false, false);
+        @SuppressWarnings("unchecked")
+        PageResult<User> decoded = (PageResult<User>) pageSerializer.deserialize(pageSerializer.serialize(page));
+        assertEquals(95, decoded.getTotalElements());
+        assertEquals(5, decoded.getTotalPages());
+        assertEquals(1, decoded.getPage());
+        assertEquals(20, decoded.getSize());
+        assertFalse(decoded.isFirst());
+        assertFalse(decoded.isLast());
+        for (int i = 0; i < 20; i++) {
+            assertSameUser(page.getContent().get(i), decoded.getContent().get(i));
+        }
+    }
+
+    @Test
+    void largeListsAreCompressedAndSmallerThanJson() {
+        BinaryCacheSerializer<List<User>> serializer = new BinaryCacheSerializer<>(CacheCodecs.USER_LIST, json, 1024);
+        List<User> users = users(1000);
+        byte[] bytes = serializer.serialize(users);
+        assertEquals(BinaryCacheSerializer.COMPRESSED, bytes[1] & BinaryCacheSerializer.COMPRESSED);
+        assertTrue(bytes.length * 4 < json.serialize(users).length);
+
+        @SuppressWarnings("unchecked")
+        List<User> decoded = (List<User>) serializer.deserialize(bytes);
+        assertEquals(1000, decoded.size());
+        assertSameUser(users.get(999), decoded.get(999));
+    }
+
+    @Test
+    void statisticsKeepScalarTypes() {
+        BinaryCacheSerializer<Object> serializer = new BinaryCacheSerializer<>(CacheCodecs.STATISTICS, json, 1024);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hour", 7);
+        stats.put("userCount", 12L);
+        stats.put("usageRate", 33.33);
+        stats.put("cost", new BigDecimal("99.00"));
+        stats.put("peakDate", LocalDate.of(2026, 5, 4));
+        stats.put("timeRange", "07:00 - 07:59");
+        stats.put("missing", null);
+        List<Map<String, Object>> value = List.of(stats);
+
+        assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+    }
+
+    @Test
+    void fallsBackToJson() {
+        BinaryCacheSerializer<User> serializer = new BinaryCacheSerializer<>(CacheCodecs.USER, json, 1024);
+        // 不支持的值写为 JSON
+        byte[] bytes = serializer.serialize("x");
+        assertEquals('"', bytes[0]);
+        assertEquals("x", serializer.deserialize(bytes));
+        // 切换编码前写入的 JSON 条目仍可读取
+        User legacy = (User) serializer.deserialize(json.serialize(user(20001)));
+        assertSameUser(user(20001), legacy);
+    }
+}
@@ -0,0 +1,74 @@
+package com.telecom_system.cache;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.telecom_system.config.RedisConfig;
+import com.telecom_system.dto.PageResult;
+import com.telecom_system.entity.User;
+
+/**
+ * 缓存值编码基准：带类型信息的 JSON 与二进制编码（含压缩）的大小与编解码吞吐量对比
+ * 不依赖数据库与 Redis，默认不执行：mvn test -Dtest=CacheCodecBenchmark -Dtelecom.benchmark=true
+ */
+@EnabledIfSystemProperty(named = "telecom.benchmark", matches = "true")
+class CacheCodecBenchmark {
+
+    private static final int WARMUP_MILLIS = 2_000;
+    private static final int MEASURE_MILLIS = 3_000;
+
+    @Test
+    void compareJsonWithBinary() {
+        RedisSerializer<Object> json = RedisConfig.jsonSerializer();
+        RedisSerializer<Object> binaryUser = new BinaryCacheSerializer<>(CacheCodecs.USER, json, 1024);
+        RedisSerializer<Object> binaryList = new BinaryCacheSerializer<>(CacheCodecs.USER_LIST, json, 1024);
+        RedisSerializer<Object> binaryListRaw = new BinaryCacheSerializer<>(CacheCodecs.USER_LIST, json, Integer.MAX_VALUE);
+        RedisSerializer<Object> binaryPage = new BinaryCacheSerializer<>(CacheCodecs.USER_PAGE, json, 1024);
+
+        User user = BinaryCacheSerializerTest.user(20001);
+        PageResult<User> page = new PageResult<>(BinaryCacheSerializerTest.users(20), 10_000, 500, 0, 20, true, false);
+        List<User> all = BinaryCacheSerializerTest.users(10_000);
+
+        System.out.println("-- cache codec benchmark begin --");
+        System.out.printf("%-24s %10s %14s %14s%n", "case", "bytes", "encode ops/s", "decode ops/s");
+        run("users::<id> json", json, user);
+        run("users::<id> binary", binaryUser, user);
+        run("user_pages json", json, page);
+        run("user_pages binary", binaryPage, page);
+        run("user_lists(10k) json", json, all);
+        run("user_lists(10k) binary", binaryListRaw, all);
+        run("user_lists(10k) bin+zip", binaryList, all);
+        System.out.println("-- cache codec benchmark over --\n");
+    }
+
+    private static void run(String name, RedisSerializer<Object> serializer, Object value) {
+        byte[] bytes = serializer.serialize(value);
+        double encode = throughput(() -> serializer.serialize(value));
+        double decode = throughput(() -> serializer.deserialize(bytes));
+        System.out.printf("%-24s %,10d %,14.0f %,14.0f%n", name, bytes.length, encode, decode);
+    }
+
+    // 先预热 WARMUP_MILLIS，再统计 MEASURE_MILLIS 内的调用次数
+    private static double throughput(Supplier<Object> operation) {
+        long sink = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_MILLIS * 1_000_000L;
+        while (System.nanoTime() < warmupEnd) {
+            sink += operation.get().hashCode();
+        }
+        long ops = 0;
+        long start = System.nanoTime();
+        long end = start + MEASURE_MILLIS * 1_000_000L;
+        while (System.nanoTime() < end) {
+            sink += operation.get().hashCode();
+            ops++;
+        }
+        if (sink == 42) {
+            System.out.print("");  // 防止结果被优化掉
+        }
+        return ops * 1e9 / (System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,106 @@
+package com.telecom_system.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.telecom_system.cache.CachePolicy.RefreshStrategy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缓存策略：按缓存名声明与运行时修改，自适应 TTL 随命中延长、随失效缩短
+ */
+class CachePolicyRegistryTest {
+
+    private final CachePolicyRegistry registry = new CachePolicyRegistry(new MockEnvironment()
+            .withProperty("spring.cache.redis.time-to-live", "3600000")
+            .withProperty("telecom.cache.l1.max-entries", "1000")
+            .withProperty("telecom.cache.policies[users].ttl", "1h")
+            .withProperty("telecom.cache.policies[users].adaptive", "true")
+            .withProperty("telecom.cache.policies[users].min-ttl", "10m")
+            .withProperty("telecom.cache.policies[users].max-ttl", "6h")
+            .withProperty("telecom.cache.policies[user_lists].ttl", "10m")
+            .withProperty("telecom.cache.policies[user_lists].max-entries", "50")
+            .withProperty("telecom.cache.policies[user_lists].refresh", "generation")
+            .withProperty("telecom.cache.policies[traffic_reports].ttl", "5m")
+            .withProperty("telecom.cache.policies[traffic_reports].refresh", "refresh-ahead"));
+
+    @Test
+    void bindsDeclaredPoliciesAndFallsBackToDefaults() {
+        CachePolicy lists = registry.policy("user_lists");
+        assertEquals(Duration.ofMinutes(10), lists.ttl());
+        assertEquals(50, lists.maxEntries());
+        assertEquals(RefreshStrategy.GENERATION, lists.refresh());
+        assertEquals(Duration.ofMinutes(10), registry.ttlFor("user_lists", "all:3"));
+
+        // refresh-ahead 缓存在 Redis 中保留到软过期时间的若干倍
+        assertEquals(Duration.ofMinutes(5).multipliedBy(CachePolicyRegistry.STALE_FACTOR),
+                registry.ttlFor("traffic_reports", "all"));
+
+        assertEquals(registry.defaults(), registry.policy("unknown"));
+        assertEquals(Duration.ofHours(1), registry.ttlFor("unknown", "k"));
+        assertEquals(1000, registry.policy("unknown").maxEntries());
+    }
+
+    @Test
+    void adaptiveTtlStretchesForHotKeysAndShrinksForInvalidatedOnes() {
+        for (int i = 0; i < 40; i++) {
+            registry.recordHit("users", "1");
+        }
+        for (int i = 0; i < 3; i++) {
+            registry.recordInvalidation("users", "2");
+        }
+        for (int i = 0; i < 200; i++) {
+            registry.recordInvalidation("users", "3");
+        }
+
+        assertEquals(Duration.ofHours(3), registry.ttlFor("users", 1));
+        assertEquals(Duration.ofMinutes(15), registry.ttlFor("users", 2));
+        // 限制在 [min-ttl, max-ttl] 内
+        assertEquals(Duration.ofMinutes(10), registry.ttlFor("users", 3));
+        assertEquals(Duration.ofHours(1), registry.ttlFor("users", 4));
+        assertEquals("1", registry.hottestKeys("users", 1).getFirst().key());
+
+        // 不启用自适应的缓存不统计
+        registry.recordHit("user_lists", "all:3");
+        assertEquals(0, registry.trackedKeys("user_lists"));
+
+        registry.decay();
+        assertEquals(Duration.ofHours(2), registry.ttlFor("users", 1));
+        registry.decay();
+        registry.decay();
+        // 统计归零的键不再跟踪
+        assertEquals(Duration.ofHours(1), registry.ttlFor("users", 2));
+        assertEquals(2, registry.trackedKeys("users"));
+    }
+
+    @Test
+    void runtimeUpdatesNotifyListenersAndRejectInvalidPolicies() {
+        List<String> changed = new ArrayList<>();
+        registry.onChange((name, policy) -> changed.add(name + ":" + policy.maxEntries()));
+
+        CachePolicy updated = registry.update("users", new CachePolicyRegistry.Spec(null, 5, null, null, null, null));
+        assertEquals(5, updated.maxEntries());
+        assertEquals(Duration.ofHours(1), updated.ttl());
+        assertTrue(updated.adaptive());
+        assertEquals(List.of("users:5"), changed);
+
+        // 只给出 ttl 时自适应范围按新 ttl 重新计算
+        CachePolicy retimed = registry.update("user_lists",
+                new CachePolicyRegistry.Spec(Duration.ofMinutes(20), null, null, null, null, null));
+        assertEquals(Duration.ofMinutes(5), retimed.minTtl());
+        assertEquals(Duration.ofMinutes(80), retimed.maxTtl());
+
+        assertThrows(IllegalArgumentException.class, () -> registry.update("unknown",
+                new CachePolicyRegistry.Spec(Duration.ofMinutes(1), null, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> registry.update("user_lists",
+                new CachePolicyRegistry.Spec(null, null, null, true, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> registry.update("users",
+                new CachePolicyRegistry.Spec(null, 0, null, null, null, null)));
+        assertEquals(2, changed.size());
+    }
+}
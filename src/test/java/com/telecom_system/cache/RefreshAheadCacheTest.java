@@ -0,0 +1,128 @@
+package com.telecom_system.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 统计缓存：冷启动时同一键只计算一次，过期后返回旧值并在后台刷新，其他节点持锁时等待其结果
+ */
+class RefreshAheadCacheTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private RefreshAheadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        cache = new RefreshAheadCache(cacheManager, redisTemplate,
+                new CachePolicyRegistry(new MockEnvironment()), 1.0, 30_000, 2_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void concurrentColdReadsComputeOnce() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("traffic_reports", "k", () -> {
+                        computations.incrementAndGet();
+                        sleep(200);
+                        return "v";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("v", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void expiredEntryIsServedWhileRefreshingInBackground() throws Exception {
+        Cache store = cacheManager.getCache("traffic_reports");
+        Map<String, Object> stale = new HashMap<>();
+        stale.put("value", "old");
+        stale.put("computedAt", 0L);
+        stale.put("expiresAt", System.currentTimeMillis() - 1);
+        stale.put("computeMillis", 10L);
+        store.put("k", stale);
+
+        CountDownLatch computed = new CountDownLatch(1);
+        String value = cache.get("traffic_reports", "k", () -> {
+            sleep(100);
+            computed.countDown();
+            return "new";
+        });
+        assertEquals("old", value);
+
+        assertTrue(computed.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 20 && !"new".equals(cache.get("traffic_reports", "k", () -> "unexpected")); i++) {
+            sleep(20);
+        }
+        assertEquals("new", cache.get("traffic_reports", "k", () -> "unexpected"));
+    }
+
+    @Test
+    void waitsForNodeHoldingTheLock() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        // 模拟另一个节点 150 ms 后写入结果
+        Thread.ofVirtual().start(() -> {
+            sleep(150);
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("value", "from-other-node");
+            entry.put("computedAt", System.currentTimeMillis());
+            entry.put("expiresAt", System.currentTimeMillis() + 300_000);
+            entry.put("computeMillis", 10L);
+            cacheManager.getCache("traffic_reports").put("k", entry);
+        });
+
+        assertEquals("from-other-node", cache.get("traffic_reports", "k", () -> fail("不应在本节点计算")));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.telecom_system.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.mock.env.MockEnvironment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 两级缓存：L1 命中不访问 L2，失效同时作用于两级并广播，其他节点的消息只丢弃 L1
+ */
+class TwoTierCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheInvalidationBus bus = mock(CacheInvalidationBus.class);
+    private final ConcurrentMapCache redisCache = spy(new ConcurrentMapCache("users"));
+
+    private static CachePolicyRegistry policies(int maxEntries) {
+        return new CachePolicyRegistry(
+                new MockEnvironment().withProperty("telecom.cache.l1.max-entries", String.valueOf(maxEntries)));
+    }
+
+    private double count(String name, String tier, String tag, String value) {
+        return meterRegistry.get(name).tags("cache", "users", "tier", tier, tag, value).counter().count();
+    }
+
+    @Test
+    void readsThroughL2AndServesRepeatsFromL1() {
+        TwoTierCache cache = new TwoTierCache(redisCache, policies(10), 60_000_000_000L, bus, meterRegistry);
+        redisCache.put(1, "alice");
+
+        assertEquals("alice", cache.get(1, String.class));
+        assertEquals("alice", cache.get(1, String.class));
+        assertNull(cache.get(2));
+
+        verify(redisCache, times(1)).get(1);
+        assertEquals(1, count("telecom.cache.gets", "l1", "result", "hit"));
+        assertEquals(2, count("telecom.cache.gets", "l1", "result", "miss"));
+        assertEquals(1, count("telecom.cache.gets", "l2", "result", "hit"));
+        assertEquals(1, count("telecom.cache.gets", "l2", "result", "miss"));
+    }
+
+    @Test
+    void evictionAppliesToBothTiersAndIsBroadcast() {
+        TwoTierCache cache = new TwoTierCache(redisCache, policies(10), 60_000_000_000L, bus, meterRegistry);
+        cache.put(1, "alice");
+        verify(bus).publishEvict("users", "1");
+
+        cache.evict(1);
+        assertNull(redisCache.get(1));
+        assertNull(cache.get(1));
+        verify(bus, times(2)).publishEvict("users", "1");
+
+        cache.put(2, "bob");
+        cache.clear();
+        verify(bus).publishClear("users");
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    void remoteInvalidationDropsOnlyLocalCopy() {
+        TwoTierCache cache = new TwoTierCache(redisCache, policies(10), 60_000_000_000L, bus, meterRegistry);
+        cache.put(1, "alice");
+        // 其他节点更新了 L2
+        redisCache.put(1, "alice-updated");
+        assertEquals("alice", cache.get(1, String.class));
+
+        cache.invalidateLocal("1");
+        assertEquals("alice-updated", cache.get(1, String.class));
+        assertEquals(1, count("telecom.cache.evictions", "l1", "cause", "remote"));
+    }
+
+    @Test
+    void l1IsBoundedAndExpires() throws InterruptedException {
+        TwoTierCache bounded = new TwoTierCache(redisCache, policies(2), 60_000_000_000L, bus, meterRegistry);
+        bounded.put(1, "a");
+        bounded.put(2, "b");
+        bounded.get(1);
+        bounded.put(3, "c");
+        assertEquals(1, count("telecom.cache.evictions", "l1", "cause", "size"));
+        // 最久未访问的 2 被淘汰，再次读取回到 L2
+        bounded.get(2);
+        assertEquals(1, count("telecom.cache.gets", "l2", "result", "hit"));
+
+        LocalCache expiring = new LocalCache(10, 1_000_000L, cause -> {});
+        expiring.put("k", "v");
+        Thread.sleep(5);
+        assertNull(expiring.get("k"));
+        assertEquals(0, expiring.size());
+    }
+}
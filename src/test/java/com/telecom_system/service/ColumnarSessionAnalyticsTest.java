@@ -0,0 +1,103 @@
+package com.telecom_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import com.telecom_system.service.ColumnarSessionAnalytics.Columns;
+
+import static com.telecom_system.service.ColumnarSessionAnalytics.OPEN;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列存储的追加 / 截断 / 回填登出时间，以及按登录时间范围统计
+ */
+class ColumnarSessionAnalyticsTest {
+
+    // (账号, 登录秒, 登出秒)，按登录时间有序
+    private static Columns columns(long[]... sessions) {
+        Columns columns = new Columns(2);
+        for (long[] s : sessions) {
+            columns.append((int) s[0], s[1], s[2]);
+        }
+        return columns;
+    }
+
+    @Test
+    void appendGrowsAndKeepsOrder() {
+        Columns c = new Columns(1);
+        for (int i = 0; i < 100; i++) {
+            c.append(1000 + i, 10L * i, OPEN);
+        }
+        assertEquals(100, c.size);
+        assertEquals(1099, c.accounts[99]);
+        assertEquals(0, c.lowerBound(-5));
+        assertEquals(3, c.lowerBound(30));
+        assertEquals(4, c.lowerBound(31));
+        assertEquals(100, c.lowerBound(991));
+    }
+
+    @Test
+    void truncateAndReappendReplacesTail() {
+        Columns c = columns(new long[] {1, 100, 150}, new long[] {2, 200, OPEN}, new long[] {3, 300, OPEN});
+        // 刷新：截断宽限期起点之后的部分，重读尾部后追加
+        c.truncate(c.lowerBound(200));
+        assertEquals(1, c.size);
+        c.append(2, 200, 260);
+        c.append(4, 250, OPEN);
+        c.append(3, 300, OPEN);
+        assertEquals(4, c.size);
+        assertArrayEquals(new int[] {1, 2, 4, 3}, c.accountsBetween(0, 1000));
+        assertEquals(260, c.logouts[1]);
+    }
+
+    @Test
+    void closeMatchesAccountWithinSameSecond() {
+        Columns c = columns(new long[] {1, 100, OPEN}, new long[] {2, 100, OPEN}, new long[] {3, 101, OPEN});
+        c.close(2, 100, 500);
+        assertEquals(OPEN, c.logouts[0]);
+        assertEquals(500, c.logouts[1]);
+        // 快照中不存在的会话被忽略
+        c.close(3, 100, 600);
+        c.close(9, 101, 600);
+        assertEquals(OPEN, c.logouts[2]);
+    }
+
+    @Test
+    void earliestOpenLoginBoundsTheClosedSessionQuery() {
+        Columns c = columns(new long[] {1, 100, 150}, new long[] {2, 200, OPEN}, new long[] {3, 300, OPEN});
+        assertEquals(200, c.earliestOpenLogin(1000));
+        // 截断点之后的会话由尾部重读覆盖，不计入
+        assertEquals(OPEN, c.earliestOpenLogin(200));
+        c.close(2, 200, 400);
+        assertEquals(300, c.earliestOpenLogin(1000));
+        assertEquals(OPEN, new Columns(4).earliestOpenLogin(1000));
+    }
+
+    @Test
+    void accountsBetweenIncludesBothEnds() {
+        Columns c = columns(new long[] {1, 100, OPEN}, new long[] {2, 200, OPEN}, new long[] {3, 200, OPEN},
+                new long[] {4, 300, OPEN});
+        assertArrayEquals(new int[] {2, 3}, c.accountsBetween(200, 200));
+        assertArrayEquals(new int[] {1, 2, 3}, c.accountsBetween(100, 299));
+        assertArrayEquals(new int[0], c.accountsBetween(301, 400));
+        assertArrayEquals(new int[0], c.accountsBetween(250, 150));
+    }
+
+    @Test
+    void summarizeCountsLoginsUsersAndMostActive() {
+        SessionAnalytics.RangeSummary summary = ColumnarSessionAnalytics.summarize(new int[] {7, 3, 7, 5, 3, 9});
+        assertEquals(6, summary.totalLogins());
+        assertEquals(4, summary.uniqueUsers());
+        assertTrue(summary.uniqueUsersExact());
+        // 次数相同时取账号较小者，与 SQL 实现一致
+        assertEquals(3, summary.mostActiveAccountId());
+        assertEquals(2, summary.mostActiveLoginCount());
+
+        SessionAnalytics.RangeSummary single = ColumnarSessionAnalytics.summarize(new int[] {4});
+        assertEquals(1, single.uniqueUsers());
+        assertEquals(4, single.mostActiveAccountId());
+
+        SessionAnalytics.RangeSummary empty = ColumnarSessionAnalytics.summarize(new int[0]);
+        assertEquals(0, empty.totalLogins());
+        assertNull(empty.mostActiveAccountId());
+    }
+}
@@ -0,0 +1,113 @@
+package com.telecom_system.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.telecom_system.event.SessionEvent;
+import com.telecom_system.service.ConcurrencyHistogram.Resolution;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 差分 → 每日检查点 → 逐桶在线数：两种粒度各用自己的检查点，跨零点及最后一小时内下线的会话都不应残留
+ */
+class ConcurrencyHistogramTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 3, 1);
+    private static final LocalDate TODAY = LocalDate.of(2026, 3, 5);
+    private static final LocalDateTime NOW = TODAY.atStartOfDay();
+
+    @Test
+    void sessionCrossingMidnight() {
+        List<SessionEvent> events = List.of(
+                SessionEvent.login(1, START.atTime(22, 30)),
+                SessionEvent.logout(1, START.plusDays(1).atTime(1, 10)));
+
+        for (Resolution resolution : Resolution.values()) {
+            Map<LocalDate, Long> checkpoints = checkpoints(resolution, events);
+            assertEquals(1L, checkpoints.get(START.plusDays(1)), resolution.name());
+            assertEquals(0L, checkpoints.get(START.plusDays(2)), resolution.name());
+            assertTrue(Arrays.stream(day(resolution, events, START.plusDays(2))).allMatch(c -> c == 0),
+                    resolution.name());
+        }
+
+        long[] hours = day(Resolution.HOUR, events, START.plusDays(1));
+        assertArrayEquals(new long[] { 1, 1, 0 }, Arrays.copyOf(hours, 3));
+
+        long[] minutes = day(Resolution.MINUTE, events, START.plusDays(1));
+        // 01:10 这一分钟仍在线
+        assertEquals(1, minutes[70]);
+        assertEquals(0, minutes[71]);
+        assertEquals(71, Arrays.stream(minutes).sum());
+    }
+
+    @Test
+    void sessionEndingInLastHourOfDay() {
+        List<SessionEvent> events = List.of(
+                SessionEvent.login(1, START.atTime(10, 0)),
+                SessionEvent.logout(1, START.atTime(23, 40)));
+
+        // 小时差分的 -1 落在次日零点，分钟差分的 -1 在当天 23:41
+        assertEquals(1L, checkpoints(Resolution.HOUR, events).get(START.plusDays(1)));
+        assertEquals(0L, checkpoints(Resolution.MINUTE, events).get(START.plusDays(1)));
+
+        long[] hours = day(Resolution.HOUR, events, START);
+        assertEquals(1, hours[23]);
+        long[] minutes = day(Resolution.MINUTE, events, START);
+        assertEquals(1, minutes[23 * 60 + 40]);
+        assertEquals(0, minutes[23 * 60 + 41]);
+
+        for (LocalDate day = START.plusDays(1); day.isBefore(TODAY); day = day.plusDays(1)) {
+            for (Resolution resolution : Resolution.values()) {
+                assertTrue(Arrays.stream(day(resolution, events, day)).allMatch(c -> c == 0),
+                        resolution.name() + " " + day);
+            }
+        }
+    }
+
+    @Test
+    void bucketsAfterNowAreUnknown() {
+        long[] counts = ConcurrencyHistogram.accumulate(Resolution.HOUR, NOW.minusHours(1), 2, new long[] { 0, 1 }, NOW);
+        assertArrayEquals(new long[] { 2, 3 }, counts);
+        counts = ConcurrencyHistogram.accumulate(Resolution.HOUR, NOW, 2, new long[] { 0, 1 }, NOW.minusMinutes(1));
+        assertArrayEquals(new long[] { -1, -1 }, counts);
+    }
+
+    // 按事件生成某一粒度的差分（与 onSessionEvent 一致）
+    private static TreeMap<LocalDateTime, Long> deltas(Resolution resolution, List<SessionEvent> events) {
+        TreeMap<LocalDateTime, Long> deltas = new TreeMap<>();
+        for (SessionEvent event : events) {
+            deltas.merge(ConcurrencyHistogram.deltaBucket(resolution, event),
+                    event.type() == SessionEvent.Type.LOGIN ? 1L : -1L, Long::sum);
+        }
+        return deltas;
+    }
+
+    // 从 START 零点（在线数 0）起推算的检查点，与 computeCheckpoints 按日汇总差分的方式一致
+    private static Map<LocalDate, Long> checkpoints(Resolution resolution, List<SessionEvent> events) {
+        Map<LocalDate, Long> net = new HashMap<>();
+        deltas(resolution, events).forEach((bucket, delta) -> net.merge(bucket.toLocalDate(), delta, Long::sum));
+        Map<LocalDate, Long> checkpoints = new HashMap<>(ConcurrencyHistogram.rollForward(START, 0, TODAY, net));
+        checkpoints.put(START, 0L);
+        return checkpoints;
+    }
+
+    // 某天每个桶的在线数，与 series 一致：当天零点的检查点 + 当天逐桶差分
+    private static long[] day(Resolution resolution, List<SessionEvent> events, LocalDate day) {
+        ChronoUnit unit = resolution == Resolution.HOUR ? ChronoUnit.HOURS : ChronoUnit.MINUTES;
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        long[] deltas = new long[(int) unit.between(from, to)];
+        deltas(resolution, events).subMap(from, to)
+                .forEach((bucket, delta) -> deltas[(int) unit.between(from, bucket)] += delta);
+        return ConcurrencyHistogram.accumulate(resolution, from, checkpoints(resolution, events).get(day), deltas, NOW);
+    }
+}
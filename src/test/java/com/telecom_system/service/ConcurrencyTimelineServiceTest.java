@@ -0,0 +1,95 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.telecom_system.dto.ConcurrencyTimeline;
+import com.telecom_system.service.ConcurrencyTimelineService.Sweep;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 扫描线：窗口前上线的会话从窗口起点计入，边界上下线只计入前一个桶，
+ * 同一时刻先下线后上线（按 t, d 排序），峰值取首次达到的时刻
+ */
+class ConcurrencyTimelineServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 8, 0);
+    private static final long MINUTE = 60_000;
+    private static final long BUCKET = 15 * MINUTE;
+
+    // 15 分钟一桶；events 为 (偏移分钟, ±1)，已按 t, d 排序
+    private static ConcurrencyTimeline sweep(long windowMinutes, long[]... events) {
+        Sweep sweep = new Sweep(START, windowMinutes * MINUTE, BUCKET, (int) ((windowMinutes * MINUTE + BUCKET - 1) / BUCKET));
+        for (long[] e : events) {
+            sweep.event(e[0] * MINUTE, (int) e[1]);
+        }
+        return sweep.finish(START.plusMinutes(windowMinutes), BUCKET / 1000);
+    }
+
+    private static List<Integer> maxima(ConcurrencyTimeline timeline) {
+        return timeline.buckets().stream().map(ConcurrencyTimeline.Bucket::max).toList();
+    }
+
+    private static List<Double> averages(ConcurrencyTimeline timeline) {
+        return timeline.buckets().stream().map(ConcurrencyTimeline.Bucket::avg).toList();
+    }
+
+    @Test
+    void sessionOpenedBeforeWindowCountsFromStart() {
+        // 查询把窗口前的上线时间截到窗口起点；即便传入负偏移也按起点计
+        ConcurrencyTimeline timeline = sweep(60, new long[] {-30, 1}, new long[] {20, -1});
+
+        assertEquals(List.of(1, 1, 0, 0), maxima(timeline));
+        assertEquals(List.of(1.0, 0.33, 0.0, 0.0), averages(timeline));
+        assertEquals(1, timeline.peak());
+        assertEquals(START, timeline.peakTime());
+        assertEquals(START.plusMinutes(45), timeline.buckets().get(3).start());
+    }
+
+    @Test
+    void logoutOnBucketBoundaryStaysInPreviousBucket() {
+        // [5, 15) 在第 15 分钟下线：第二个桶里没有在线时刻
+        ConcurrencyTimeline timeline = sweep(60, new long[] {5, 1}, new long[] {15, -1});
+
+        assertEquals(List.of(1, 0, 0, 0), maxima(timeline));
+        assertEquals(List.of(0.67, 0.0, 0.0, 0.0), averages(timeline));
+
+        // 在边界上线则从下一个桶开始计入
+        ConcurrencyTimeline loginOnBoundary = sweep(60, new long[] {30, 1});
+        assertEquals(List.of(0, 0, 1, 1), maxima(loginOnBoundary));
+        assertEquals(START.plusMinutes(30), loginOnBoundary.peakTime());
+    }
+
+    @Test
+    void logoutBeforeLoginAtSameInstant() {
+        // A [0, 10) 与 B [10, 20) 首尾相接：同一时刻先处理下线，并发数不会短暂变成 2
+        ConcurrencyTimeline timeline = sweep(60,
+                new long[] {0, 1}, new long[] {10, -1}, new long[] {10, 1}, new long[] {20, -1});
+
+        assertEquals(1, timeline.peak());
+        assertEquals(List.of(1, 1, 0, 0), maxima(timeline));
+        assertEquals(List.of(1.0, 0.33, 0.0, 0.0), averages(timeline));
+    }
+
+    @Test
+    void peakIsFirstInstantOfHighestConcurrency() {
+        // 窗口 50 分钟：最后一个桶只有 5 分钟，平均值按实际长度计算
+        ConcurrencyTimeline timeline = sweep(50,
+                new long[] {0, 1}, new long[] {12, 1}, new long[] {20, -1}, new long[] {40, 1},
+                new long[] {41, 1}, new long[] {44, -1}, new long[] {46, 1});
+
+        assertEquals(3, timeline.peak());
+        assertEquals(START.plusMinutes(41), timeline.peakTime());
+        assertEquals(List.of(2, 2, 3, 3), maxima(timeline));
+        // 第 4 个桶 [45, 50)：45~46 为 2，46~50 为 3
+        assertEquals(2.8, timeline.buckets().get(3).avg());
+
+        ConcurrencyTimeline empty = sweep(50);
+        assertEquals(0, empty.peak());
+        assertNull(empty.peakTime());
+        assertEquals(4, empty.buckets().size());
+    }
+}
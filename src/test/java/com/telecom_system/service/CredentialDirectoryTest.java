@@ -0,0 +1,104 @@
+package com.telecom_system.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.telecom_system.entity.User;
+import com.telecom_system.repository.AdminRepository;
+import com.telecom_system.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 凭据索引：已知标识以索引为准，未知标识只补查一次凭据列并短暂缓存查不到的结果
+ */
+class CredentialDirectoryTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CredentialDirectory directory =
+            new CredentialDirectory(userRepository, mock(AdminRepository.class), 60_000);
+
+    private static User user(String password) {
+        User user = new User();
+        user.setAccount(1001);
+        user.setName("alice");
+        user.setPassword(password);
+        user.setBalance(BigDecimal.ZERO);
+        return user;
+    }
+
+    @Test
+    void mismatchOnKnownIdentifierIsRejectedWithoutDatabase() {
+        when(userRepository.findAllCredentials()).thenReturn(List.<Object[]>of(new Object[] {1001, "alice", "old"}));
+        directory.reconcile();
+
+        assertEquals(Optional.of(1001), directory.authenticateUser("alice", "old"));
+        assertEquals(Optional.of(1001), directory.authenticateUser("1001", "old"));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.empty(), directory.authenticateUser("alice", "guess" + i));
+            assertEquals(Optional.empty(), directory.authenticateUser("1001", "guess" + i));
+        }
+        verify(userRepository, never()).findCredentials(any(), any());
+        verify(userRepository, never()).findUserForLogin(any());
+
+        // 其他节点改了密码：对账后新密码生效
+        when(userRepository.findAllCredentials()).thenReturn(List.<Object[]>of(new Object[] {1001, "alice", "new"}));
+        directory.reconcile();
+        assertEquals(Optional.of(1001), directory.authenticateUser("alice", "new"));
+        assertEquals(Optional.empty(), directory.authenticateUser("alice", "old"));
+    }
+
+    @Test
+    void unknownIdentifierIsLookedUpOnceAndNegativelyCached() {
+        when(userRepository.findAllCredentials()).thenReturn(List.of());
+        directory.reconcile();
+
+        // 其他节点刚创建的用户：一次凭据查询后写入索引
+        when(userRepository.findCredentials(null, "bob")).thenReturn(List.<Object[]>of(new Object[] {1002, "bob", "pw"}));
+        assertEquals(Optional.of(1002), directory.authenticateUser("bob", "pw"));
+        assertEquals(Optional.of(1002), directory.authenticateUser("1002", "pw"));
+        verify(userRepository, times(1)).findCredentials(any(), any());
+
+        // 不存在的标识在缓存期内不再查询
+        when(userRepository.findCredentials(null, "mallory")).thenReturn(List.of());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.empty(), directory.authenticateUser("mallory", "pw" + i));
+        }
+        verify(userRepository, times(1)).findCredentials(null, "mallory");
+        verify(userRepository, never()).findUserForLogin(any());
+    }
+
+    @Test
+    void accountMatchTakesPrecedenceOverName() {
+        when(userRepository.findAllCredentials()).thenReturn(List.of());
+        directory.reconcile();
+        // 用户名为 "1003" 的另一个用户不参与账号 1003 的校验
+        when(userRepository.findCredentials(1003, "1003")).thenReturn(List.<Object[]>of(
+                new Object[] {1004, "1003", "other"}, new Object[] {1003, "carol", "pw"}));
+        assertEquals(Optional.empty(), directory.authenticateUser("1003", "other"));
+        assertEquals(Optional.of(1003), directory.authenticateUser("carol", "pw"));
+    }
+
+    @Test
+    void savedPasswordReplacesEntryAndDeletedUserIsDropped() {
+        when(userRepository.findAllCredentials()).thenReturn(List.<Object[]>of(new Object[] {1001, "alice", "old"}));
+        directory.reconcile();
+
+        // 无事务时立即写入新值
+        directory.userSaved(user("new"));
+        assertEquals(Optional.of(1001), directory.authenticateUser("alice", "new"));
+        assertEquals(Optional.empty(), directory.authenticateUser("alice", "old"));
+
+        directory.userDeleted(1001);
+        when(userRepository.findCredentials(null, "alice")).thenReturn(List.of());
+        assertEquals(Optional.empty(), directory.authenticateUser("alice", "new"));
+
+        // 本节点重新创建同名用户后不受未知标识缓存影响
+        directory.userSaved(user("again"));
+        assertEquals(Optional.of(1001), directory.authenticateUser("alice", "again"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.telecom_system.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.telecom_system.dto.Dashboard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 仪表盘各部分并发执行：总耗时接近最慢的部分，超时与失败的部分单独标记
+ */
+class DashboardServiceTest {
+
+    private final DashboardService dashboardService = new DashboardService(null, 2000);
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    void latencyFollowsSlowestSection() {
+        Map<String, Callable<?>> sections = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            sections.put("s" + i, () -> {
+                Thread.sleep(200);
+                return index;
+            });
+        }
+        Dashboard dashboard = dashboardService.run(sections, Duration.ofSeconds(2));
+
+        assertTrue(dashboard.complete());
+        // 串行执行需要 1000 ms
+        assertTrue(dashboard.elapsedMs() < 800, "elapsed " + dashboard.elapsedMs() + " ms");
+        for (int i = 0; i < 5; i++) {
+            Dashboard.Section section = dashboard.sections().get("s" + i);
+            assertEquals(DashboardService.OK, section.status());
+            assertEquals(i, section.data());
+        }
+    }
+
+    @Test
+    void slowAndFailingSectionsReturnPartialResult() {
+        Map<String, Callable<?>> sections = new LinkedHashMap<>();
+        sections.put("slow", () -> {
+            Thread.sleep(5000);
+            return "late";
+        });
+        sections.put("failing", () -> {
+            throw new IllegalStateException("boom");
+        });
+        sections.put("fast", () -> "ok");
+
+        Dashboard dashboard = dashboardService.run(sections, Duration.ofMillis(300));
+
+        assertFalse(dashboard.complete());
+        assertTrue(dashboard.elapsedMs() < 2000, "elapsed " + dashboard.elapsedMs() + " ms");
+        assertEquals(DashboardService.TIMEOUT, dashboard.sections().get("slow").status());
+        assertNull(dashboard.sections().get("slow").data());
+        assertEquals(DashboardService.ERROR, dashboard.sections().get("failing").status());
+        assertEquals("boom", dashboard.sections().get("failing").error());
+        assertEquals("ok", dashboard.sections().get("fast").data());
+    }
+}
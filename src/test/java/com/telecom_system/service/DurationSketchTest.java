@@ -0,0 +1,71 @@
+package com.telecom_system.service;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 草图分位数的相对误差应在 RELATIVE_ACCURACY 以内，且合并结果与整体构建一致
+ */
+class DurationSketchTest {
+
+    @Test
+    void quantilesWithinRelativeAccuracy() {
+        Random random = new Random(42L);
+        long[] seconds = new long[20000];
+        DurationSketch sketch = new DurationSketch();
+        for (int i = 0; i < seconds.length; i++) {
+            // 对数分布：几秒到几十小时
+            seconds[i] = 1 + (long) Math.exp(random.nextDouble() * Math.log(200000));
+            sketch.add(seconds[i]);
+        }
+        Arrays.sort(seconds);
+        for (double q : new double[] { 0.0, 0.5, 0.9, 0.95, 0.99, 1.0 }) {
+            long exact = seconds[(int) Math.floor(q * (seconds.length - 1))];
+            long estimate = sketch.quantile(q);
+            // 代表值取整到秒，额外允许 1 秒
+            assertTrue(Math.abs(estimate - exact) <= exact * DurationSketch.RELATIVE_ACCURACY + 1,
+                    "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+    }
+
+    @Test
+    void mergeEqualsSingleSketch() {
+        Random random = new Random(7L);
+        DurationSketch whole = new DurationSketch();
+        DurationSketch left = new DurationSketch();
+        DurationSketch right = new DurationSketch();
+        for (int i = 0; i < 5000; i++) {
+            long s = random.nextInt(36000);
+            whole.add(s);
+            (i % 3 == 0 ? left : right).add(s);
+        }
+        left.merge(right);
+        assertEquals(whole.count(), left.count());
+        for (double q : new double[] { 0.5, 0.95, 0.99 }) {
+            assertEquals(whole.quantile(q), left.quantile(q));
+        }
+    }
+
+    @Test
+    void bucketCoversStatedRangeWithinRelativeAccuracy() {
+        for (long s : new long[] { 1, 2, 3, 59, 60, 61, 3600, 86399, 86400, 315_360_000 }) {
+            int k = DurationSketch.bucketOf(s);
+            double gamma = (1 + DurationSketch.RELATIVE_ACCURACY) / (1 - DurationSketch.RELATIVE_ACCURACY);
+            // 桶 k 覆盖 (γ^(k-2), γ^(k-1)]（浮点比较留少量余量）
+            assertTrue(s > Math.pow(gamma, k - 2) * (1 - 1e-9) && s <= Math.pow(gamma, k - 1) * (1 + 1e-9), "s=" + s);
+            assertTrue(Math.abs(DurationSketch.valueOf(k) - s) <= s * DurationSketch.RELATIVE_ACCURACY + 1e-9, "s=" + s);
+        }
+    }
+
+    @Test
+    void zeroAndEmpty() {
+        assertEquals(0, new DurationSketch().quantile(0.5));
+        assertEquals(0, DurationSketch.bucketOf(0));
+        assertEquals(1, DurationSketch.bucketOf(1));
+        assertEquals(0, new DurationSketch().add(0).quantile(0.99));
+    }
+}
@@ -0,0 +1,104 @@
+package com.telecom_system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.telecom_system.controller.GlobalExceptionHandler;
+import com.telecom_system.dto.ApiError;
+import com.telecom_system.dto.CursorPage;
+import com.telecom_system.dto.LoginRecordRow;
+import com.telecom_system.repository.LoginInfoRepository;
+import com.telecom_system.repository.UserRepository;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 登录历史游标分页：游标可原样带回下一页，换账号或换排序方向的游标、损坏的游标都被拒绝（400）
+ */
+class LoginInfoServiceTest {
+
+    private static final LocalDateTime HORIZON = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_456_000);
+
+    private final LoginInfoRepository loginInfoRepository = mock(LoginInfoRepository.class);
+    private final LoginInfoService service;
+
+    LoginInfoServiceTest() {
+        LoginInfoPartitionService partitions = mock(LoginInfoPartitionService.class);
+        when(partitions.queryHorizon()).thenReturn(HORIZON);
+        service = new LoginInfoService(loginInfoRepository, mock(UserRepository.class), mock(SessionEventWriter.class),
+                mock(OnlineSessionRegistry.class), partitions, mock(LoginRollupService.class),
+                mock(ApplicationEventPublisher.class), mock(SessionAnalytics.class));
+    }
+
+    private static LoginRecordRow row(int minutesBefore) {
+        LocalDateTime login = T0.minusMinutes(minutesBefore);
+        return new LoginRecordRow(1001, login, login.plusSeconds(30));
+    }
+
+    @Test
+    void cursorRoundTripContinuesAfterLastRow() {
+        when(loginInfoRepository.findHistoryDesc(1001, HORIZON, Limit.of(3)))
+                .thenReturn(List.of(row(0), row(10), row(20)));
+        CursorPage<LoginRecordRow> first = service.findHistoryPage(1001, null, 2, "desc");
+        assertEquals(List.of(row(0), row(10)), first.content());
+        assertTrue(first.hasMore());
+        assertNotNull(first.nextCursor());
+
+        when(loginInfoRepository.findHistoryBefore(1001, HORIZON, T0.minusMinutes(10), Limit.of(3)))
+                .thenReturn(List.of(row(20)));
+        CursorPage<LoginRecordRow> second = service.findHistoryPage(1001, first.nextCursor(), 2, "desc");
+        assertEquals(List.of(row(20)), second.content());
+        assertFalse(second.hasMore());
+        assertNull(second.nextCursor());
+
+        // 正序翻页：游标之后严格大于上一页最后一条
+        when(loginInfoRepository.findHistoryAsc(1001, HORIZON, Limit.of(2))).thenReturn(List.of(row(20), row(10)));
+        String ascCursor = service.findHistoryPage(1001, null, 1, "ASC").nextCursor();
+        service.findHistoryPage(1001, ascCursor, 1, "asc");
+        verify(loginInfoRepository).findHistoryAfter(1001, T0.minusMinutes(20), Limit.of(2));
+    }
+
+    @Test
+    void cursorFromAnotherAccountOrDirectionIsRejected() {
+        when(loginInfoRepository.findHistoryDesc(eq(1001), any(), any())).thenReturn(List.of(row(0), row(10)));
+        String cursor = service.findHistoryPage(1001, null, 1, "desc").nextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> service.findHistoryPage(1002, cursor, 1, "desc"));
+        assertThrows(IllegalArgumentException.class, () -> service.findHistoryPage(1001, cursor, 1, "asc"));
+        verify(loginInfoRepository, never()).findHistoryBefore(any(), any(), any(), any());
+        verify(loginInfoRepository, never()).findHistoryAfter(any(), any(), any());
+    }
+
+    @Test
+    void malformedCursorMapsToBadRequest() {
+        String notBase64 = "%%%not-base64%%%";
+        String badTime = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("1001|desc|yesterday".getBytes(StandardCharsets.UTF_8));
+        String missingPart = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("1001|desc".getBytes(StandardCharsets.UTF_8));
+
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(mock(ExceptionLoggingService.class));
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getRequestURI()).thenReturn("/api/login-records/user/1001/page");
+        for (String cursor : List.of(notBase64, badTime, missingPart)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> service.findHistoryPage(1001, cursor, 10, "desc"));
+            ResponseEntity<ApiError> response = handler.handleIllegalArgument(e, request);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals("无效的分页游标", response.getBody().getMessage());
+        }
+        verifyNoInteractions(loginInfoRepository);
+    }
+}
@@ -0,0 +1,138 @@
+package com.telecom_system.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 日汇总 + 尾部原始记录的统计结果应与直接遍历全部原始记录一致
+ */
+class LoginStatsAccumulatorTest {
+
+    private record Session(LocalDateTime login, LocalDateTime logout) {}
+
+    @Test
+    void rollupPlusTailMatchesRawSessions() {
+        Random random = new Random(20240601L);
+        for (int round = 0; round < 50; round++) {
+            List<Session> sessions = randomSessions(random, 1 + random.nextInt(300));
+            LocalDateTime watermark = LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(random.nextInt(24 * 60));
+
+            LoginStatsAccumulator raw = new LoginStatsAccumulator();
+            sessions.forEach(s -> raw.addSession(s.login(), s.logout()));
+
+            assertEquals(raw.toStatistics(), rollupAndTail(sessions, watermark).toStatistics(), "round " + round);
+        }
+    }
+
+    @Test
+    void emptyHistory() {
+        Map<String, Object> stats = rollupAndTail(List.of(), LocalDateTime.now()).toStatistics();
+        assertEquals(0L, stats.get("totalSessions"));
+        assertEquals(0.0, stats.get("totalOnlineHours"));
+        assertNull(stats.get("lastLoginTime"));
+        assertFalse(stats.containsKey("longestSessionHours"));
+    }
+
+    /**
+     * 会话时长不足整分钟（含不足一分钟的短会话）时，仍与原先逐条按分钟计算的结果一致
+     */
+    @Test
+    void matchesLegacyComputationForSubMinuteDurations() {
+        Random random = new Random(7L);
+        for (int round = 0; round < 200; round++) {
+            List<Session> sessions = randomSessions(random, 1 + random.nextInt(200));
+            LocalDateTime watermark = LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(random.nextInt(24 * 60));
+
+            Map<String, Object> legacy = legacyStatistics(sessions);
+            Map<String, Object> rolled = rollupAndTail(sessions, watermark).toStatistics();
+            for (String key : List.of("totalSessions", "completedSessions", "activeSessions", "totalOnlineHours",
+                    "averageSessionHours", "lastLoginTime", "longestSessionHours")) {
+                assertEquals(legacy.get(key), rolled.get(key), key + " round " + round);
+            }
+        }
+    }
+
+    // 模拟汇总任务：logout_time 早于水位线的会话按 (登录日期) 汇总，其余作为尾部原始记录
+    private static LoginStatsAccumulator rollupAndTail(List<Session> sessions, LocalDateTime watermark) {
+        Map<LocalDate, long[]> daily = new TreeMap<>();
+        Map<LocalDate, LocalDateTime> lastLogin = new HashMap<>();
+        Map<Integer, Long> durationBuckets = new TreeMap<>();
+        LoginStatsAccumulator accumulator = new LoginStatsAccumulator();
+        for (Session s : sessions) {
+            if (s.logout() != null && s.logout().isBefore(watermark)) {
+                long minutes = LoginStatsAccumulator.sessionMinutes(s.login(), s.logout());
+                long[] row = daily.computeIfAbsent(s.login().toLocalDate(), d -> new long[3]);
+                row[0]++;
+                row[1] += minutes;
+                row[2] = Math.max(row[2], minutes);
+                durationBuckets.merge(DurationSketch.bucketOf(LoginStatsAccumulator.sessionSeconds(s.login(), s.logout())),
+                        1L, Long::sum);
+                lastLogin.merge(s.login().toLocalDate(), s.login(), (a, b) -> a.isAfter(b) ? a : b);
+            } else {
+                accumulator.addSession(s.login(), s.logout());
+            }
+        }
+        daily.forEach((day, row) -> accumulator.addDaily(day, row[0], row[1], row[2], lastLogin.get(day)));
+        durationBuckets.forEach(accumulator::addDurationBucket);
+        return accumulator;
+    }
+
+    // 时长任意到微秒；约三分之一的会话不足一分钟
+    private static List<Session> randomSessions(Random random, int count) {
+        List<Session> sessions = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2023, 12, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime login = base.plusSeconds(random.nextInt(90 * 24 * 3600)).plusNanos(random.nextInt(1000) * 1000L);
+            LocalDateTime logout;
+            if (random.nextInt(20) == 0) {
+                logout = null;
+            } else if (random.nextInt(3) == 0) {
+                logout = login.plusSeconds(random.nextInt(60)).plusNanos(random.nextInt(1_000_000) * 1000L);
+            } else {
+                logout = login.plusSeconds(random.nextInt(36000)).plusNanos(random.nextInt(1000) * 1000L);
+            }
+            sessions.add(new Session(login, logout));
+        }
+        return sessions;
+    }
+
+    // 原 getUserLoginStatistics 的逐条计算（按分钟）
+    private static Map<String, Object> legacyStatistics(List<Session> sessions) {
+        Map<String, Object> stats = new HashMap<>();
+        long totalSessions = sessions.size();
+        long completedSessions = sessions.stream().filter(s -> s.logout() != null).count();
+        long activeSessions = sessions.stream().filter(s -> s.logout() == null).count();
+        double totalOnlineHours = sessions.stream()
+                .filter(s -> s.logout() != null)
+                .mapToDouble(s -> Duration.between(s.login(), s.logout()).toMinutes() / 60.0)
+                .sum();
+        double averageSessionHours = completedSessions > 0 ? totalOnlineHours / completedSessions : 0;
+        Optional<LocalDateTime> lastLoginTime = sessions.stream().map(Session::login).max(LocalDateTime::compareTo);
+        Optional<Session> longest = sessions.stream()
+                .filter(s -> s.logout() != null)
+                .max((a, b) -> Long.compare(Duration.between(a.login(), a.logout()).toMinutes(),
+                        Duration.between(b.login(), b.logout()).toMinutes()));
+
+        stats.put("totalSessions", totalSessions);
+        stats.put("completedSessions", completedSessions);
+        stats.put("activeSessions", activeSessions);
+        stats.put("totalOnlineHours", Math.round(totalOnlineHours * 100.0) / 100.0);
+        stats.put("averageSessionHours", Math.round(averageSessionHours * 100.0) / 100.0);
+        stats.put("lastLoginTime", lastLoginTime.orElse(null));
+        longest.ifPresent(s -> stats.put("longestSessionHours",
+                Math.round(Duration.between(s.login(), s.logout()).toMinutes() / 60.0 * 100.0) / 100.0));
+        return stats;
+    }
+}
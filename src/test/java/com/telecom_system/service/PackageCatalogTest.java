@@ -0,0 +1,89 @@
+package com.telecom_system.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.telecom_system.entity.Package;
+import com.telecom_system.repository.PackageRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 套餐目录：按 ID 直接下标（或二分）查找，变更后整体替换快照并通知其他节点，读取不访问数据库
+ */
+class PackageCatalogTest {
+
+    private final PackageRepository packageRepository = mock(PackageRepository.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final PackageCatalog catalog = new PackageCatalog(packageRepository, mock(PlatformTransactionManager.class),
+            redisTemplate, mock(RedisMessageListenerContainer.class));
+
+    private static List<PackageCatalog.Entry> entries(int... ids) {
+        List<PackageCatalog.Entry> entries = new ArrayList<>();
+        for (int id : ids) {
+            entries.add(new PackageCatalog.Entry(id, "100 hours", BigDecimal.TEN, 360_000));
+        }
+        return entries;
+    }
+
+    @Test
+    void looksUpDenseAndSparseIds() {
+        PackageCatalog.Snapshot dense = new PackageCatalog.Snapshot(entries(3, 4, 7));
+        assertEquals(7, dense.get(7).id());
+        assertNull(dense.get(5));
+        assertNull(dense.get(2));
+        assertNull(dense.get(8));
+        assertNull(dense.get(Integer.MIN_VALUE));
+
+        PackageCatalog.Snapshot sparse = new PackageCatalog.Snapshot(entries(1, 500_000, 999_999));
+        assertEquals(500_000, sparse.get(500_000).id());
+        assertNull(sparse.get(2));
+
+        assertNull(new PackageCatalog.Snapshot(List.of()).get(1));
+    }
+
+    @Test
+    void readsServeFromSnapshotUntilChanged() {
+        when(packageRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new Package(1, "100 hours", new BigDecimal("20.00")),
+                new Package(2, "300:00:00", new BigDecimal("48.00"))));
+        catalog.refresh();
+
+        assertEquals(2, catalog.size());
+        assertEquals(1_080_000, catalog.find(2).orElseThrow().durationSeconds());
+        assertTrue(catalog.find(3).isEmpty());
+        assertTrue(catalog.find(null).isEmpty());
+        verify(packageRepository, times(1)).findAll(any(Sort.class));
+
+        // 返回的实体是副本
+        catalog.find(1).orElseThrow().toPackage().setCost(BigDecimal.ONE);
+        assertEquals(new BigDecimal("20.00"), catalog.find(1).orElseThrow().cost());
+
+        when(packageRepository.findAll(any(Sort.class))).thenReturn(List.of(
+                new Package(1, "100 hours", new BigDecimal("20.00"))));
+        // 没有事务时立即重新加载并广播
+        catalog.changed();
+        assertEquals(1, catalog.size());
+        assertTrue(catalog.find(2).isEmpty());
+        verify(redisTemplate).convertAndSend("telecom:packages:changed", "changed");
+    }
+
+    @Test
+    void failedReloadKeepsCurrentSnapshot() {
+        when(packageRepository.findAll(any(Sort.class)))
+                .thenReturn(List.of(new Package(1, "100 hours", BigDecimal.TEN)))
+                .thenThrow(new RuntimeException("数据库不可用"));
+        catalog.refresh();
+        catalog.refresh();
+        assertEquals(1, catalog.size());
+    }
+}
@@ -0,0 +1,148 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.telecom_system.event.SessionEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 会话事件写入器：队列满时调用线程写入的事件排在队列中更早的事件之后；
+ * 暂时性失败整批重试不丢弃，只有违反约束的事件被跳过
+ */
+class SessionEventWriterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void overflowIsWrittenAfterQueuedEvents() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch firstFlushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstFlush = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            for (Object[] args : (List<Object[]>) invocation.getArgument(1)) {
+                written.add(sql.contains("INSERT INTO login_info") ? "LOGIN:" + args[0] : "LOGOUT:" + args[1]);
+            }
+            if (written.size() == 1) {
+                firstFlushStarted.countDown();
+                releaseFirstFlush.await(5, TimeUnit.SECONDS);
+            }
+            return new int[0];
+        });
+
+        // 队列容量 1，不等待空位
+        SessionEventWriter writer = new SessionEventWriter(jdbcTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 1, 10, 1, 0, 1, 2);
+        writer.start();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            writer.submit(SessionEvent.login(1, now));
+            assertTrue(firstFlushStarted.await(5, TimeUnit.SECONDS));
+
+            // 后台线程正在写第一批：账号 2 的登录进入队列，登出因队列已满由调用线程写入
+            writer.submit(SessionEvent.login(2, now));
+            Thread overflow = new Thread(() -> writer.submit(SessionEvent.logout(2, now.plusMinutes(1))));
+            overflow.start();
+            Thread.sleep(100);
+            releaseFirstFlush.countDown();
+            overflow.join(5000);
+        } finally {
+            writer.stop();
+        }
+        assertEquals(List.of("LOGIN:1", "LOGIN:2", "LOGOUT:2"), written);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void transientFailureIsRetriedWithoutDropping() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger(4);
+        CountDownLatch done = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new QueryTimeoutException("statement timeout");
+            }
+            for (Object[] args : (List<Object[]>) invocation.getArgument(1)) {
+                written.add("LOGIN:" + args[0]);
+            }
+            done.countDown();
+            return new int[0];
+        });
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SessionEventWriter writer = new SessionEventWriter(jdbcTemplate, mock(PlatformTransactionManager.class),
+                registry, 10, 10, 1, 0, 1, 2);
+        writer.start();
+        try {
+            writer.submit(SessionEvent.login(1, LocalDateTime.now()));
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            writer.stop();
+        }
+        assertEquals(List.of("LOGIN:1"), written);
+        assertEquals(4, registry.counter("telecom.session.writer.retries").count());
+        assertEquals(0, registry.counter("telecom.session.writer.events", "result", "failed").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void constraintViolationDropsOnlyTheOffendingEvent() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(args -> args[0].equals(2))) {
+                throw new DataIntegrityViolationException("login_info_account_id_fkey");
+            }
+            rows.forEach(args -> written.add("LOGIN:" + args[0]));
+            return new int[0];
+        });
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SessionEventWriter writer = new SessionEventWriter(jdbcTemplate, mock(PlatformTransactionManager.class),
+                registry, 10, 10, 50, 0, 1, 2);
+        writer.start();
+        LocalDateTime now = LocalDateTime.now();
+        writer.submit(SessionEvent.login(1, now));
+        writer.submit(SessionEvent.login(2, now));
+        writer.submit(SessionEvent.login(3, now));
+        writer.stop();
+
+        assertEquals(List.of("LOGIN:1", "LOGIN:3"), written);
+        assertEquals(1, registry.counter("telecom.session.writer.events", "result", "failed").count());
+        assertEquals(0, registry.counter("telecom.session.writer.retries").count());
+    }
+
+    @Test
+    void failureAfterStopGivesUpAfterBoundedAttempts() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("down"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SessionEventWriter writer = new SessionEventWriter(jdbcTemplate, mock(PlatformTransactionManager.class),
+                registry, 10, 10, 1, 0, 1, 2);
+        // 未启动（或已停止）时由调用线程写入，不能无限重试
+        writer.submit(SessionEvent.login(1, LocalDateTime.now()));
+
+        verify(jdbcTemplate, times(SessionEventWriter.SHUTDOWN_ATTEMPTS)).batchUpdate(anyString(), anyList());
+        assertEquals(1, registry.counter("telecom.session.writer.events", "result", "failed").count());
+    }
+}
@@ -0,0 +1,141 @@
+package com.telecom_system.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 被跟踪账号的真实值应在 [count - error, count] 内，未跟踪账号不超过 minCount；
+ * 序列化可还原，多节点合并后的上下界仍包含全局真实值
+ */
+class SpaceSavingTest {
+
+    // 偏斜分布：少数账号占大部分权重
+    private static int skewedAccount(Random random, int accounts) {
+        return (int) Math.floor(Math.pow(random.nextDouble(), 3) * accounts);
+    }
+
+    @Test
+    void offerKeepsErrorBounds() {
+        Random random = new Random(42L);
+        SpaceSaving sketch = new SpaceSaving(50);
+        Map<Integer, Long> exact = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < 20000; i++) {
+            int account = skewedAccount(random, 1000);
+            long weight = 1 + random.nextInt(10);
+            sketch.offer(account, weight);
+            exact.merge(account, weight, Long::sum);
+            total += weight;
+        }
+
+        List<SpaceSaving.Counter> counters = sketch.counters();
+        assertEquals(50, counters.size());
+        // 替换时继承计数：全部计数之和等于总权重
+        assertEquals(total, counters.stream().mapToLong(SpaceSaving.Counter::count).sum());
+        for (int i = 1; i < counters.size(); i++) {
+            assertTrue(counters.get(i - 1).count() >= counters.get(i).count());
+        }
+        Map<Integer, SpaceSaving.Counter> tracked = new HashMap<>();
+        for (SpaceSaving.Counter c : counters) {
+            long actual = exact.get(c.accountId());
+            assertTrue(c.count() - c.error() <= actual && actual <= c.count(), c + " actual=" + actual);
+            assertTrue(c.error() <= sketch.minCount());
+            tracked.put(c.accountId(), c);
+        }
+        for (Map.Entry<Integer, Long> e : exact.entrySet()) {
+            if (!tracked.containsKey(e.getKey())) {
+                assertTrue(e.getValue() <= sketch.minCount(), "account=" + e.getKey());
+            }
+            // 超过 总量 / 容量 的账号一定被跟踪
+            if (e.getValue() > total / 50) {
+                assertTrue(tracked.containsKey(e.getKey()), "account=" + e.getKey());
+            }
+        }
+    }
+
+    @Test
+    void notFullSketchIsExact() {
+        SpaceSaving sketch = new SpaceSaving(3);
+        sketch.offer(7, 5);
+        sketch.offer(8, 2);
+        sketch.offer(7, 1);
+        sketch.offer(9, 0);
+        assertEquals(0, sketch.minCount());
+        assertEquals(List.of(new SpaceSaving.Counter(7, 6, 0), new SpaceSaving.Counter(8, 2, 0)), sketch.counters());
+
+        sketch.offer(9, 1);
+        sketch.offer(10, 4);
+        // 驱逐计数最小的 9，新账号继承其计数作为误差
+        assertEquals(List.of(new SpaceSaving.Counter(7, 6, 0), new SpaceSaving.Counter(10, 5, 1),
+                new SpaceSaving.Counter(8, 2, 0)), sketch.counters());
+        assertEquals(2, sketch.minCount());
+    }
+
+    @Test
+    void serializeParseRoundTrip() {
+        Random random = new Random(3L);
+        SpaceSaving sketch = new SpaceSaving(20);
+        for (int i = 0; i < 2000; i++) {
+            sketch.offer(skewedAccount(random, 300), 1 + random.nextInt(100));
+        }
+        SpaceSaving.Summary summary = SpaceSaving.parse(sketch.serialize());
+        assertEquals(sketch.minCount(), summary.minCount());
+        assertEquals(sketch.counters(), summary.counters());
+
+        SpaceSaving.Summary empty = SpaceSaving.parse(new SpaceSaving(5).serialize());
+        assertEquals(0, empty.minCount());
+        assertTrue(empty.counters().isEmpty());
+    }
+
+    @Test
+    void mergeTopBoundsContainGlobalCounts() {
+        Random random = new Random(11L);
+        Map<Integer, Long> exact = new HashMap<>();
+        List<SpaceSaving.Summary> summaries = new ArrayList<>();
+        for (int node = 0; node < 3; node++) {
+            SpaceSaving sketch = new SpaceSaving(30);
+            for (int i = 0; i < 5000; i++) {
+                // 各节点的分布不同：热点账号部分重叠
+                int account = (skewedAccount(random, 500) + node * 7) % 500;
+                sketch.offer(account, 1);
+                exact.merge(account, 1L, Long::sum);
+            }
+            summaries.add(SpaceSaving.parse(sketch.serialize()));
+        }
+
+        List<SpaceSaving.Counter> top = SpaceSaving.mergeTop(summaries, 10);
+        assertEquals(10, top.size());
+        for (int i = 0; i < top.size(); i++) {
+            SpaceSaving.Counter c = top.get(i);
+            long actual = exact.getOrDefault(c.accountId(), 0L);
+            assertTrue(c.count() - c.error() <= actual && actual <= c.count(), c + " actual=" + actual);
+            if (i > 0) {
+                assertTrue(top.get(i - 1).count() >= c.count());
+            }
+        }
+        // 全局真实值最大的账号排在合并结果中
+        int heaviest = exact.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        assertTrue(top.stream().anyMatch(c -> c.accountId() == heaviest));
+    }
+
+    @Test
+    void mergeTopCountsMissingNodesAtTheirMinimum() {
+        SpaceSaving.Summary a = new SpaceSaving.Summary(4, List.of(new SpaceSaving.Counter(1, 10, 2)));
+        SpaceSaving.Summary b = new SpaceSaving.Summary(3, List.of(new SpaceSaving.Counter(2, 9, 0)));
+        List<SpaceSaving.Counter> top = SpaceSaving.mergeTop(List.of(a, b), 5);
+        // 账号 1：上界 10 + 3，下界 10 - 2；账号 2：上界 9 + 4，下界 9
+        assertEquals(List.of(new SpaceSaving.Counter(2, 13, 4), new SpaceSaving.Counter(1, 13, 5)), top);
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+}
@@ -0,0 +1,81 @@
+package com.telecom_system.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.telecom_system.repository.LoginInfoRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 系统登录统计按整天查询（00:00 至 23:59:59）时，去重人数应走每日 HyperLogLog，而不是扫描 login_info
+ */
+class SqlSessionAnalyticsTest {
+
+    private static final LocalDate FROM = LocalDate.now().minusDays(7);
+    private static final LocalDate TO = LocalDate.now().minusDays(1);
+
+    private final LoginInfoRepository loginInfoRepository = mock(LoginInfoRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final HyperLogLogOperations<String, String> hyperLogLog = mock(HyperLogLogOperations.class);
+    private final SqlSessionAnalytics analytics;
+
+    SqlSessionAnalyticsTest() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hyperLogLog);
+        LoginInfoPartitionService partitions = mock(LoginInfoPartitionService.class);
+        when(partitions.queryHorizon()).thenReturn(LocalDateTime.of(1970, 1, 1, 0, 0));
+        UniqueLoginCounter counter = new UniqueLoginCounter(redisTemplate, jdbcTemplate, partitions, 0, 400);
+        analytics = new SqlSessionAnalytics(loginInfoRepository, counter);
+        when(loginInfoRepository.countByLoginTimeBetween(any(), any())).thenReturn(120L);
+        when(loginInfoRepository.findMostActiveAccount(any(), any())).thenReturn(List.<Object[]>of(new Object[] {1001, 9L}));
+    }
+
+    @Test
+    void wholeDayRangeUsesDailySketches() {
+        when(hyperLogLog.size(any(String[].class))).thenReturn(42L);
+
+        SessionAnalytics.RangeSummary summary = analytics.summarize(FROM.atStartOfDay(), TO.atTime(23, 59, 59));
+
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        verify(hyperLogLog).size(keys.capture());
+        assertEquals(7, keys.getValue().length);
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(42, summary.uniqueUsers());
+        assertFalse(summary.uniqueUsersExact());
+        // 登录次数与最活跃用户覆盖到当天最后一微秒
+        LocalDateTime last = TO.atTime(LocalTime.MAX).withNano(999_999_000);
+        verify(loginInfoRepository).countByLoginTimeBetween(FROM.atStartOfDay(), last);
+        verify(loginInfoRepository).findMostActiveAccount(FROM.atStartOfDay(), last);
+    }
+
+    @Test
+    void partialDayRangeIsCountedExactly() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(), any())).thenReturn(5L);
+
+        SessionAnalytics.RangeSummary summary = analytics.summarize(FROM.atStartOfDay(), TO.atTime(12, 0));
+
+        verifyNoInteractions(hyperLogLog);
+        assertEquals(5, summary.uniqueUsers());
+        assertTrue(summary.uniqueUsersExact());
+        verify(loginInfoRepository).countByLoginTimeBetween(FROM.atStartOfDay(), TO.atTime(12, 0));
+    }
+
+    @Test
+    void exclusiveEndAlignsOnlyTheLastSecond() {
+        assertEquals(TO.plusDays(1).atStartOfDay(), SqlSessionAnalytics.exclusiveEnd(TO.atTime(23, 59, 59)));
+        assertEquals(TO.plusDays(1).atStartOfDay(), SqlSessionAnalytics.exclusiveEnd(TO.atTime(LocalTime.MAX)));
+        assertEquals(TO.atTime(23, 59, 58).plusNanos(1000), SqlSessionAnalytics.exclusiveEnd(TO.atTime(23, 59, 58)));
+        assertEquals(TO.atStartOfDay().plusNanos(1000), SqlSessionAnalytics.exclusiveEnd(TO.atStartOfDay()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.telecom_system.event.SessionEvent;
+import com.telecom_system.service.TopUsersTracker.Metric;
+import com.telecom_system.service.TopUsersTracker.TopUser;
+import com.telecom_system.service.TopUsersTracker.Window;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 会话事件写入各窗口草图，落库后经 Redis 读回并合并；跨窗口的会话按窗口边界拆分在线秒数
+ */
+class TopUsersTrackerTest {
+
+    // Redis 哈希：键 → (节点 → 序列化的草图)
+    private final Map<String, Map<Object, Object>> hashes = new HashMap<>();
+    private final TopUsersTracker tracker;
+
+    @SuppressWarnings("unchecked")
+    TopUsersTrackerTest() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        doReturn(hash).when(redisTemplate).opsForHash();
+        doAnswer(invocation -> hashes.computeIfAbsent(invocation.getArgument(0), k -> new HashMap<>())
+                .put(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(hash).put(anyString(), any(), any());
+        when(hash.values(anyString())).thenAnswer(invocation ->
+                new ArrayList<>(hashes.getOrDefault(invocation.<String>getArgument(0), Map.of()).values()));
+        tracker = new TopUsersTracker(redisTemplate, 10);
+    }
+
+    @Test
+    void loginsAreRankedAfterFlush() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 3; i++) {
+            tracker.onSessionEvent(SessionEvent.login(1001, now));
+        }
+        tracker.onSessionEvent(SessionEvent.login(1002, now));
+
+        assertTrue(tracker.top(Metric.LOGINS, Window.DAY, 0, 5).isEmpty());
+        tracker.flush();
+        assertEquals(List.of(new TopUser(1001, 3, 0), new TopUser(1002, 1, 0)),
+                tracker.top(Metric.LOGINS, Window.DAY, 0, 5));
+        assertEquals(List.of(new TopUser(1001, 3, 0)), tracker.top(Metric.LOGINS, Window.DAY, 0, 1));
+    }
+
+    @Test
+    void onlineSecondsAreSplitAtWindowBoundaries() {
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        // 上一小时的最后 10 分钟与本小时的第 1 秒
+        LocalDateTime login = hour.minusMinutes(10);
+        LocalDateTime logout = hour.plusSeconds(1);
+        tracker.onSessionEvent(SessionEvent.logout(1001, logout, login));
+        tracker.flush();
+
+        assertEquals(List.of(new TopUser(1001, 600, 0)), tracker.top(Metric.ONLINE_SECONDS, Window.HOUR, 1, 5));
+        assertEquals(List.of(new TopUser(1001, 1, 0)), tracker.top(Metric.ONLINE_SECONDS, Window.HOUR, 0, 5));
+        // 没有登录时间的下线事件不计在线秒数
+        tracker.onSessionEvent(SessionEvent.logout(1002, logout));
+        tracker.flush();
+        assertEquals(1, tracker.top(Metric.ONLINE_SECONDS, Window.HOUR, 0, 5).size());
+    }
+
+    @Test
+    void rejectsOutOfRangeArguments() {
+        assertThrows(IllegalArgumentException.class, () -> tracker.top(Metric.LOGINS, Window.DAY, 0, 11));
+        assertThrows(IllegalArgumentException.class, () -> tracker.top(Metric.LOGINS, Window.HOUR, 48, 5));
+        assertThrows(IllegalArgumentException.class, () -> Metric.of("bytes"));
+        assertThrows(IllegalArgumentException.class, () -> Window.of("week"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.telecom_system.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.telecom_system.entity.UsageLedger;
+import com.telecom_system.repository.UsageLedgerRepository;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * 台账对账：套餐周期早于保留期起点的账号部分会话已归档，不能按 login_info 向下修正
+ */
+class UsageLedgerServiceTest {
+
+    private static final LocalDateTime HORIZON = LocalDateTime.of(2026, 4, 1, 0, 0);
+
+    private final UsageLedgerRepository usageLedgerRepository = mock(UsageLedgerRepository.class);
+    private final UsageLedgerService service;
+
+    UsageLedgerServiceTest() {
+        LoginInfoPartitionService partitions = mock(LoginInfoPartitionService.class);
+        when(partitions.queryHorizon()).thenReturn(HORIZON);
+        service = new UsageLedgerService(usageLedgerRepository, partitions, 1000);
+    }
+
+    private static UsageLedger ledger(int account, long usedMillis, LocalDateTime packageStart) {
+        UsageLedger ledger = new UsageLedger(account, usedMillis, packageStart, null);
+        ledger.setUpdatedAt(packageStart.plusDays(1));
+        return ledger;
+    }
+
+    @Test
+    void reconcileSkipsPackagesStartedBeforeHorizon() {
+        LocalDateTime archived = HORIZON.minusMonths(2);
+        LocalDateTime retained = HORIZON.plusDays(3);
+        when(usageLedgerRepository.findAll()).thenReturn(List.of(
+                ledger(1, 9_000_000, archived), ledger(2, 9_000_000, retained)));
+        // 原始记录只剩保留期内的会话：两个账号都比台账少
+        when(usageLedgerRepository.computeAllFromLoginInfo()).thenReturn(List.of(
+                new Object[] {1, archived, 3_000_000L, null},
+                new Object[] {2, retained, 3_000_000L, null},
+                new Object[] {3, archived, 500L, null}));
+
+        service.reconcile();
+
+        verify(usageLedgerRepository, never()).correct(eq(1), anyLong(), any(), any(), any());
+        verify(usageLedgerRepository).correct(2, 3_000_000L, retained, null, retained.plusDays(1));
+        // 缺失的台账照常补建
+        verify(usageLedgerRepository).save(argThat(l -> l.getAccountId() == 3 && l.getUsedMillis() == 500L));
+    }
+
+    @Test
+    void reconcileLeavesLedgerWithinToleranceAlone() {
+        LocalDateTime retained = HORIZON.plusDays(3);
+        when(usageLedgerRepository.findAll()).thenReturn(List.of(ledger(2, 3_000_400, retained)));
+        when(usageLedgerRepository.computeAllFromLoginInfo()).thenReturn(List.<Object[]>of(
+                new Object[] {2, retained, 3_000_000L, null}));
+
+        service.reconcile();
+
+        verify(usageLedgerRepository, never()).correct(any(), anyLong(), any(), any(), any());
+        verify(usageLedgerRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,138 @@
+package com.telecom_system.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.telecom_system.entity.LoginInfo;
+import com.telecom_system.entity.User;
+import com.telecom_system.repository.LoginInfoRepository;
+import com.telecom_system.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户活跃度统计基准：逐用户查询（N+1）与单条聚合查询随用户数增长的耗时对比
+ * 需要 PostgreSQL，默认不执行：mvn test -Dtest=UserActivityStatisticsBenchmark -Dtelecom.benchmark=true
+ */
+@SpringBootTest
+@Transactional  // 测试完成后回滚数据
+@EnabledIfSystemProperty(named = "telecom.benchmark", matches = "true")
+class UserActivityStatisticsBenchmark {
+
+    private static final int[] USER_COUNTS = {1_000, 5_000, 20_000};
+    private static final int SESSIONS_PER_USER = 10;
+    private static final LocalDateTime SINCE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoginInfoRepository loginInfoRepository;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private StatisticsViewService statisticsViewService;
+
+    @Test
+    void compareNPlusOneWithSingleQuery() {
+        System.out.println("-- user activity benchmark begin --");
+        int inserted = 0;
+        for (int target : USER_COUNTS) {
+            insertUsers(target - inserted);
+            inserted = target;
+
+            long start = System.nanoTime();
+            int legacyRows = legacyActivity().size();
+            Duration legacy = Duration.ofNanos(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            List<Map<String, Object>> rows = pagedActivity();
+            Duration single = Duration.ofNanos(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            statisticsService.getUserActivityStatistics("loginCount", "desc", 50, 0, true);
+            Duration topN = Duration.ofNanos(System.nanoTime() - start);
+
+            // 刷新物化视图（加入测试事务，回滚后视图恢复原状）后读取
+            statisticsViewService.refresh(StatisticsViewService.View.USER_ACTIVITY);
+            start = System.nanoTime();
+            List<Map<String, Object>> viewRows =
+                    statisticsService.getUserActivityStatistics("loginCount", "desc", 50, 0, false).data();
+            Duration viewTopN = Duration.ofNanos(System.nanoTime() - start);
+
+            assertEquals(legacyRows, rows.size());
+            assertEquals(rows.subList(0, viewRows.size()), viewRows);
+            System.out.printf("users=%,d  n+1=%,dms  single=%,dms  top50=%,dms  view-top50=%,dms%n",
+                    userRepository.count(), legacy.toMillis(), single.toMillis(), topN.toMillis(), viewTopN.toMillis());
+        }
+        System.out.println("-- user activity benchmark over --\n");
+    }
+
+    // 按最大页长翻页取全部用户（单次请求的条数有上限）
+    private List<Map<String, Object>> pagedActivity() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<Map<String, Object>> page;
+        do {
+            page = statisticsService.getUserActivityStatistics("loginCount", "desc",
+                    StatisticsService.MAX_ACTIVITY_LIMIT, rows.size(), true).data();
+            rows.addAll(page);
+        } while (page.size() == StatisticsService.MAX_ACTIVITY_LIMIT);
+        return rows;
+    }
+
+    // 原实现：查询全部用户，再逐个查询登录记录并在 Java 中计算
+    private List<long[]> legacyActivity() {
+        List<long[]> result = new ArrayList<>();
+        for (User user : userRepository.findAll()) {
+            List<LoginInfo> logins = loginInfoRepository.findByIdAccountIdAndIdLoginTimeGreaterThanEqual(user.getAccount(), SINCE);
+            long minutes = logins.stream()
+                    .filter(l -> l.getLogoutTime() != null)
+                    .mapToLong(l -> Duration.between(l.getLoginTime(), l.getLogoutTime()).toMinutes())
+                    .sum();
+            result.add(new long[] { user.getAccount(), logins.size(), minutes });
+        }
+        return result;
+    }
+
+    private void insertUsers(int count) {
+        Random random = new Random(count);
+        List<Object[]> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new Object[] { "bench_" + i, "password", "0000000000" });
+        }
+        List<Integer> accounts = new ArrayList<>(count);
+        for (Object[] user : users) {
+            accounts.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO user_info (name, password, phone, balance, package_id) " +
+                    "VALUES (?, ?, ?, 0, 1) RETURNING account", Integer.class, user));
+        }
+
+        LocalDateTime base = LocalDateTime.now().minusDays(20);
+        List<Object[]> sessions = new ArrayList<>(count * SESSIONS_PER_USER);
+        for (Integer account : accounts) {
+            for (int i = 0; i < SESSIONS_PER_USER; i++) {
+                LocalDateTime login = base.plusMinutes(i * 600L + random.nextInt(300));
+                sessions.add(new Object[] { account, Timestamp.valueOf(login),
+                        Timestamp.valueOf(login.plusMinutes(1 + random.nextInt(240))) });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO login_info (account_id, login_time, logout_time) VALUES (?, ?, ?)", sessions);
+    }
+}
@@ -0,0 +1,67 @@
+package com.telecom_system.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 列表缓存版本号：窗口外的变更立即递增，窗口内的连续变更合并为一次
+ */
+class UserListGenerationTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final AtomicLong redisGeneration = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment(anyString())).thenAnswer(invocation -> redisGeneration.incrementAndGet());
+    }
+
+    @Test
+    void burstOfWritesBumpsOncePerWindow() {
+        UserListGeneration generation = new UserListGeneration(redisTemplate,
+                mock(RedisMessageListenerContainer.class), 60_000);
+
+        // 第一次变更立即生效
+        generation.changed();
+        assertEquals(1, generation.current());
+
+        // 窗口内的 100 次变更只做标记
+        for (int i = 0; i < 100; i++) {
+            generation.changed();
+        }
+        assertEquals(1, generation.current());
+
+        // 窗口结束时合并递增一次
+        generation.flushPending();
+        assertEquals(2, generation.current());
+        generation.flushPending();
+        assertEquals(2, generation.current());
+        verify(valueOperations, times(2)).increment(anyString());
+    }
+
+    @Test
+    void failedBumpIsRetried() {
+        UserListGeneration generation = new UserListGeneration(redisTemplate,
+                mock(RedisMessageListenerContainer.class), 0);
+        doThrow(new IllegalStateException("redis down"))
+                .doAnswer(invocation -> redisGeneration.incrementAndGet())
+                .when(valueOperations).increment(anyString());
+
+        generation.changed();
+        assertEquals(0, generation.current());
+        generation.flushPending();
+        assertEquals(1, generation.current());
+    }
+}